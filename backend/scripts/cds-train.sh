@@ -0,0 +1,23 @@
+#!/bin/sh
+# Training run that records the AppCDS archive for the fast-startup image. Runs inside the Dockerfile's
+# `cds` stage, from the exploded application in /app.
+#
+# A throwaway PostgreSQL is started so the run goes through the same start-up as production (Flyway,
+# Hibernate bootstrap, RBAC catalog and endpoint-rule loads) and archives the classes they load. The JVM
+# exits as soon as the context has refreshed; Tomcat never accepts a request.
+set -e
+
+PGDATA=/tmp/pgdata
+
+mkdir -p /run/postgresql
+chown postgres /run/postgresql
+su postgres -c "initdb -D $PGDATA -A trust -U postgres" > /dev/null
+su postgres -c "pg_ctl -D $PGDATA -o '-c listen_addresses=localhost' -w start" > /dev/null
+su postgres -c "createdb -U postgres auth_db"
+
+# JVM options must match the ENTRYPOINT, otherwise the archive is silently ignored at run time
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    @classpath.args com.sagar.hr.HRApplication
+
+su postgres -c "pg_ctl -D $PGDATA -w stop" > /dev/null
+rm -rf "$PGDATA" logs
@@ -0,0 +1,52 @@
+#!/bin/bash
+# Compares two JMH JSON result files on throughput and on bytes allocated per operation (GC profiler).
+#
+# Requires: jq. `mvn -Pjmh test-compile exec:exec@jmh` writes target/jmh-result.json; keep a copy of a
+# run on the base branch outside target/ as the baseline.
+#
+# Usage: scripts/jmh-compare.sh <baseline.json> [current.json]
+# Exits non-zero when throughput drops, or allocation grows, by more than THRESHOLD_PCT (default 5).
+set -e
+set -o pipefail
+
+SCRIPT_DIR="$(dirname "$0")"
+BASELINE=${1:?usage: scripts/jmh-compare.sh <baseline.json> [current.json]}
+CURRENT=${2:-$SCRIPT_DIR/../target/jmh-result.json}
+THRESHOLD_PCT=${THRESHOLD_PCT:-5}
+REPORT="$SCRIPT_DIR/../target/jmh-comparison.txt"
+
+mkdir -p "$(dirname "$REPORT")"
+
+jq -r -n --slurpfile base "$BASELINE" --slurpfile now "$CURRENT" --argjson threshold "$THRESHOLD_PCT" '
+    def key: .benchmark + (if (.params // {}) == {} then ""
+        else " [" + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) + "]" end);
+    def alloc: [(.secondaryMetrics // {}) | to_entries[] | select(.key | endswith("gc.alloc.rate.norm"))
+        | .value.score][0];
+    def pct(new; old): if new == null or old == null or old == 0 then null else (new - old) / old * 100 end;
+    def fmt: if . == null then "-" else (. * 100 | round / 100 | tostring) end;
+
+    ($base[0] | map({key: key, value: .}) | from_entries) as $baseline
+    | (["BENCHMARK", "OPS/S_BASE", "OPS/S_NOW", "DELTA_%", "B/OP_BASE", "B/OP_NOW", "DELTA_%", ""] | @tsv),
+      ($now[0][]
+        | key as $key
+        | $baseline[$key] as $old
+        | .primaryMetric.score as $ops
+        | ($old.primaryMetric.score // null) as $oldOps
+        | alloc as $bytes
+        | (if $old == null then null else ($old | alloc) end) as $oldBytes
+        | pct($ops; $oldOps) as $opsDelta
+        | pct($bytes; $oldBytes) as $bytesDelta
+        | [$key, ($oldOps | fmt), ($ops | fmt), ($opsDelta | fmt), ($oldBytes | fmt), ($bytes | fmt),
+            ($bytesDelta | fmt),
+            (if $old == null then "NEW"
+             elif ($opsDelta != null and $opsDelta < -$threshold)
+                or ($bytesDelta != null and $bytesDelta > $threshold) then "REGRESSION"
+             else "" end)]
+        | @tsv)
+' | awk -F'\t' '{ printf "%-90s %14s %14s %9s %12s %12s %9s %s\n", $1, $2, $3, $4, $5, $6, $7, $8 }' \
+    | tee "$REPORT"
+
+if grep -q "REGRESSION" "$REPORT"; then
+    echo "[jmh] Regressions beyond ${THRESHOLD_PCT}% found, see $REPORT"
+    exit 1
+fi
@@ -0,0 +1,50 @@
+#!/bin/bash
+# Compares two load-test reports written by the `loadtest` Maven profile, endpoint by endpoint.
+#
+# Requires: jq. Keep a report from the base branch outside target/ as the baseline; both runs should use
+# the same options and machine.
+#
+# Usage: scripts/loadtest-compare.sh <baseline.json> [current.json]
+# Exits non-zero when p99 latency grows, or throughput falls, by more than THRESHOLD_PCT (default 10),
+# or when the current run saw unexpected statuses or dropped arrivals.
+set -e
+set -o pipefail
+
+SCRIPT_DIR="$(dirname "$0")"
+BASELINE=${1:?usage: scripts/loadtest-compare.sh <baseline.json> [current.json]}
+CURRENT=${2:-$SCRIPT_DIR/../target/loadtest/report.json}
+THRESHOLD_PCT=${THRESHOLD_PCT:-10}
+REPORT="$SCRIPT_DIR/../target/loadtest/comparison.txt"
+
+mkdir -p "$(dirname "$REPORT")"
+
+jq -r -n --slurpfile base "$BASELINE" --slurpfile now "$CURRENT" --argjson threshold "$THRESHOLD_PCT" '
+    def rows: .scenarios[] | . as $scenario | .endpoints[]
+        | {key: ($scenario.scenario + " | " + .endpoint), value: (. + {dropped: $scenario.droppedArrivals})};
+    def pct(new; old): if new == null or old == null or old == 0 then null else (new - old) / old * 100 end;
+    def fmt: if . == null then "-" else (. * 100 | round / 100 | tostring) end;
+
+    ($base[0] | [rows] | from_entries) as $baseline
+    | (["SCENARIO | ENDPOINT", "REQ/S_BASE", "REQ/S_NOW", "P99_BASE", "P99_NOW", "P99_DELTA_%", "P999_NOW", ""] | @tsv),
+      ($now[0] | rows
+        | .key as $key
+        | .value as $row
+        | $baseline[$key] as $old
+        | pct($row.throughputPerSec; $old.throughputPerSec) as $rateDelta
+        | pct($row.latencyMs.p99; $old.latencyMs.p99) as $p99Delta
+        | [$key, ($old.throughputPerSec | fmt), ($row.throughputPerSec | fmt), ($old.latencyMs.p99 | fmt),
+            ($row.latencyMs.p99 | fmt), ($p99Delta | fmt), ($row.latencyMs.p999 | fmt),
+            (if $row.unexpectedStatus + $row.transportFailures > 0 then "UNEXPECTED_STATUS"
+             elif $row.dropped > 0 then "DROPPED_ARRIVALS"
+             elif $old == null then "NEW"
+             elif ($p99Delta != null and $p99Delta > $threshold)
+                or ($rateDelta != null and $rateDelta < -$threshold) then "REGRESSION"
+             else "" end)]
+        | @tsv)
+' | awk -F'\t' '{ printf "%-70s %11s %11s %10s %10s %12s %10s %s\n", $1, $2, $3, $4, $5, $6, $7, $8 }' \
+    | tee "$REPORT"
+
+if grep -q -E "REGRESSION|UNEXPECTED_STATUS|DROPPED_ARRIVALS" "$REPORT"; then
+    echo "[loadtest] Problems found, see $REPORT"
+    exit 1
+fi
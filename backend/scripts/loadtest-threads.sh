@@ -0,0 +1,77 @@
+#!/bin/bash
+# Compares platform-thread and virtual-thread request handling under high concurrency.
+#
+# Requires: a built jar (mvn package), the auth_db container running (docker compose up -d postgres_db)
+# and `hey` (https://github.com/rakyll/hey) on the PATH.
+#
+# Usage: scripts/loadtest-threads.sh [concurrency] [duration]
+set -e
+
+SCRIPT_DIR="$(dirname "$0")"
+JAR="$SCRIPT_DIR/../target/demo-0.0.1-SNAPSHOT.jar"
+CONCURRENCY=${1:-2000}
+DURATION=${2:-60s}
+PORT=${PORT:-8080}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-8081}
+BASE_URL="http://localhost:$PORT"
+MANAGEMENT_URL=${MANAGEMENT_URL:-"http://localhost:$MANAGEMENT_PORT"}
+RESULTS_DIR="$SCRIPT_DIR/../target/loadtest"
+
+mkdir -p "$RESULTS_DIR"
+
+for MODE in platform virtual-threads; do
+    LOG="$RESULTS_DIR/app-$MODE.log"
+    PROFILE_ARG=""
+    JVM_ARGS="-Xmx512m"
+    if [ "$MODE" = "virtual-threads" ]; then
+        PROFILE_ARG="--spring.profiles.active=virtual-threads"
+        JVM_ARGS="$JVM_ARGS -Djdk.tracePinnedThreads=short"
+    fi
+
+    echo "[loadtest] Starting application in $MODE mode"
+    java $JVM_ARGS -jar "$JAR" --server.port="$PORT" --management.server.port="$MANAGEMENT_PORT" $PROFILE_ARG > "$LOG" 2>&1 &
+    APP_PID=$!
+    trap 'kill $APP_PID 2>/dev/null' EXIT
+
+    for i in $(seq 1 60); do
+        if curl -sf "$MANAGEMENT_URL/actuator/health" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+
+    TOKEN=$(curl -sf -X POST "$BASE_URL/api/v1/auth/signin" -H "Content-Type: application/json" \
+        -d '{"username": "adminuser", "password": "Admin@admin123"}' | sed -E 's/.*"token":"([^"]+)".*/\1/')
+
+    # Sample resident memory while the load runs
+    PEAK_RSS_KB=0
+    (
+        while kill -0 $APP_PID 2>/dev/null; do
+            ps -o rss= -p $APP_PID
+            sleep 1
+        done
+    ) > "$RESULTS_DIR/rss-$MODE.txt" &
+    SAMPLER_PID=$!
+
+    echo "[loadtest] Driving $CONCURRENCY concurrent clients for $DURATION"
+    hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer $TOKEN" \
+        "$BASE_URL/api/v1/permissions" > "$RESULTS_DIR/hey-$MODE.txt"
+
+    LIVE_THREADS=$(curl -sf -H "Authorization: Bearer $TOKEN" "$MANAGEMENT_URL/actuator/metrics/jvm.threads.live" \
+        | sed -E 's/.*"value":([0-9.]+).*/\1/')
+
+    kill $SAMPLER_PID 2>/dev/null || true
+    kill $APP_PID
+    wait $APP_PID 2>/dev/null || true
+    trap - EXIT
+
+    PEAK_RSS_KB=$(sort -n "$RESULTS_DIR/rss-$MODE.txt" | tail -1)
+    RPS=$(grep "Requests/sec" "$RESULTS_DIR/hey-$MODE.txt" | awk '{print $2}')
+    P99=$(grep "99% in" "$RESULTS_DIR/hey-$MODE.txt" | awk '{print $3}')
+    PINNED=$(grep -c "VirtualThread" "$LOG" || true)
+
+    echo "$MODE requests_per_sec=$RPS p99_secs=$P99 peak_rss_mb=$((PEAK_RSS_KB / 1024)) live_threads=$LIVE_THREADS pinned_traces=$PINNED" \
+        | tee -a "$RESULTS_DIR/summary.txt"
+done
+
+echo "[loadtest] Full reports in $RESULTS_DIR"
@@ -0,0 +1,4 @@
+#!/bin/sh
+# Allows replication connections to postgres_db so the local postgres_replica service can stream from it.
+# Runs from /docker-entrypoint-initdb.d, i.e. only when the auth_db volume is first initialised.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
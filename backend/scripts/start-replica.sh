@@ -0,0 +1,15 @@
+#!/bin/sh
+# Entrypoint of the postgres_replica service (docker compose --profile replica): clones postgres_db with
+# pg_basebackup on first start and then runs as a hot-standby streaming replica of it.
+set -e
+
+PGDATA=/var/lib/postgresql/data
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    chown postgres "$PGDATA"
+    chmod 700 "$PGDATA"
+    # -R writes standby.signal and primary_conninfo, so the server starts as a standby
+    su-exec postgres pg_basebackup -h postgres_db -U postgres -D "$PGDATA" -X stream -R
+fi
+
+exec su-exec postgres postgres -D "$PGDATA"
@@ -0,0 +1,73 @@
+#!/bin/bash
+# Compares cold-start time of the standard and fast-startup (AOT + CDS) images.
+#
+# Requires: docker with compose, and curl. Builds both image targets from the Dockerfile, starts the
+# auth_db container and then, for each image and run, starts a fresh container and polls a sign-in until
+# it succeeds. Time-to-first-successful-request is measured from `docker run` to that response, so it
+# includes JVM start, context refresh, Flyway validation and the first request itself.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+set -e
+
+SCRIPT_DIR="$(dirname "$0")"
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+RESULTS_DIR="$SCRIPT_DIR/../target/startup"
+SUMMARY="$RESULTS_DIR/summary.txt"
+
+mkdir -p "$RESULTS_DIR"
+: > "$SUMMARY"
+
+echo "[startup] Building images"
+docker build -q --target standard -t hr-backend:standard "$SCRIPT_DIR/.." > /dev/null
+docker build -q --target fast-startup -t hr-backend:fast-startup "$SCRIPT_DIR/.." > /dev/null
+
+docker compose -f "$SCRIPT_DIR/../docker-compose.yml" up -d --wait postgres_db > /dev/null
+NETWORK=$(docker inspect auth_db -f '{{range $name, $net := .NetworkSettings.Networks}}{{$name}}{{end}}')
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+for MODE in standard fast-startup; do
+    TIMES="$RESULTS_DIR/ttfr-$MODE.txt"
+    : > "$TIMES"
+    for RUN in $(seq 1 "$RUNS"); do
+        START=$(now_ms)
+        CONTAINER=$(docker run -d --rm --network "$NETWORK" -p "$PORT:8080" \
+            -e SPRING_DATASOURCE_URL=jdbc:postgresql://postgres_db:5432/auth_db \
+            -e SPRING_DATASOURCE_USERNAME=postgres \
+            -e SPRING_DATASOURCE_PASSWORD=postgres \
+            "hr-backend:$MODE")
+        trap 'docker rm -f $CONTAINER > /dev/null 2>&1' EXIT
+
+        READY=""
+        for i in $(seq 1 1200); do
+            if curl -sf -o /dev/null -X POST "http://localhost:$PORT/api/v1/auth/signin" \
+                -H "Content-Type: application/json" \
+                -d '{"username": "adminuser", "password": "Admin@admin123"}'; then
+                READY=$(now_ms)
+                break
+            fi
+            sleep 0.05
+        done
+
+        docker logs "$CONTAINER" > "$RESULTS_DIR/app-$MODE-$RUN.log" 2>&1
+        docker rm -f "$CONTAINER" > /dev/null
+        trap - EXIT
+
+        if [ -z "$READY" ]; then
+            echo "[startup] $MODE run $RUN never answered, see $RESULTS_DIR/app-$MODE-$RUN.log"
+            exit 1
+        fi
+        echo "[startup] $MODE run $RUN: $((READY - START)) ms"
+        echo $((READY - START)) >> "$TIMES"
+    done
+
+    sort -n "$TIMES" | awk -v mode="$MODE" '
+        { t[NR] = $1 }
+        END { printf "%s runs=%d min_ms=%d median_ms=%d max_ms=%d\n", mode, NR, t[1], t[int((NR + 1) / 2)], t[NR] }
+    ' | tee -a "$SUMMARY"
+done
+
+echo "[startup] Per-run times and application logs in $RESULTS_DIR"
@@ -0,0 +1,113 @@
+package com.sagar.hr.benchmark;
+
+import com.sagar.hr.permission.repository.PermissionRepository;
+import com.sagar.hr.security.auth_manager.RbacCatalog;
+import com.sagar.hr.security.model.Permission;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.repository.RoleRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stand-ins for the repositories and transaction manager, so benchmarks exercise the real
+ * security classes without a Spring context or a database.
+ */
+public final class Fixtures {
+
+    public static final String SUPER_ADMIN = "ROLE_SUPER_ADMIN";
+    public static final String ADMIN = "ROLE_ADMIN";
+    public static final String MODERATOR = "ROLE_MODERATOR";
+    public static final String USER = "ROLE_USER";
+
+    private Fixtures() {
+    }
+
+    /**
+     * A repository proxy answering the named methods and failing on anything else.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, Map<String, Supplier<?>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Supplier<?> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.get();
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Fixture";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+    public static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /**
+     * The seeded role chain SUPER_ADMIN > ADMIN > MODERATOR > USER, each role holding
+     * {@code permissionsPerRole} permissions of its own.
+     */
+    public static Map<String, Role> roleHierarchy(int permissionsPerRole) {
+        Map<String, Role> roles = new LinkedHashMap<>();
+        Role previous = null;
+        long permissionId = 1;
+        long roleId = 1;
+        for (String name : List.of(USER, MODERATOR, ADMIN, SUPER_ADMIN)) {
+            Role role = new Role(name);
+            role.setId(roleId++);
+            for (int i = 0; i < permissionsPerRole; i++) {
+                String permissionName = name.substring("ROLE_".length()) + "_PERMISSION_" + i;
+                Permission permission = new Permission(permissionName, permissionName.toLowerCase());
+                permission.setId(permissionId++);
+                role.getPermissions().add(permission);
+            }
+            if (previous != null) {
+                role.getIncludedRoles().add(previous);
+            }
+            roles.put(name, role);
+            previous = role;
+        }
+        return roles;
+    }
+
+    public static List<Permission> permissions(Map<String, Role> roles) {
+        List<Permission> permissions = new ArrayList<>();
+        roles.values().forEach(role -> permissions.addAll(role.getPermissions()));
+        return permissions;
+    }
+
+    public static RbacCatalog rbacCatalog(Map<String, Role> roles) {
+        List<Role> roleList = List.copyOf(roles.values());
+        List<Permission> permissions = permissions(roles);
+        RbacCatalog catalog = new RbacCatalog(
+                repository(RoleRepository.class, Map.of("findAllWithIncludedRoles", () -> roleList)),
+                repository(PermissionRepository.class, Map.of("findAll", () -> permissions)),
+                noOpTransactionManager(), 10_000);
+        catalog.reload();
+        return catalog;
+    }
+}
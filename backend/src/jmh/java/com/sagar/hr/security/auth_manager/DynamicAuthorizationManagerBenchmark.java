@@ -0,0 +1,105 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.benchmark.Fixtures;
+import com.sagar.hr.security.model.EndpointRole;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.repository.EndpointRoleRepository;
+import com.sagar.hr.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization of a moderator request against 10, 100 and 1000 endpoint rules. The rule that grants
+ * access sits in the middle of the table; the miss case matches no rule at all. The decision log is
+ * sampled at zero so only the check itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DynamicAuthorizationManagerBenchmark {
+
+    private static final String[] METHODS = { "GET", "POST", "PUT", "DELETE" };
+
+    @Param({ "10", "100", "1000" })
+    public int rules;
+
+    private DynamicAuthorizationManager manager;
+    private Authentication authentication;
+    private RequestAuthorizationContext matchingRequest;
+    private RequestAuthorizationContext unmatchedRequest;
+
+    @Setup
+    public void setUp() {
+        Map<String, Role> roles = Fixtures.roleHierarchy(10);
+        RbacCatalog rbacCatalog = Fixtures.rbacCatalog(roles);
+
+        List<EndpointRole> endpointRoles = new ArrayList<>(rules);
+        Role[] ruleRoles = { roles.get(Fixtures.ADMIN), roles.get(Fixtures.MODERATOR), roles.get(Fixtures.USER) };
+        for (int i = 0; i < rules; i++) {
+            String pattern = switch (i % 3) {
+                case 0 -> "/api/v1/module" + i + "/**";
+                case 1 -> "/api/v1/module" + i + "/{id}";
+                default -> "/api/v1/module" + i + "/items/*/details";
+            };
+            EndpointRole endpointRole = new EndpointRole(pattern, METHODS[i % METHODS.length], ruleRoles[i % 3]);
+            endpointRole.setId((long) i + 1);
+            endpointRoles.add(endpointRole);
+        }
+        // A "/**" rule in the middle of the table grants the moderator
+        int target = (rules / 2) / 3 * 3;
+        endpointRoles.get(target).setRole(roles.get(Fixtures.MODERATOR));
+        EndpointRuleRegistry registry = new EndpointRuleRegistry(
+                Fixtures.repository(EndpointRoleRepository.class, Map.of("findAll", () -> endpointRoles)),
+                rbacCatalog);
+        registry.reload();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthorizationDecisionLog decisionLog = new AuthorizationDecisionLog(meterRegistry, 1024, 0.0, 0.0, 512, 200);
+        manager = new DynamicAuthorizationManager(registry, rbacCatalog, decisionLog,
+                new AuthorizationMetrics(meterRegistry));
+
+        UserDetailsImpl principal = UserDetailsImpl.build(7L, "moderator", "moderator@example.com",
+                List.of(Fixtures.MODERATOR), List.of(), 1L);
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        matchingRequest = context(METHODS[target % METHODS.length], "/api/v1/module" + target + "/reports/2024");
+        unmatchedRequest = context("GET", "/api/v1/unknown/resource");
+    }
+
+    @Benchmark
+    public AuthorizationDecision checkMatchingRule() {
+        return manager.check(() -> authentication, matchingRequest);
+    }
+
+    @Benchmark
+    public AuthorizationDecision checkNoMatchingRule() {
+        return manager.check(() -> authentication, unmatchedRequest);
+    }
+
+    private static RequestAuthorizationContext context(String method, String uri) {
+        return new RequestAuthorizationContext(new MockHttpServletRequest(method, uri));
+    }
+}
@@ -0,0 +1,61 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.benchmark.Fixtures;
+import com.sagar.hr.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role-hierarchy expansion for a principal holding one role at the given level of the seeded chain: memoised
+ * on the principal, as for a cached token, and uncached through the {@code RoleHierarchy} contract.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class RbacCatalogBenchmark {
+
+    @Param({ Fixtures.USER, Fixtures.ADMIN })
+    public String role;
+
+    private RbacCatalog rbacCatalog;
+    private UserDetailsImpl principal;
+    private Collection<? extends GrantedAuthority> authorities;
+
+    @Setup
+    public void setUp() {
+        rbacCatalog = Fixtures.rbacCatalog(Fixtures.roleHierarchy(10));
+        principal = UserDetailsImpl.build(1L, "user", "user@example.com", List.of(role), List.of(), 1L);
+        authorities = principal.getAuthorities();
+    }
+
+    @Benchmark
+    public BitSet expandMemoised() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        return rbacCatalog.effectiveAuthorities(authentication);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> reachableGrantedAuthorities() {
+        return rbacCatalog.getReachableGrantedAuthorities(authorities);
+    }
+}
@@ -0,0 +1,76 @@
+package com.sagar.hr.security.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sagar.hr.security.dto.response.JwtResponse;
+import com.sagar.hr.security.dto.response.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisation of the sign-in response and of user pages with the same mapper defaults Spring Boot uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JsonSerializationBenchmark {
+
+    @Param({ "50", "200" })
+    public int users;
+
+    private ObjectWriter jwtResponseWriter;
+    private ObjectWriter userListWriter;
+    private JwtResponse jwtResponse;
+    private List<UserResponse> userResponses;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jwtResponseWriter = objectMapper.writerFor(JwtResponse.class);
+        userListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserResponse.class));
+
+        jwtResponse = new JwtResponse("eyJhbGciOiJIUzI1NiJ9." + "x".repeat(600) + ".signature",
+                "Qm9vdHN0cmFwUmVmcmVzaFRva2VuVmFsdWVGb3JCZW5jaG1hcms", 42L, "benchmark",
+                "benchmark@example.com", List.of("ROLE_ADMIN", "ROLE_USER", "USER_READ", "USER_WRITE"));
+
+        userResponses = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Set<String> roles = new LinkedHashSet<>(List.of("ROLE_USER"));
+            if (i % 10 == 0) {
+                roles.add("ROLE_MODERATOR");
+            }
+            userResponses.add(new UserResponse((long) i, "user" + i, "user" + i + "@example.com", roles));
+        }
+    }
+
+    @Benchmark
+    public byte[] jwtResponse() throws JsonProcessingException {
+        return jwtResponseWriter.writeValueAsBytes(jwtResponse);
+    }
+
+    @Benchmark
+    public byte[] userPage() throws JsonProcessingException {
+        return userListWriter.writeValueAsBytes(userResponses);
+    }
+}
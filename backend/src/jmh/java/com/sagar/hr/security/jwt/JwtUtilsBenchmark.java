@@ -0,0 +1,91 @@
+package com.sagar.hr.security.jwt;
+
+import com.sagar.hr.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue, verification with and without the verified-token cache, and principal reconstruction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    // Far more distinct tokens than the uncached instance can hold, so nearly every call parses
+    private static final int UNCACHED_TOKENS = 4096;
+
+    private JwtUtils cached;
+    private JwtUtils uncached;
+    private UserDetailsImpl principal;
+    private String token;
+    private String[] tokens;
+    private VerifiedJwt verified;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cached = jwtUtils(10_000);
+        uncached = jwtUtils(1);
+        principal = UserDetailsImpl.build(42L, "benchmark", "benchmark@example.com",
+                List.of("ROLE_ADMIN", "ROLE_USER"),
+                List.of("USER_READ", "USER_WRITE", "PERMISSION_READ", "PERMISSION_WRITE"), 3L);
+
+        token = cached.generateJwtToken(principal);
+        tokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = uncached.generateJwtToken(principal);
+        }
+        verified = cached.verifyJwtToken(token).orElseThrow();
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generateJwtToken(principal);
+    }
+
+    @Benchmark
+    public Optional<VerifiedJwt> validateCached() {
+        return cached.verifyJwtToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedJwt> validateUncached() {
+        next = (next + 1) & (UNCACHED_TOKENS - 1);
+        return uncached.verifyJwtToken(tokens[next]);
+    }
+
+    @Benchmark
+    public Optional<UserDetailsImpl> parsePrincipal() {
+        // A fresh wrapper each time: the principal is otherwise kept on the verified token after one parse
+        return cached.getPrincipalFromJwtToken(new VerifiedJwt(verified.getClaims()));
+    }
+
+    private static JwtUtils jwtUtils(long cacheMaxSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtUtils jwtUtils = new JwtUtils(new TokenMetrics(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 900_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCacheMaxSize", cacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
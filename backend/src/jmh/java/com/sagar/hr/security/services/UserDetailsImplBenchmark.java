@@ -0,0 +1,63 @@
+package com.sagar.hr.security.services;
+
+import com.sagar.hr.benchmark.Fixtures;
+import com.sagar.hr.security.model.Permission;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserDetailsImpl#build(User, java.util.Collection)} for a user holding the admin and user roles,
+ * and for a super admin, who is granted every permission in the system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class UserDetailsImplBenchmark {
+
+    @Param({ "normal", "superAdmin" })
+    public String userType;
+
+    @Param({ "10", "100" })
+    public int permissionsPerRole;
+
+    private User user;
+    private List<String> allPermissions;
+
+    @Setup
+    public void setUp() {
+        Map<String, Role> roles = Fixtures.roleHierarchy(permissionsPerRole);
+        allPermissions = Fixtures.permissions(roles).stream().map(Permission::getName).toList();
+
+        user = new User("benchmark", "benchmark@example.com", "{bcrypt}$2a$10$abcdefghijklmnopqrstuv");
+        user.setId(42L);
+        if ("superAdmin".equals(userType)) {
+            user.getRoles().add(roles.get(Fixtures.SUPER_ADMIN));
+        } else {
+            user.getRoles().add(roles.get(Fixtures.ADMIN));
+            user.getRoles().add(roles.get(Fixtures.USER));
+        }
+    }
+
+    @Benchmark
+    public UserDetailsImpl build() {
+        return UserDetailsImpl.build(user, allPermissions);
+    }
+}
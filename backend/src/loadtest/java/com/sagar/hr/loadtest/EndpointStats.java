@@ -0,0 +1,74 @@
+package com.sagar.hr.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and status counts of one endpoint within a scenario. Latency runs from the intended
+ * send time, not the actual one, so a stalled client or server cannot hide queueing (coordinated omission).
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder unexpected = new LongAdder();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, int status, boolean expected) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (!expected) {
+            unexpected.increment();
+        }
+    }
+
+    public void recordFailure(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        failures.increment();
+    }
+
+    /**
+     * Report entry for the measured window of {@code seconds}. Only call once, after the driver finished.
+     */
+    public Map<String, Object> summarise(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> latency = new TreeMap<>();
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p95", millis(histogram.getValueAtPercentile(95)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", millis((long) histogram.getMean()));
+
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("throughputPerSec", Math.round(histogram.getTotalCount() / seconds * 100) / 100.0);
+        summary.put("unexpectedStatus", unexpected.sum());
+        summary.put("transportFailures", failures.sum());
+        summary.put("statuses", statusCounts);
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
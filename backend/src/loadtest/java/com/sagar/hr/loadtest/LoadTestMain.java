@@ -0,0 +1,185 @@
+package com.sagar.hr.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sagar.hr.HRApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application against an embedded PostgreSQL seeded through Flyway, drives each requested
+ * scenario with {@link OpenModelDriver} and writes a JSON report.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec@loadtest -Dloadtest.options="--rate=500"}; see
+ * {@link LoadTestOptions} for every option.
+ */
+public class LoadTestMain {
+
+    private static final String PASSWORD = "LoadTest@123";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String passwordHash = "{bcrypt}" + new BCryptPasswordEncoder(options.bcryptStrength()).encode(PASSWORD);
+
+        log("Starting embedded PostgreSQL");
+        List<EmbeddedPostgres> replicas = new ArrayList<>();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            List<String> replicaUrls = new ArrayList<>();
+            for (int i = 0; i < options.replicas(); i++) {
+                log("Starting and seeding read replica " + (i + 1));
+                EmbeddedPostgres replica = EmbeddedPostgres.builder().start();
+                replicas.add(replica);
+                // Not streaming: each replica is migrated and seeded on its own, with the primary's data
+                Flyway.configure()
+                        .dataSource(replica.getPostgresDatabase())
+                        .locations("classpath:db/migration", "classpath:db/loadtest")
+                        .placeholders(placeholders(options, passwordHash))
+                        .load()
+                        .migrate();
+                replicaUrls.add(replica.getJdbcUrl("postgres", "postgres"));
+            }
+            run(options, postgres.getJdbcUrl("postgres", "postgres"), replicaUrls, passwordHash);
+        } finally {
+            for (EmbeddedPostgres replica : replicas) {
+                replica.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options, String jdbcUrl, List<String> replicaUrls, String passwordHash)
+            throws Exception {
+        log("Starting application and seeding " + options.users() + " users, " + options.endpointRules()
+                + " endpoint rules");
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(HRApplication.class)
+                .properties(applicationProperties(jdbcUrl, replicaUrls, options, passwordHash))
+                .run()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+
+            Scenarios scenarios = new Scenarios(baseUrl, options, PASSWORD,
+                    signin(client, objectMapper, baseUrl, "loaduser1"),
+                    signin(client, objectMapper, baseUrl, "loaduser10"),
+                    signin(client, objectMapper, baseUrl, "loaduser100"));
+
+            OpenModelDriver driver = new OpenModelDriver(client, options);
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (String name : options.scenarios()) {
+                log("Running " + name + ": " + options.rate() + "/s for " + options.warmupSeconds()
+                        + "s warm-up + " + options.durationSeconds() + "s");
+                Map<String, Object> result = driver.run(scenarios.get(name));
+                results.add(result);
+                printSummary(result);
+            }
+
+            writeReport(objectMapper, options, results);
+        }
+    }
+
+    private static Map<String, String> placeholders(LoadTestOptions options, String passwordHash) {
+        Map<String, String> placeholders = new LinkedHashMap<>();
+        placeholders.put("users", String.valueOf(options.users()));
+        placeholders.put("extraRoles", String.valueOf(options.extraRoles()));
+        placeholders.put("permissions", String.valueOf(options.permissions()));
+        placeholders.put("endpointRules", String.valueOf(options.endpointRules()));
+        placeholders.put("passwordHash", passwordHash);
+        return placeholders;
+    }
+
+    private static Map<String, Object> applicationProperties(String jdbcUrl, List<String> replicaUrls,
+            LoadTestOptions options, String passwordHash) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.flyway.locations", "classpath:db/migration,classpath:db/loadtest");
+        placeholders(options, passwordHash).forEach(
+                (name, value) -> properties.put("spring.flyway.placeholders[" + name + "]", value));
+        properties.put("app.readReplicaUrls", String.join(",", replicaUrls));
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.jpa.properties.hibernate.format_sql", false);
+        properties.put("server.port", 0);
+        properties.put("management.server.port", -1);
+        properties.put("logging.level.root", "WARN");
+        properties.put("app.passwordBcryptStrength", options.bcryptStrength());
+        // Tokens are fetched once up front and must outlive the run
+        properties.put("app.jwtExpirationMs", 86_400_000);
+        properties.put("app.decisionLogFile", "target/loadtest/authz-decisions.log");
+        return properties;
+    }
+
+    private static String signin(HttpClient client, ObjectMapper objectMapper, String baseUrl, String username)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Sign-in of " + username + " failed with " + response.statusCode()
+                    + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Object> result) {
+        System.out.printf("%n%-45s %10s %9s %9s %9s %9s %9s %11s%n", result.get("scenario"), "req/s", "p50 ms",
+                "p95 ms", "p99 ms", "p999 ms", "max ms", "unexpected");
+        for (Map<String, Object> endpoint : (List<Map<String, Object>>) result.get("endpoints")) {
+            Map<String, Object> latency = (Map<String, Object>) endpoint.get("latencyMs");
+            System.out.printf("%-45s %10s %9s %9s %9s %9s %9s %11s%n", endpoint.get("endpoint"),
+                    endpoint.get("throughputPerSec"), latency.get("p50"), latency.get("p95"), latency.get("p99"),
+                    latency.get("p999"), latency.get("max"),
+                    (long) endpoint.get("unexpectedStatus") + (long) endpoint.get("transportFailures"));
+        }
+        System.out.printf("dropped arrivals: %s, unfinished at end: %s%n%n", result.get("droppedArrivals"),
+                result.get("unfinishedAtEnd"));
+    }
+
+    private static void writeReport(ObjectMapper objectMapper, LoadTestOptions options,
+            List<Map<String, Object>> results) throws IOException {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("javaVersion", Runtime.version().toString());
+        environment.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        environment.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("environment", environment);
+        report.put("options", options);
+        report.put("scenarios", results);
+
+        Files.createDirectories(options.output().toAbsolutePath().getParent());
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(options.output().toFile(), report);
+        log("Report written to " + options.output());
+    }
+
+    private static void log(String message) {
+        System.out.println("[loadtest] " + message);
+    }
+}
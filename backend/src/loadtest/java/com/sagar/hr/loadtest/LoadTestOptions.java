@@ -0,0 +1,66 @@
+package com.sagar.hr.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Harness settings, given as {@code --name=value} arguments. Rates are arrivals per second for each
+ * scenario; arrivals are scheduled regardless of how many requests are still outstanding (open model).
+ */
+public record LoadTestOptions(
+        int users,
+        int extraRoles,
+        int permissions,
+        int endpointRules,
+        int bcryptStrength,
+        int replicas,
+        List<String> scenarios,
+        double rate,
+        boolean poisson,
+        int warmupSeconds,
+        int durationSeconds,
+        int maxInFlight,
+        Path output) {
+
+    public static final List<String> ALL_SCENARIOS = List.of("signin", "users", "permissions", "authz-mix");
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String scenarios = values.getOrDefault("scenarios", String.join(",", ALL_SCENARIOS));
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                Integer.parseInt(values.getOrDefault("extra-roles", "20")),
+                Integer.parseInt(values.getOrDefault("permissions", "200")),
+                Integer.parseInt(values.getOrDefault("endpoint-rules", "500")),
+                Integer.parseInt(values.getOrDefault("bcrypt-strength", "10")),
+                Integer.parseInt(values.getOrDefault("replicas", "0")),
+                Arrays.stream(scenarios.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList(),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                "poisson".equalsIgnoreCase(values.getOrDefault("arrival", "poisson")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                Path.of(values.getOrDefault("output", "target/loadtest/report.json")));
+
+        for (String scenario : options.scenarios()) {
+            if (!ALL_SCENARIOS.contains(scenario)) {
+                throw new IllegalArgumentException("Unknown scenario " + scenario + ", expected one of " + ALL_SCENARIOS);
+            }
+        }
+        if (options.users() < 100) {
+            throw new IllegalArgumentException("At least 100 users are needed so every seeded role has members");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,108 @@
+package com.sagar.hr.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: arrivals follow a fixed schedule (constant or Poisson) that does not wait
+ * for responses, as real independent clients would not. Each request's latency is measured from its
+ * scheduled arrival. Arrivals beyond {@code maxInFlight} outstanding requests are not sent and are
+ * reported as dropped, which means the client, not the server, was the bottleneck.
+ */
+public class OpenModelDriver {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final HttpClient client;
+    private final LoadTestOptions options;
+
+    public OpenModelDriver(HttpClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+    }
+
+    public Map<String, Object> run(Scenario scenario) {
+        Map<Scenario.Target, EndpointStats> stats = new LinkedHashMap<>();
+        for (Scenario.Target target : scenario.targets()) {
+            stats.put(target, new EndpointStats(target.name()));
+        }
+
+        // Fixed seed, so two runs send the same request sequence
+        SplittableRandom random = new SplittableRandom(scenario.name().hashCode());
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        double next = start;
+        while (true) {
+            long intended = (long) next;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario.Target target = scenario.pick(random.nextDouble());
+            HttpRequest request = target.request().apply(random);
+            boolean measured = intended >= measureFrom;
+            if (inFlight.get() >= options.maxInFlight()) {
+                if (measured) {
+                    dropped.increment();
+                }
+            } else {
+                inFlight.incrementAndGet();
+                EndpointStats endpointStats = stats.get(target);
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (measured) {
+                        if (error != null) {
+                            endpointStats.recordFailure(latency);
+                        } else {
+                            int status = response.statusCode();
+                            endpointStats.record(latency, status, target.expectedStatuses().contains(status));
+                        }
+                    }
+                    inFlight.decrementAndGet();
+                });
+            }
+
+            next += options.poisson()
+                    ? -Math.log(1.0 - random.nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats endpointStats : stats.values()) {
+            endpoints.add(endpointStats.summarise(options.durationSeconds()));
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scenario", scenario.name());
+        summary.put("ratePerSec", options.rate());
+        summary.put("arrival", options.poisson() ? "poisson" : "constant");
+        summary.put("measuredSeconds", options.durationSeconds());
+        summary.put("droppedArrivals", dropped.sum());
+        summary.put("unfinishedAtEnd", inFlight.get());
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sagar.hr.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * A weighted mix of request targets driven at one arrival rate.
+ */
+public record Scenario(String name, List<Target> targets) {
+
+    public Target pick(double random) {
+        int total = 0;
+        for (Target target : targets) {
+            total += target.weight();
+        }
+        double point = random * total;
+        for (Target target : targets) {
+            point -= target.weight();
+            if (point < 0) {
+                return target;
+            }
+        }
+        return targets.get(targets.size() - 1);
+    }
+
+    /**
+     * One endpoint of a scenario. {@code request} builds a fresh request from the driver's random source;
+     * responses outside {@code expectedStatuses} are counted as unexpected.
+     */
+    public record Target(String name, int weight, Function<SplittableRandom, HttpRequest> request,
+            Set<Integer> expectedStatuses) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.sagar.hr.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The scenarios the harness can drive against the seeded data. Tokens belong to loaduser1 (user),
+ * loaduser10 (moderator) and loaduser100 (admin).
+ */
+public class Scenarios {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final int users;
+    private final int endpointRules;
+    private final String password;
+    private final String userToken;
+    private final String moderatorToken;
+    private final String adminToken;
+
+    public Scenarios(String baseUrl, LoadTestOptions options, String password, String userToken,
+            String moderatorToken, String adminToken) {
+        this.baseUrl = baseUrl;
+        this.users = options.users();
+        this.endpointRules = options.endpointRules();
+        this.password = password;
+        this.userToken = userToken;
+        this.moderatorToken = moderatorToken;
+        this.adminToken = adminToken;
+    }
+
+    public Scenario get(String name) {
+        return switch (name) {
+            case "signin" -> new Scenario(name, List.of(
+                    new Scenario.Target("POST /api/v1/auth/signin", 1, this::signin, Set.of(200))));
+            case "users" -> new Scenario(name, List.of(
+                    new Scenario.Target("GET /api/v1/users (first page)", 1,
+                            random -> get("/api/v1/users?limit=50", adminToken), Set.of(200)),
+                    new Scenario.Target("GET /api/v1/users (deep page)", 3,
+                            random -> get("/api/v1/users?limit=50&after=" + random.nextInt(users), adminToken),
+                            Set.of(200))));
+            case "permissions" -> new Scenario(name, List.of(
+                    new Scenario.Target("GET /api/v1/permissions", 1,
+                            random -> get("/api/v1/permissions", userToken), Set.of(200))));
+            case "authz-mix" -> new Scenario(name, List.of(
+                    new Scenario.Target("GET /api/v1/permissions (user)", 4,
+                            random -> get("/api/v1/permissions", userToken), Set.of(200)),
+                    new Scenario.Target("GET /api/v1/users (moderator)", 2,
+                            random -> get("/api/v1/users?limit=20", moderatorToken), Set.of(200)),
+                    new Scenario.Target("GET /api/v1/users (user, forbidden)", 1,
+                            random -> get("/api/v1/users?limit=20", userToken), Set.of(403)),
+                    new Scenario.Target("GET /api/v1/users/search (admin)", 1,
+                            random -> get("/api/v1/users/search?q=loaduser" + (1 + random.nextInt(99)), adminToken),
+                            Set.of(200)),
+                    new Scenario.Target("GET /api/v1/load/** (rule lookup)", 4,
+                            this::ruleLookup, Set.of(403, 404)),
+                    new Scenario.Target("GET /api/v1/permissions (anonymous)", 1,
+                            random -> get("/api/v1/permissions", null), Set.of(401))));
+            default -> throw new IllegalArgumentException("Unknown scenario " + name);
+        };
+    }
+
+    private HttpRequest signin(SplittableRandom random) {
+        String body = "{\"username\":\"loaduser" + (1 + random.nextInt(users)) + "\",\"password\":\"" + password + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/signin"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * A request against a random synthetic rule path, sent with a random role's token, so every lookup
+     * walks the full rule index.
+     */
+    private HttpRequest ruleLookup(SplittableRandom random) {
+        int module = 1 + random.nextInt(Math.max(endpointRules - 1, 1));
+        String path = switch (module % 3) {
+            case 0 -> "/api/v1/load/module" + module + "/reports/2024";
+            case 1 -> "/api/v1/load/module" + module + "/" + random.nextInt(1000);
+            default -> "/api/v1/load/module" + module + "/items/" + random.nextInt(1000) + "/details";
+        };
+        String[] tokens = { userToken, moderatorToken, adminToken };
+        return get(path, tokens[random.nextInt(tokens.length)]);
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,62 @@
+-- Load-test data. Only applied when the load-test harness adds classpath:db/loadtest to the Flyway
+-- locations; the placeholders are set by LoadTestMain.
+
+-- Extra roles, all included by ROLE_ADMIN so admins carry a wider hierarchy expansion
+INSERT INTO roles (name)
+SELECT 'ROLE_LOAD_' || g FROM generate_series(1, ${extraRoles}) g
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO role_hierarchy (parent_role_id, child_role_id)
+SELECT p.id, c.id
+FROM roles p, roles c
+WHERE p.name = 'ROLE_ADMIN' AND c.name LIKE 'ROLE\_LOAD\_%'
+ON CONFLICT DO NOTHING;
+
+-- Permissions spread round-robin over ROLE_USER, ROLE_MODERATOR and ROLE_ADMIN
+INSERT INTO permissions (name, code)
+SELECT 'Load permission ' || g, 'LOAD_PERMISSION_' || g FROM generate_series(1, ${permissions}) g
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO role_permissions (role_id, permission_id)
+SELECT r.id, p.id
+FROM permissions p
+JOIN roles r ON r.name = (ARRAY['ROLE_USER', 'ROLE_MODERATOR', 'ROLE_ADMIN'])[substring(p.code FROM 17)::int % 3 + 1]
+WHERE p.code LIKE 'LOAD\_PERMISSION\_%'
+ON CONFLICT DO NOTHING;
+
+-- loaduser1..N share one password; every 100th user is an admin, every other 10th a moderator
+INSERT INTO users (username, email, password)
+SELECT 'loaduser' || g, 'loaduser' || g || '@loadtest.local', '${passwordHash}'
+FROM generate_series(1, ${users}) g
+ON CONFLICT (username) DO NOTHING;
+
+INSERT INTO user_roles (user_id, role_id)
+SELECT u.id, r.id
+FROM users u
+JOIN roles r ON r.name = CASE
+    WHEN substring(u.username FROM 9)::int % 100 = 0 THEN 'ROLE_ADMIN'
+    WHEN substring(u.username FROM 9)::int % 10 = 0 THEN 'ROLE_MODERATOR'
+    ELSE 'ROLE_USER'
+END
+WHERE u.username LIKE 'loaduser%'
+ON CONFLICT DO NOTHING;
+
+-- Endpoint rules: one for the permissions listing, the rest synthetic so the rule index has a realistic
+-- size. Synthetic paths have no controller, so granted requests end in 404.
+INSERT INTO endpoint_roles (url_pattern, http_method, role_id)
+SELECT '/api/v1/permissions', 'GET', id FROM roles WHERE name = 'ROLE_USER';
+
+INSERT INTO endpoint_roles (url_pattern, http_method, role_id)
+SELECT CASE g % 3
+           WHEN 0 THEN '/api/v1/load/module' || g || '/**'
+           WHEN 1 THEN '/api/v1/load/module' || g || '/{id}'
+           ELSE '/api/v1/load/module' || g || '/items/*/details'
+       END,
+       (ARRAY['GET', 'POST', 'PUT', 'DELETE'])[g % 4 + 1],
+       r.id
+FROM generate_series(1, GREATEST(${endpointRules} - 1, 0)) g
+JOIN roles r ON r.name = (ARRAY['ROLE_USER', 'ROLE_MODERATOR', 'ROLE_ADMIN'])[g % 3 + 1];
+
+ANALYZE users;
+ANALYZE user_roles;
+ANALYZE endpoint_roles;
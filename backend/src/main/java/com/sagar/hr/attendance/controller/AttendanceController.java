@@ -0,0 +1,182 @@
+package com.sagar.hr.attendance.controller;
+
+import com.sagar.hr.attendance.dto.request.PunchBatchRequest;
+import com.sagar.hr.attendance.dto.request.PunchRequest;
+import com.sagar.hr.attendance.dto.request.TeamAssignmentRequest;
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import com.sagar.hr.attendance.model.RollupPeriod;
+import com.sagar.hr.attendance.service.AttendanceIngestService;
+import com.sagar.hr.attendance.service.AttendanceReportService;
+import com.sagar.hr.attendance.service.AttendanceRollupService;
+import com.sagar.hr.attendance.service.PunchLogImportService;
+import com.sagar.hr.security.dto.response.MessageResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/attendance")
+public class AttendanceController {
+
+    private final AttendanceIngestService attendanceIngestService;
+    private final AttendanceReportService attendanceReportService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final PunchLogImportService punchLogImportService;
+
+    /**
+     * Records one clock-in or clock-out. Answers once the punch is committed; a 503 with
+     * {@code Retry-After} means it may not have been, and resending it is safe.
+     */
+    @PostMapping("/punches")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> recordPunch(@Valid @RequestBody PunchRequest request) {
+        try {
+            return ResponseEntity.ok(attendanceIngestService.record(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/punches/batch")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> recordPunches(@RequestBody PunchBatchRequest request) {
+        try {
+            return ResponseEntity.ok(attendanceIngestService.recordBatch(request.getPunches()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/punches")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> voidPunch(@RequestParam String deviceId, @RequestParam String eventId,
+            @RequestParam Instant punchedAt) {
+        try {
+            attendanceIngestService.voidPunch(deviceId, eventId, punchedAt);
+            return ResponseEntity.ok(new MessageResponse("Punch voided successfully!"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Daily summaries of one employee ({@code employeeId}) or of one team's members ({@code team}).
+     */
+    @GetMapping("/daily")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> getDaily(@RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) String team,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(attendanceReportService.getDaily(employeeId, team, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/teams/weekly")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> getTeamWeekly(@RequestParam(required = false) String team,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return teamTotals(RollupPeriod.WEEK, team, from, to);
+    }
+
+    @GetMapping("/teams/monthly")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> getTeamMonthly(@RequestParam(required = false) String team,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return teamTotals(RollupPeriod.MONTH, team, from, to);
+    }
+
+    @PutMapping("/employees/{employeeId}/team")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> assignTeam(@PathVariable Long employeeId,
+            @Valid @RequestBody TeamAssignmentRequest request) {
+        attendanceRollupService.assignTeam(employeeId, request.getTeam());
+        return ResponseEntity.ok(new MessageResponse("Team assigned successfully!"));
+    }
+
+    /**
+     * Recomputes the daily rows from {@code from} to {@code to} and the weeks and months they overlap.
+     * Needed after changing the attendance zone or shift start, or after editing punches directly in the
+     * database.
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(attendanceRollupService.rebuild(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Takes a punch log exported by a badge terminal as the raw request body and queues it for import.
+     * Answers once the file is saved; poll the returned import for progress.
+     */
+    @PostMapping("/imports")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> importPunchLog(@RequestParam PunchLogFormat format,
+            @RequestParam(required = false) Boolean header,
+            @RequestParam(required = false) String zone,
+            @RequestParam(required = false) String fileName,
+            InputStream body) {
+        try {
+            return ResponseEntity.ok(punchLogImportService.upload(fileName, format, header, zone, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/imports")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getImports(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(punchLogImportService.getRecent(limit));
+    }
+
+    @GetMapping("/imports/{id}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getImport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(punchLogImportService.get(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Retries a failed import from the last committed offset of each chunk.
+     */
+    @PostMapping("/imports/{id}/resume")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> resumeImport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(punchLogImportService.resume(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> teamTotals(RollupPeriod period, String team, LocalDate from, LocalDate to) {
+        try {
+            return ResponseEntity.ok(attendanceReportService.getTeamTotals(period, team, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+}
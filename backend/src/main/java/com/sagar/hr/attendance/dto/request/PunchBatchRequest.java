@@ -0,0 +1,15 @@
+package com.sagar.hr.attendance.dto.request;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PunchBatchRequest {
+    private List<PunchRequest> punches;
+}
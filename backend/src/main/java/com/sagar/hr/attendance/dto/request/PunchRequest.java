@@ -0,0 +1,34 @@
+package com.sagar.hr.attendance.dto.request;
+
+import com.sagar.hr.attendance.model.PunchDirection;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PunchRequest {
+    @NotBlank
+    @Size(max = 64)
+    private String deviceId;
+
+    @NotBlank
+    @Size(max = 64)
+    private String eventId;
+
+    @NotNull
+    private Long employeeId;
+
+    @NotNull
+    private PunchDirection direction;
+
+    @NotNull
+    private Instant punchedAt;
+}
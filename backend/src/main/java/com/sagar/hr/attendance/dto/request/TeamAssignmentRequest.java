@@ -0,0 +1,17 @@
+package com.sagar.hr.attendance.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class TeamAssignmentRequest {
+    @NotBlank
+    @Size(max = 64)
+    private String team;
+}
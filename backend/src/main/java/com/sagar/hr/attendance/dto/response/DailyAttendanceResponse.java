@@ -0,0 +1,23 @@
+package com.sagar.hr.attendance.dto.response;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyAttendanceResponse {
+    private Long employeeId;
+    private LocalDate workDate;
+    private String team;
+    private Instant firstIn;
+    private Instant lastOut;
+    private int workedMinutes;
+    private boolean late;
+    private int punches;
+}
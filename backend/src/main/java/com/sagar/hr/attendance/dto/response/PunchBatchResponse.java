@@ -0,0 +1,35 @@
+package com.sagar.hr.attendance.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PunchBatchResponse {
+    private int total;
+    private int stored;
+    private int duplicates;
+    private int failed;
+    private List<PunchError> errors = new ArrayList<>();
+
+    public void addError(int index, String eventId, String message) {
+        errors.add(new PunchError(index, eventId, message));
+        failed++;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PunchError {
+        private int index; // 0-based position in the request
+        private String eventId;
+        private String message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.sagar.hr.attendance.dto.response;
+
+import com.sagar.hr.attendance.model.PunchImportStatus;
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PunchImportResponse {
+    private long id;
+    private String fileName;
+    private PunchLogFormat format;
+    private PunchImportStatus status;
+    private long sizeBytes;
+    private long processedBytes;
+    private int chunks;
+    private int chunksDone;
+    private long imported;
+    private long duplicates;
+    private long rejected; // malformed records and punches dated too far ahead
+    private List<String> errors; // the first rejected record of each chunk, with its byte offset
+    private String error; // why a FAILED import stopped
+    private Instant createdAt;
+    private Instant completedAt;
+}
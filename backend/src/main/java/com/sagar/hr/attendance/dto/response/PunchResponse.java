@@ -0,0 +1,15 @@
+package com.sagar.hr.attendance.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PunchResponse {
+    private String deviceId;
+    private String eventId;
+    private boolean duplicate; // already stored by an earlier request
+}
@@ -0,0 +1,20 @@
+package com.sagar.hr.attendance.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int employeeDays;
+    private int weeks;
+    private int months;
+    private long durationMs;
+}
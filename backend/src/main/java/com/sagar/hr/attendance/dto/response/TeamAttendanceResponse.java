@@ -0,0 +1,19 @@
+package com.sagar.hr.attendance.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeamAttendanceResponse {
+    private String team;
+    private LocalDate periodStart; // Monday of the week or first day of the month
+    private int presentDays; // employee days with a clock-in
+    private int lateDays;
+    private long workedMinutes;
+}
@@ -0,0 +1,10 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.LocalDate;
+
+/**
+ * What one {@code attendance_daily} row adds to its team's weekly and monthly totals.
+ */
+public record DailyContribution(String team, LocalDate workDate, boolean present, boolean late,
+        int workedMinutes) {
+}
@@ -0,0 +1,6 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.LocalDate;
+
+public record EmployeeDay(long employeeId, LocalDate workDate) {
+}
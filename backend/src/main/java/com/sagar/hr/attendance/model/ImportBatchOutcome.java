@@ -0,0 +1,8 @@
+package com.sagar.hr.attendance.model;
+
+/**
+ * What became of the punches copied in one import transaction. Punches dated too far in the future are
+ * counted as rejected.
+ */
+public record ImportBatchOutcome(long imported, long duplicates, long rejected) {
+}
@@ -0,0 +1,15 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.Instant;
+
+/**
+ * One row of {@code attendance_punches}. A punch is identified by the device that recorded it, that
+ * device's event ID and its time, which is truncated to the database's microsecond precision.
+ */
+public record Punch(String deviceId, String eventId, long employeeId, PunchDirection direction,
+        Instant punchedAt) {
+
+    public PunchKey key() {
+        return new PunchKey(deviceId, eventId, punchedAt);
+    }
+}
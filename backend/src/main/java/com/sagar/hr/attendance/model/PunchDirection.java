@@ -0,0 +1,6 @@
+package com.sagar.hr.attendance.model;
+
+public enum PunchDirection {
+    IN,
+    OUT
+}
@@ -0,0 +1,11 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.Instant;
+
+/**
+ * One punch log file being imported, as recorded in {@code attendance_imports}.
+ */
+public record PunchImport(long id, String fileName, String storedPath, PunchLogFormat format, boolean hasHeader,
+        String zone, long sizeBytes, PunchImportStatus status, String error, Instant createdAt,
+        Instant completedAt) {
+}
@@ -0,0 +1,13 @@
+package com.sagar.hr.attendance.model;
+
+/**
+ * A byte range of an import's file. Records from {@code startOffset} up to {@code committedOffset} are
+ * stored; the rest is still to be parsed.
+ */
+public record PunchImportChunk(long importId, int chunkNo, long startOffset, long endOffset,
+        long committedOffset, long imported, long duplicates, long rejected, String firstError) {
+
+    public boolean isDone() {
+        return committedOffset >= endOffset;
+    }
+}
@@ -0,0 +1,8 @@
+package com.sagar.hr.attendance.model;
+
+public enum PunchImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.Instant;
+
+/**
+ * The primary key of {@code attendance_punches}.
+ */
+public record PunchKey(String deviceId, String eventId, Instant punchedAt) {
+}
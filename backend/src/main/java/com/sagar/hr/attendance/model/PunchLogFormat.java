@@ -0,0 +1,11 @@
+package com.sagar.hr.attendance.model;
+
+/**
+ * Layouts of the punch log files badge terminals export.
+ */
+public enum PunchLogFormat {
+    /** {@code deviceId,eventId,employeeId,direction,punchedAt}, one punch per line, no quoting. */
+    CSV,
+    /** Fields at the column ranges of {@code app.attendanceImportFixedWidthLayout}, padded with spaces. */
+    FIXED_WIDTH
+}
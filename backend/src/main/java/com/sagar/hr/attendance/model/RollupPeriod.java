@@ -0,0 +1,37 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The team aggregate tables and how a day maps to the period containing it. Weeks start on Monday.
+ */
+public enum RollupPeriod {
+    WEEK("attendance_team_weekly", "week_start"),
+    MONTH("attendance_team_monthly", "month_start");
+
+    private final String table;
+    private final String startColumn;
+
+    RollupPeriod(String table, String startColumn) {
+        this.table = table;
+        this.startColumn = startColumn;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getStartColumn() {
+        return startColumn;
+    }
+
+    public LocalDate start(LocalDate day) {
+        return this == WEEK ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day.withDayOfMonth(1);
+    }
+
+    public LocalDate next(LocalDate start) {
+        return this == WEEK ? start.plusWeeks(1) : start.plusMonths(1);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sagar.hr.attendance.model;
+
+import java.time.LocalDate;
+
+/**
+ * A change to add to one team's totals for the period starting at {@code periodStart}.
+ */
+public record TeamDelta(String team, LocalDate periodStart, int presentDays, int lateDays, long workedMinutes) {
+
+    public boolean isZero() {
+        return presentDays == 0 && lateDays == 0 && workedMinutes == 0;
+    }
+}
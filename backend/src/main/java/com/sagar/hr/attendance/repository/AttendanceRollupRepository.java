@@ -0,0 +1,365 @@
+package com.sagar.hr.attendance.repository;
+
+import com.sagar.hr.attendance.dto.response.DailyAttendanceResponse;
+import com.sagar.hr.attendance.dto.response.TeamAttendanceResponse;
+import com.sagar.hr.attendance.model.DailyContribution;
+import com.sagar.hr.attendance.model.EmployeeDay;
+import com.sagar.hr.attendance.model.RollupPeriod;
+import com.sagar.hr.attendance.model.TeamDelta;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The attendance rollup tables. Daily rows are always computed from {@code attendance_punches} by
+ * {@link #DAILY_SUMMARY_SQL}, whether for a handful of changed employee days or for every employee on a
+ * day being rebuilt, so both paths agree on what a day adds up to. Callers provide the transaction.
+ */
+@Repository
+public class AttendanceRollupRepository {
+
+    // Serialises rebuilds against incremental updates, across instances
+    private static final String LOCK_KEY = "hashtext('attendance_rollups')";
+
+    /**
+     * Summarises the punches of the employee days produced by the {@code %s} subquery. Worked time is the
+     * sum of each clock-in to the clock-out directly after it, credited to the clock-in's day; an unmatched
+     * clock-in adds nothing until its clock-out arrives. A clock-out in the first hours of the next day
+     * (the overnight window) closes an overnight shift, provided it comes within that window of the
+     * clock-in. Parameters: overnight window, late threshold after midnight, zone, the subquery's own,
+     * zone, zone, overnight window, zone.
+     */
+    private static final String DAILY_SUMMARY_SQL = """
+            SELECT k.employee_id, k.work_date, COALESCE(t.team, 'unassigned') AS team,
+                   MIN(p.punched_at) FILTER (WHERE p.direction = 'IN') AS first_in,
+                   MAX(p.punched_at) FILTER (WHERE p.direction = 'OUT') AS last_out,
+                   COALESCE(FLOOR(SUM(EXTRACT(EPOCH FROM p.next_at - p.punched_at))
+                           FILTER (WHERE p.direction = 'IN' AND p.next_direction = 'OUT'
+                                   AND (p.next_at < p.day_end OR p.next_at - p.punched_at <= ?::interval))
+                           / 60), 0)::int
+                       AS worked_minutes,
+                   COALESCE(MIN(p.punched_at) FILTER (WHERE p.direction = 'IN')
+                           > (k.work_date + ?::interval) AT TIME ZONE ?, FALSE) AS late,
+                   COUNT(*)::int AS punches
+            FROM (%s) k
+            JOIN LATERAL (
+                SELECT w.*, (k.work_date + 1)::timestamp AT TIME ZONE ? AS day_end
+                FROM (
+                    SELECT direction, punched_at,
+                           LEAD(direction) OVER (ORDER BY punched_at) AS next_direction,
+                           LEAD(punched_at) OVER (ORDER BY punched_at) AS next_at
+                    FROM attendance_punches
+                    WHERE employee_id = k.employee_id
+                      AND punched_at >= k.work_date::timestamp AT TIME ZONE ?
+                      AND punched_at < ((k.work_date + 1)::timestamp + ?::interval) AT TIME ZONE ?
+                ) w
+            ) p ON p.punched_at < p.day_end
+            LEFT JOIN attendance_employee_teams t ON t.employee_id = k.employee_id
+            GROUP BY k.employee_id, k.work_date, t.team
+            """;
+    private static final String KEYS_FROM_ARRAYS =
+            "SELECT * FROM unnest(?::bigint[], ?::varchar[]::date[]) AS keys(employee_id, work_date)";
+    private static final String KEYS_FOR_DAY = """
+            SELECT DISTINCT employee_id, ?::date AS work_date
+            FROM attendance_punches
+            WHERE punched_at >= ?::date::timestamp AT TIME ZONE ? AND punched_at < (?::date + 1)::timestamp AT TIME ZONE ?
+            """;
+    private static final String INSERT_DAILY_SQL = """
+            INSERT INTO attendance_daily (employee_id, work_date, team, first_in, last_out, worked_minutes, late,
+                                          punches)
+            """;
+    private static final String CONTRIBUTION_COLUMNS =
+            " RETURNING team, work_date, first_in IS NOT NULL AS present, late, worked_minutes";
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO attendance_rollup_queue (employee_id, work_date)
+            SELECT * FROM unnest(?::bigint[], ?::varchar[]::date[])
+            ON CONFLICT DO NOTHING
+            """;
+    // SKIP LOCKED lets several instances work through the queue without waiting for each other
+    private static final String CLAIM_SQL = """
+            DELETE FROM attendance_rollup_queue
+            WHERE (employee_id, work_date) IN (
+                SELECT employee_id, work_date FROM attendance_rollup_queue
+                ORDER BY work_date, employee_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING employee_id, work_date
+            """;
+    private static final String DELETE_DAILY_SQL = """
+            DELETE FROM attendance_daily d
+            USING unnest(?::bigint[], ?::varchar[]::date[]) AS k(employee_id, work_date)
+            WHERE d.employee_id = k.employee_id AND d.work_date = k.work_date
+            RETURNING d.team, d.work_date, d.first_in IS NOT NULL AS present, d.late, d.worked_minutes
+            """;
+    private static final String APPLY_DELTAS_SQL = """
+            INSERT INTO %1$s AS t (team, %2$s, present_days, late_days, worked_minutes)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[]::date[], ?::int[], ?::int[], ?::bigint[])
+            ON CONFLICT (team, %2$s) DO UPDATE
+            SET present_days = t.present_days + EXCLUDED.present_days,
+                late_days = t.late_days + EXCLUDED.late_days,
+                worked_minutes = t.worked_minutes + EXCLUDED.worked_minutes
+            """;
+    private static final String REBUILD_PERIOD_SQL = """
+            INSERT INTO %1$s (team, %2$s, present_days, late_days, worked_minutes)
+            SELECT team, ?::date, COUNT(*) FILTER (WHERE first_in IS NOT NULL), COUNT(*) FILTER (WHERE late),
+                   COALESCE(SUM(worked_minutes), 0)
+            FROM attendance_daily
+            WHERE work_date >= ?::date AND work_date < ?::date
+            GROUP BY team
+            """;
+
+    private static final String DAILY_COLUMNS =
+            "SELECT employee_id, work_date, team, first_in, last_out, worked_minutes, late, punches FROM attendance_daily ";
+    private static final RowMapper<DailyAttendanceResponse> DAILY_MAPPER = (rs, rowNum) ->
+            DailyAttendanceResponse.builder()
+                    .employeeId(rs.getLong("employee_id"))
+                    .workDate(rs.getDate("work_date").toLocalDate())
+                    .team(rs.getString("team"))
+                    .firstIn(instant(rs.getTimestamp("first_in")))
+                    .lastOut(instant(rs.getTimestamp("last_out")))
+                    .workedMinutes(rs.getInt("worked_minutes"))
+                    .late(rs.getBoolean("late"))
+                    .punches(rs.getInt("punches"))
+                    .build();
+    private static final RowMapper<DailyContribution> CONTRIBUTION_MAPPER = (rs, rowNum) -> new DailyContribution(
+            rs.getString("team"),
+            rs.getDate("work_date").toLocalDate(),
+            rs.getBoolean("present"),
+            rs.getBoolean("late"),
+            rs.getInt("worked_minutes"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marks employee days as changed. Pass them sorted by employee and day, as for {@link #applyDeltas}.
+     */
+    public void enqueue(Collection<EmployeeDay> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ENQUEUE_SQL);
+            setKeys(connection, statement, 1, days);
+            return statement;
+        });
+    }
+
+    /**
+     * Removes up to {@code limit} changed employee days from the queue and returns them. Rows claimed by
+     * another open transaction are skipped.
+     */
+    public List<EmployeeDay> claimChanged(int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new EmployeeDay(rs.getLong("employee_id"),
+                rs.getDate("work_date").toLocalDate()), limit);
+    }
+
+    /**
+     * Takes the shared rollup lock for the current transaction, unless a rebuild holds it.
+     */
+    public boolean tryLockForUpdates() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock_shared(" + LOCK_KEY + ")", Boolean.class));
+    }
+
+    /**
+     * Runs {@code work} while holding the exclusive rollup lock, which waits for running incremental
+     * updates and keeps new ones out. The lock belongs to a connection held for the duration, so
+     * {@code work} may use other connections, and other threads.
+     */
+    public <T> T withRebuildLock(Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+            try {
+                return work.get();
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes the daily rows of the given employee days and returns what they contributed.
+     */
+    public List<DailyContribution> deleteDaily(Collection<EmployeeDay> days) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_DAILY_SQL);
+            setKeys(connection, statement, 1, days);
+            return statement;
+        }, CONTRIBUTION_MAPPER);
+    }
+
+    /**
+     * Computes and inserts the daily rows of the given employee days, none of which may exist, and returns
+     * what they contribute. Days without punches get no row.
+     */
+    public List<DailyContribution> insertDaily(Collection<EmployeeDay> days, Duration lateAfter,
+            Duration overnight, ZoneId zone) {
+        String sql = INSERT_DAILY_SQL + DAILY_SUMMARY_SQL.formatted(KEYS_FROM_ARRAYS) + CONTRIBUTION_COLUMNS;
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setString(1, interval(overnight));
+            statement.setString(2, interval(lateAfter));
+            statement.setString(3, zone.getId());
+            setKeys(connection, statement, 4, days);
+            statement.setString(6, zone.getId());
+            statement.setString(7, zone.getId());
+            statement.setString(8, interval(overnight));
+            statement.setString(9, zone.getId());
+            return statement;
+        }, CONTRIBUTION_MAPPER);
+    }
+
+    /**
+     * Recomputes every daily row of {@code day}. Returns the number of rows written.
+     * <p>
+     * The day's queued changes are left in place: a punch still being committed may have been queued before
+     * the rebuild started yet be invisible to it. Applying those entries afterwards recomputes the same rows,
+     * a zero delta for everything the rebuild already saw.
+     */
+    public int rebuildDay(LocalDate day, Duration lateAfter, Duration overnight, ZoneId zone) {
+        String date = day.toString();
+        jdbcTemplate.update("DELETE FROM attendance_daily WHERE work_date = ?::date", date);
+        String sql = INSERT_DAILY_SQL + DAILY_SUMMARY_SQL.formatted(KEYS_FOR_DAY);
+        return jdbcTemplate.update(sql, interval(overnight), interval(lateAfter), zone.getId(),
+                date, date, zone.getId(), date, zone.getId(),
+                zone.getId(), zone.getId(), interval(overnight), zone.getId());
+    }
+
+    /**
+     * Adds the deltas to the period's team totals. Deltas should be sorted, so concurrent updates lock the
+     * rows in the same order.
+     */
+    public void applyDeltas(RollupPeriod period, List<TeamDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String sql = APPLY_DELTAS_SQL.formatted(period.getTable(), period.getStartColumn());
+        List<String> teams = new ArrayList<>(deltas.size());
+        List<String> starts = new ArrayList<>(deltas.size());
+        List<Integer> presentDays = new ArrayList<>(deltas.size());
+        List<Integer> lateDays = new ArrayList<>(deltas.size());
+        List<Long> workedMinutes = new ArrayList<>(deltas.size());
+        for (TeamDelta delta : deltas) {
+            teams.add(delta.team());
+            starts.add(delta.periodStart().toString());
+            presentDays.add(delta.presentDays());
+            lateDays.add(delta.lateDays());
+            workedMinutes.add(delta.workedMinutes());
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("varchar", teams.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", starts.toArray()));
+            statement.setArray(3, connection.createArrayOf("integer", presentDays.toArray()));
+            statement.setArray(4, connection.createArrayOf("integer", lateDays.toArray()));
+            statement.setArray(5, connection.createArrayOf("bigint", workedMinutes.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * Recomputes the team totals of the period starting at {@code start} from the daily rows.
+     */
+    public void rebuildPeriod(RollupPeriod period, LocalDate start) {
+        jdbcTemplate.update("DELETE FROM " + period.getTable() + " WHERE " + period.getStartColumn() + " = ?::date",
+                start.toString());
+        jdbcTemplate.update(REBUILD_PERIOD_SQL.formatted(period.getTable(), period.getStartColumn()),
+                start.toString(), start.toString(), period.next(start).toString());
+    }
+
+    public void assignTeam(long employeeId, String team) {
+        jdbcTemplate.update("""
+                INSERT INTO attendance_employee_teams (employee_id, team) VALUES (?, ?)
+                ON CONFLICT (employee_id) DO UPDATE SET team = EXCLUDED.team
+                """, employeeId, team);
+    }
+
+    /**
+     * Daily rows from {@code from} to {@code to} inclusive, of one employee or of one team's members.
+     */
+    public List<DailyAttendanceResponse> findDaily(Long employeeId, String team, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>(3);
+        StringBuilder sql = new StringBuilder(DAILY_COLUMNS).append("WHERE ");
+        if (employeeId != null) {
+            sql.append("employee_id = ? ");
+            args.add(employeeId);
+        } else {
+            sql.append("team = ? ");
+            args.add(team);
+        }
+        sql.append("AND work_date BETWEEN ?::date AND ?::date ORDER BY work_date, employee_id");
+        args.add(from.toString());
+        args.add(to.toString());
+        return jdbcTemplate.query(sql.toString(), DAILY_MAPPER, args.toArray());
+    }
+
+    /**
+     * Team totals of the periods starting from {@code from} to {@code to} inclusive, for every team or for
+     * one.
+     */
+    public List<TeamAttendanceResponse> findTeamTotals(RollupPeriod period, String team, LocalDate from,
+            LocalDate to) {
+        List<Object> args = new ArrayList<>(3);
+        StringBuilder sql = new StringBuilder("SELECT team, ").append(period.getStartColumn())
+                .append(" AS period_start, present_days, late_days, worked_minutes FROM ").append(period.getTable())
+                .append(" WHERE ").append(period.getStartColumn()).append(" BETWEEN ?::date AND ?::date");
+        args.add(from.toString());
+        args.add(to.toString());
+        if (team != null) {
+            sql.append(" AND team = ?");
+            args.add(team);
+        }
+        sql.append(" ORDER BY period_start, team");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> TeamAttendanceResponse.builder()
+                .team(rs.getString("team"))
+                .periodStart(rs.getDate("period_start").toLocalDate())
+                .presentDays(rs.getInt("present_days"))
+                .lateDays(rs.getInt("late_days"))
+                .workedMinutes(rs.getLong("worked_minutes"))
+                .build(), args.toArray());
+    }
+
+    private static void setKeys(Connection connection, PreparedStatement statement, int index,
+            Collection<EmployeeDay> days) throws SQLException {
+        List<Long> employeeIds = new ArrayList<>(days.size());
+        List<String> dates = new ArrayList<>(days.size());
+        for (EmployeeDay day : days) {
+            employeeIds.add(day.employeeId());
+            dates.add(day.workDate().toString());
+        }
+        statement.setArray(index, connection.createArrayOf("bigint", employeeIds.toArray()));
+        statement.setArray(index + 1, connection.createArrayOf("varchar", dates.toArray()));
+    }
+
+    private static String interval(Duration duration) {
+        return duration.toSeconds() + " seconds";
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
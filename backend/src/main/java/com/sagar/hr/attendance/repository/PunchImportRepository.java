@@ -0,0 +1,349 @@
+package com.sagar.hr.attendance.repository;
+
+import com.sagar.hr.attendance.dto.response.PunchImportResponse;
+import com.sagar.hr.attendance.model.ImportBatchOutcome;
+import com.sagar.hr.attendance.model.PunchImport;
+import com.sagar.hr.attendance.model.PunchImportChunk;
+import com.sagar.hr.attendance.model.PunchImportStatus;
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Punch log imports and their chunks, and the COPY path that stores their punches. Callers provide the
+ * transaction.
+ */
+@Repository
+public class PunchImportRepository {
+
+    private static final int COPY_BUFFER_BYTES = 65536;
+
+    // Per connection; ON COMMIT DELETE ROWS empties them after every batch
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS attendance_import_staging (
+                device_id VARCHAR(64) NOT NULL,
+                event_id VARCHAR(64) NOT NULL,
+                employee_id BIGINT NOT NULL,
+                direction VARCHAR(3) NOT NULL,
+                punched_local TIMESTAMP NOT NULL,
+                utc_offset_minutes INT
+            ) ON COMMIT DELETE ROWS;
+            CREATE TEMP TABLE IF NOT EXISTS attendance_import_days (
+                employee_id BIGINT NOT NULL,
+                work_date DATE NOT NULL
+            ) ON COMMIT DELETE ROWS
+            """;
+    private static final String COPY_SQL = "COPY attendance_import_staging FROM STDIN";
+    /**
+     * Moves the staged rows into {@code attendance_punches} and collects the employee days of those inserted
+     * in {@code attendance_import_days}, for {@link #QUEUE_DAYS_SQL}, including the day before for punches
+     * within the overnight window of midnight. Parameters: the import's zone, the allowed clock skew in
+     * milliseconds, the rollup zone, the rollup zone, the overnight window.
+     */
+    private static final String MERGE_SQL = """
+            WITH staged AS (
+                SELECT device_id, event_id, employee_id, direction,
+                       CASE WHEN utc_offset_minutes IS NULL THEN punched_local AT TIME ZONE ?
+                            ELSE (punched_local - make_interval(mins => utc_offset_minutes)) AT TIME ZONE 'UTC'
+                       END AS punched_at
+                FROM attendance_import_staging
+            ), accepted AS (
+                SELECT * FROM staged WHERE punched_at <= now() + ? * interval '1 millisecond'
+            ), inserted AS (
+                INSERT INTO attendance_punches (device_id, event_id, employee_id, direction, punched_at)
+                SELECT device_id, event_id, employee_id, direction, punched_at FROM accepted
+                ON CONFLICT DO NOTHING
+                RETURNING employee_id, punched_at
+            ), days AS (
+                INSERT INTO attendance_import_days (employee_id, work_date)
+                SELECT DISTINCT employee_id, d.work_date
+                FROM inserted, LATERAL (VALUES ((punched_at AT TIME ZONE ?)::date),
+                                               (((punched_at AT TIME ZONE ?) - ?::interval)::date)) d(work_date)
+            )
+            SELECT (SELECT count(*) FROM staged) AS staged,
+                   (SELECT count(*) FROM accepted) AS accepted,
+                   (SELECT count(*) FROM inserted) AS inserted
+            """;
+    /**
+     * Queues the collected days for the rollups, as the punch API does. Run last in the batch transaction:
+     * the queue rows stay locked until commit, and every chunk and punch writer touches the same keys, so
+     * they are locked briefly and in key order.
+     */
+    private static final String QUEUE_DAYS_SQL = """
+            INSERT INTO attendance_rollup_queue (employee_id, work_date)
+            SELECT employee_id, work_date FROM attendance_import_days
+            ORDER BY employee_id, work_date
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String INSERT_IMPORT_SQL = """
+            INSERT INTO attendance_imports (file_name, stored_path, format, has_header, zone, size_bytes, status)
+            VALUES (?, ?, ?, ?, ?, ?, 'PENDING')
+            RETURNING id
+            """;
+    // Oldest first; a RUNNING import whose owner stopped sending heartbeats is taken over
+    private static final String CLAIM_SQL = """
+            UPDATE attendance_imports SET status = 'RUNNING', owner = ?, heartbeat_at = now(), error = NULL
+            WHERE id = (
+                SELECT id FROM attendance_imports
+                WHERE status = 'PENDING' OR (status = 'RUNNING' AND heartbeat_at < now() - ? * interval '1 millisecond')
+                ORDER BY created_at
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, file_name, stored_path, format, has_header, zone, size_bytes, status, error,
+                      created_at, completed_at
+            """;
+    private static final String INSERT_CHUNKS_SQL = """
+            INSERT INTO attendance_import_chunks (import_id, chunk_no, start_offset, end_offset, committed_offset)
+            SELECT ?, k.chunk_no, k.start_offset, k.end_offset, k.start_offset
+            FROM unnest(?::int[], ?::bigint[], ?::bigint[]) AS k(chunk_no, start_offset, end_offset)
+            """;
+    private static final String CHECKPOINT_SQL = """
+            UPDATE attendance_import_chunks
+            SET committed_offset = ?, imported = imported + ?, duplicates = duplicates + ?, rejected = rejected + ?,
+                first_error = COALESCE(first_error, ?)
+            WHERE import_id = ? AND chunk_no = ?
+            """;
+    private static final String RESPONSE_SQL = """
+            SELECT i.id, i.file_name, i.format, i.status, i.size_bytes, i.error, i.created_at, i.completed_at,
+                   COALESCE(c.chunks, 0) AS chunks, COALESCE(c.chunks_done, 0) AS chunks_done,
+                   COALESCE(c.processed, 0) AS processed, COALESCE(c.imported, 0) AS imported,
+                   COALESCE(c.duplicates, 0) AS duplicates, COALESCE(c.rejected, 0) AS rejected, c.errors
+            FROM attendance_imports i
+            LEFT JOIN LATERAL (
+                SELECT count(*) AS chunks, count(*) FILTER (WHERE committed_offset >= end_offset) AS chunks_done,
+                       sum(committed_offset - start_offset) AS processed, sum(imported) AS imported,
+                       sum(duplicates) AS duplicates, sum(rejected) AS rejected,
+                       array_remove(array_agg(first_error ORDER BY chunk_no), NULL) AS errors
+                FROM attendance_import_chunks
+                WHERE import_id = i.id
+            ) c ON true
+            """;
+
+    private static final RowMapper<PunchImport> IMPORT_MAPPER = (rs, rowNum) -> new PunchImport(
+            rs.getLong("id"),
+            rs.getString("file_name"),
+            rs.getString("stored_path"),
+            PunchLogFormat.valueOf(rs.getString("format")),
+            rs.getBoolean("has_header"),
+            rs.getString("zone"),
+            rs.getLong("size_bytes"),
+            PunchImportStatus.valueOf(rs.getString("status")),
+            rs.getString("error"),
+            instant(rs.getTimestamp("created_at")),
+            instant(rs.getTimestamp("completed_at")));
+    private static final RowMapper<PunchImportChunk> CHUNK_MAPPER = (rs, rowNum) -> new PunchImportChunk(
+            rs.getLong("import_id"),
+            rs.getInt("chunk_no"),
+            rs.getLong("start_offset"),
+            rs.getLong("end_offset"),
+            rs.getLong("committed_offset"),
+            rs.getLong("imported"),
+            rs.getLong("duplicates"),
+            rs.getLong("rejected"),
+            rs.getString("first_error"));
+    private static final RowMapper<PunchImportResponse> RESPONSE_MAPPER = (rs, rowNum) -> {
+        PunchImportStatus status = PunchImportStatus.valueOf(rs.getString("status"));
+        long size = rs.getLong("size_bytes");
+        return PunchImportResponse.builder()
+                .id(rs.getLong("id"))
+                .fileName(rs.getString("file_name"))
+                .format(PunchLogFormat.valueOf(rs.getString("format")))
+                .status(status)
+                .sizeBytes(size)
+                // A header line is never part of a chunk
+                .processedBytes(status == PunchImportStatus.COMPLETED ? size : rs.getLong("processed"))
+                .chunks(rs.getInt("chunks"))
+                .chunksDone(rs.getInt("chunks_done"))
+                .imported(rs.getLong("imported"))
+                .duplicates(rs.getLong("duplicates"))
+                .rejected(rs.getLong("rejected"))
+                .errors(strings(rs.getArray("errors")))
+                .error(rs.getString("error"))
+                .createdAt(instant(rs.getTimestamp("created_at")))
+                .completedAt(instant(rs.getTimestamp("completed_at")))
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PunchImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes whatever {@code source} produces into the staging table with COPY, then merges the staged
+     * punches into {@code attendance_punches}. Punches dated more than {@code maxFutureMs} ahead are left
+     * out and counted as rejected. Call {@link #queueImportedDays} before the transaction commits.
+     */
+    public ImportBatchOutcome copyBatch(ZoneId fileZone, long maxFutureMs, ZoneId rollupZone, Duration overnight,
+            CopySource source) {
+        return jdbcTemplate.execute((ConnectionCallback<ImportBatchOutcome>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            try (PGCopyOutputStream copy = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_SQL, COPY_BUFFER_BYTES)) {
+                source.writeTo(copy);
+            } catch (IOException e) {
+                throw new SQLException("COPY into attendance_import_staging failed", e);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_SQL)) {
+                statement.setString(1, fileZone.getId());
+                statement.setLong(2, maxFutureMs);
+                statement.setString(3, rollupZone.getId());
+                statement.setString(4, rollupZone.getId());
+                statement.setString(5, overnight.toSeconds() + " seconds");
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    long staged = rs.getLong("staged");
+                    long accepted = rs.getLong("accepted");
+                    long inserted = rs.getLong("inserted");
+                    return new ImportBatchOutcome(inserted, accepted - inserted, staged - accepted);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues the employee days of the punches {@link #copyBatch} inserted in this transaction.
+     */
+    public void queueImportedDays() {
+        jdbcTemplate.update(QUEUE_DAYS_SQL);
+    }
+
+    public long create(String fileName, String storedPath, PunchLogFormat format, boolean hasHeader, ZoneId zone,
+            long sizeBytes) {
+        return jdbcTemplate.queryForObject(INSERT_IMPORT_SQL, Long.class,
+                fileName, storedPath, format.name(), hasHeader, zone.getId(), sizeBytes);
+    }
+
+    /**
+     * Marks the oldest waiting or abandoned import as run by {@code owner} and returns it.
+     */
+    public Optional<PunchImport> claimNext(String owner, long staleMs) {
+        return jdbcTemplate.query(CLAIM_SQL, IMPORT_MAPPER, owner, staleMs).stream().findFirst();
+    }
+
+    /**
+     * Refreshes the heartbeat of an import this instance runs. Returns false once another instance has
+     * taken it over.
+     */
+    public boolean heartbeat(long importId, String owner) {
+        return jdbcTemplate.update(
+                "UPDATE attendance_imports SET heartbeat_at = now() WHERE id = ? AND status = 'RUNNING' AND owner = ?",
+                importId, owner) == 1;
+    }
+
+    /**
+     * Whether {@code owner} still runs the import. The key-share lock it takes lets chunks of the same
+     * import commit side by side and heartbeats go through, but keeps {@link #claimNext} from taking the
+     * import over until the calling transaction ends.
+     */
+    public boolean holdOwnership(long importId, String owner) {
+        return !jdbcTemplate.queryForList(
+                "SELECT id FROM attendance_imports WHERE id = ? AND status = 'RUNNING' AND owner = ? FOR KEY SHARE",
+                Long.class, importId, owner).isEmpty();
+    }
+
+    public List<PunchImportChunk> findChunks(long importId) {
+        return jdbcTemplate.query("SELECT * FROM attendance_import_chunks WHERE import_id = ? ORDER BY chunk_no",
+                CHUNK_MAPPER, importId);
+    }
+
+    /**
+     * Records the chunks of an import as {@code {start, end}} byte ranges, numbered from 0.
+     */
+    public void insertChunks(long importId, List<long[]> ranges) {
+        Integer[] chunkNos = new Integer[ranges.size()];
+        Long[] starts = new Long[ranges.size()];
+        Long[] ends = new Long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            chunkNos[i] = i;
+            starts[i] = ranges.get(i)[0];
+            ends[i] = ranges.get(i)[1];
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_CHUNKS_SQL);
+            statement.setLong(1, importId);
+            statement.setArray(2, connection.createArrayOf("int4", chunkNos));
+            statement.setArray(3, connection.createArrayOf("int8", starts));
+            statement.setArray(4, connection.createArrayOf("int8", ends));
+            return statement;
+        });
+    }
+
+    /**
+     * Moves a chunk's committed offset to {@code committedOffset} and adds a batch's counts.
+     * {@code firstError} is kept only if the chunk has none yet.
+     */
+    public void checkpoint(long importId, int chunkNo, long committedOffset, ImportBatchOutcome outcome,
+            String firstError) {
+        jdbcTemplate.update(CHECKPOINT_SQL, committedOffset, outcome.imported(), outcome.duplicates(),
+                outcome.rejected(), firstError, importId, chunkNo);
+    }
+
+    public void complete(long importId, String owner) {
+        jdbcTemplate.update("""
+                UPDATE attendance_imports SET status = 'COMPLETED', owner = NULL, completed_at = now()
+                WHERE id = ? AND owner = ?
+                """, importId, owner);
+    }
+
+    public void fail(long importId, String owner, String error) {
+        jdbcTemplate.update("UPDATE attendance_imports SET status = 'FAILED', owner = NULL, error = ? WHERE id = ? AND owner = ?",
+                error, importId, owner);
+    }
+
+    /**
+     * Queues a failed import again; it continues from its chunks' committed offsets.
+     */
+    public boolean resume(long importId) {
+        return jdbcTemplate.update(
+                "UPDATE attendance_imports SET status = 'PENDING', error = NULL WHERE id = ? AND status = 'FAILED'",
+                importId) == 1;
+    }
+
+    public Optional<PunchImportResponse> findResponse(long importId) {
+        return jdbcTemplate.query(RESPONSE_SQL + " WHERE i.id = ?", RESPONSE_MAPPER, importId).stream().findFirst();
+    }
+
+    public List<PunchImportResponse> findRecentResponses(int limit) {
+        return jdbcTemplate.query(RESPONSE_SQL + " ORDER BY i.created_at DESC LIMIT ?", RESPONSE_MAPPER, limit);
+    }
+
+    /**
+     * Writes rows in COPY text format.
+     */
+    @FunctionalInterface
+    public interface CopySource {
+        void writeTo(OutputStream copy) throws IOException;
+    }
+
+    private static List<String> strings(Array array) throws SQLException {
+        return array == null ? List.of() : Arrays.asList((String[]) array.getArray());
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,102 @@
+package com.sagar.hr.attendance.repository;
+
+import com.sagar.hr.attendance.model.Punch;
+import com.sagar.hr.attendance.model.PunchDirection;
+import com.sagar.hr.attendance.model.PunchKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Writes to {@code attendance_punches}. A batch is one {@code unnest} insert, so it costs one round trip
+ * whatever its size. Callers provide the transaction.
+ */
+@Repository
+public class PunchRepository {
+
+    // Timestamps travel as ISO-8601 text, which keeps them independent of the session time zone
+    private static final String INSERT_SQL = """
+            INSERT INTO attendance_punches (device_id, event_id, employee_id, direction, punched_at)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::bigint[], ?::varchar[], ?::varchar[]::timestamptz[])
+            ON CONFLICT DO NOTHING
+            RETURNING device_id, event_id, punched_at
+            """;
+    private static final String DELETE_SQL = """
+            DELETE FROM attendance_punches
+            WHERE device_id = ? AND event_id = ? AND punched_at = ?::varchar::timestamptz
+            RETURNING device_id, event_id, employee_id, direction, punched_at
+            """;
+    private static final String CREATE_PARTITION_SQL = "SELECT create_attendance_punch_partition(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PunchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the punches, skipping any already stored, and returns the keys of those inserted.
+     */
+    public Set<PunchKey> insertBatch(List<Punch> punches) {
+        Set<PunchKey> inserted = new HashSet<>();
+        if (punches.isEmpty()) {
+            return inserted;
+        }
+        int size = punches.size();
+        List<String> deviceIds = new ArrayList<>(size);
+        List<String> eventIds = new ArrayList<>(size);
+        List<Long> employeeIds = new ArrayList<>(size);
+        List<String> directions = new ArrayList<>(size);
+        List<String> punchedAt = new ArrayList<>(size);
+        for (Punch punch : punches) {
+            deviceIds.add(punch.deviceId());
+            eventIds.add(punch.eventId());
+            employeeIds.add(punch.employeeId());
+            directions.add(punch.direction().name());
+            punchedAt.add(punch.punchedAt().toString());
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", deviceIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", eventIds.toArray()));
+            statement.setArray(3, connection.createArrayOf("bigint", employeeIds.toArray()));
+            statement.setArray(4, connection.createArrayOf("varchar", directions.toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar", punchedAt.toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            inserted.add(new PunchKey(rs.getString("device_id"), rs.getString("event_id"),
+                    rs.getTimestamp("punched_at").toInstant()));
+        });
+        return inserted;
+    }
+
+    /**
+     * Deletes one punch and returns it, if it exists.
+     */
+    public Optional<Punch> delete(PunchKey key) {
+        return jdbcTemplate.query(DELETE_SQL, (rs, rowNum) -> new Punch(
+                rs.getString("device_id"),
+                rs.getString("event_id"),
+                rs.getLong("employee_id"),
+                PunchDirection.valueOf(rs.getString("direction")),
+                rs.getTimestamp("punched_at").toInstant()),
+                key.deviceId(), key.eventId(), key.punchedAt().toString()).stream().findFirst();
+    }
+
+    /**
+     * Creates the monthly partition containing {@code month} unless it exists.
+     */
+    public void createPartition(LocalDate month) {
+        jdbcTemplate.query(CREATE_PARTITION_SQL, (RowCallbackHandler) rs -> {
+        }, Date.valueOf(month));
+    }
+}
@@ -0,0 +1,165 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.dto.request.PunchRequest;
+import com.sagar.hr.attendance.dto.response.PunchBatchResponse;
+import com.sagar.hr.attendance.dto.response.PunchResponse;
+import com.sagar.hr.attendance.model.Punch;
+import com.sagar.hr.attendance.model.PunchKey;
+import com.sagar.hr.attendance.repository.PunchRepository;
+import com.sagar.hr.util.exception.ServiceBusyException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Accepts punches from badge readers. A call returns only once its punches are committed, or fails with a
+ * {@link ServiceBusyException} when they could not be buffered, stored or confirmed in time. Punches are
+ * deduplicated on their device, event ID and time, so a device can always resend a batch it has no
+ * acknowledgement for.
+ */
+@Service
+public class AttendanceIngestService {
+
+    private final PunchIngestBuffer punchIngestBuffer;
+    private final PunchRepository punchRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final Validator validator;
+    private final int maxPunchesPerRequest;
+    private final long maxClockSkewMs;
+    private final long ackTimeoutMs;
+    private final long retryAfterSeconds;
+
+    public AttendanceIngestService(PunchIngestBuffer punchIngestBuffer, PunchRepository punchRepository,
+            AttendanceRollupService attendanceRollupService, Validator validator,
+            @Value("${app.attendanceMaxPunchesPerRequest:1000}") int maxPunchesPerRequest,
+            @Value("${app.attendanceMaxClockSkewMs:300000}") long maxClockSkewMs,
+            @Value("${app.attendanceAckTimeoutMs:10000}") long ackTimeoutMs,
+            @Value("${app.attendanceRetryAfterSeconds:1}") long retryAfterSeconds) {
+        this.punchIngestBuffer = punchIngestBuffer;
+        this.punchRepository = punchRepository;
+        this.attendanceRollupService = attendanceRollupService;
+        this.validator = validator;
+        this.maxPunchesPerRequest = maxPunchesPerRequest;
+        this.maxClockSkewMs = maxClockSkewMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public PunchResponse record(PunchRequest request) {
+        String error = checkTime(request.getPunchedAt(), Instant.now());
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        Punch punch = toPunch(request);
+        boolean stored = await(punchIngestBuffer.submit(List.of(punch))).get(0);
+        return new PunchResponse(punch.deviceId(), punch.eventId(), !stored);
+    }
+
+    /**
+     * Stores the valid punches of a batch and reports the invalid ones by position; one bad punch does not
+     * hold back the rest.
+     */
+    public PunchBatchResponse recordBatch(List<PunchRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Error: No punches given!");
+        }
+        if (requests.size() > maxPunchesPerRequest) {
+            throw new IllegalArgumentException(
+                    "Error: A batch may hold at most " + maxPunchesPerRequest + " punches!");
+        }
+
+        PunchBatchResponse response = new PunchBatchResponse();
+        response.setTotal(requests.size());
+        Instant now = Instant.now();
+        List<Punch> punches = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PunchRequest request = requests.get(i);
+            String error = validate(request, now);
+            if (error != null) {
+                response.addError(i, request == null ? null : request.getEventId(), error);
+            } else {
+                punches.add(toPunch(request));
+            }
+        }
+        if (punches.isEmpty()) {
+            return response;
+        }
+
+        for (boolean stored : await(punchIngestBuffer.submit(punches))) {
+            if (stored) {
+                response.setStored(response.getStored() + 1);
+            } else {
+                response.setDuplicates(response.getDuplicates() + 1);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Removes a punch recorded in error, such as a badge swiped twice or on the wrong reader. Its day is
+     * rolled up again without it.
+     */
+    @Transactional
+    public void voidPunch(String deviceId, String eventId, Instant punchedAt) {
+        PunchKey key = new PunchKey(deviceId, eventId, punchedAt.truncatedTo(ChronoUnit.MICROS));
+        Punch punch = punchRepository.delete(key)
+                .orElseThrow(() -> new IllegalArgumentException("Error: Punch not found!"));
+        attendanceRollupService.markChanged(List.of(punch));
+    }
+
+    private String validate(PunchRequest request, Instant now) {
+        if (request == null) {
+            return "Error: Punch is empty!";
+        }
+        Set<ConstraintViolation<PunchRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<PunchRequest> violation = violations.iterator().next();
+            return "Error: " + violation.getPropertyPath() + " " + violation.getMessage() + "!";
+        }
+        return checkTime(request.getPunchedAt(), now);
+    }
+
+    /**
+     * Rejects punches from a device whose clock runs ahead. It also keeps punches inside the monthly
+     * partitions, which are created only a few months ahead.
+     */
+    private String checkTime(Instant punchedAt, Instant now) {
+        if (punchedAt.isAfter(now.plusMillis(maxClockSkewMs))) {
+            return "Error: Punch time " + punchedAt + " is in the future!";
+        }
+        return null;
+    }
+
+    private List<Boolean> await(List<CompletableFuture<Boolean>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for punches to be stored", e);
+        } catch (ExecutionException e) {
+            throw new ServiceBusyException("Error: Punches could not be stored, please retry.", retryAfterSeconds);
+        } catch (TimeoutException e) {
+            // They may still be committed; a retry is deduplicated
+            throw new ServiceBusyException("Error: Punches were not confirmed in time, please retry.",
+                    retryAfterSeconds);
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static Punch toPunch(PunchRequest request) {
+        return new Punch(request.getDeviceId(), request.getEventId(), request.getEmployeeId(),
+                request.getDirection(), request.getPunchedAt().truncatedTo(ChronoUnit.MICROS));
+    }
+}
@@ -0,0 +1,46 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.repository.PunchRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps monthly {@code attendance_punches} partitions in place ahead of time. A month must exist before its
+ * first punch: once the default partition holds rows for a month, that month's partition can no longer be
+ * attached.
+ */
+@Component
+public class AttendancePartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendancePartitionMaintainer.class);
+
+    private final PunchRepository punchRepository;
+    private final int monthsAhead;
+
+    public AttendancePartitionMaintainer(PunchRepository punchRepository,
+            @Value("${app.attendancePartitionMonthsAhead:3}") int monthsAhead) {
+        this.punchRepository = punchRepository;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.attendancePartitionCheckMs:86400000}",
+            fixedDelayString = "${app.attendancePartitionCheckMs:86400000}")
+    public void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                punchRepository.createPartition(month.plusMonths(i));
+            } catch (RuntimeException e) {
+                logger.error("Failed to create the attendance partition for {}", month.plusMonths(i), e);
+            }
+        }
+    }
+}
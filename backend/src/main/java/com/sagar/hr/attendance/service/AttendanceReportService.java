@@ -0,0 +1,59 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.dto.response.DailyAttendanceResponse;
+import com.sagar.hr.attendance.dto.response.TeamAttendanceResponse;
+import com.sagar.hr.attendance.model.RollupPeriod;
+import com.sagar.hr.attendance.repository.AttendanceRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Dashboard and report reads. They touch only the rollup tables, never {@code attendance_punches}, and
+ * trail the punches by the rollup interval.
+ */
+@Service
+public class AttendanceReportService {
+
+    private final AttendanceRollupRepository attendanceRollupRepository;
+    private final int maxReportDays;
+
+    public AttendanceReportService(AttendanceRollupRepository attendanceRollupRepository,
+            @Value("${app.attendanceReportMaxDays:366}") int maxReportDays) {
+        this.attendanceRollupRepository = attendanceRollupRepository;
+        this.maxReportDays = maxReportDays;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyAttendanceResponse> getDaily(Long employeeId, String team, LocalDate from, LocalDate to) {
+        if (employeeId == null && (team == null || team.isBlank())) {
+            throw new IllegalArgumentException("Error: Either employeeId or team is required!");
+        }
+        checkRange(from, to);
+        return attendanceRollupRepository.findDaily(employeeId, team, from, to);
+    }
+
+    /**
+     * Team totals of the weeks or months starting between {@code from} and {@code to}.
+     */
+    @Transactional(readOnly = true)
+    public List<TeamAttendanceResponse> getTeamTotals(RollupPeriod period, String team, LocalDate from,
+            LocalDate to) {
+        checkRange(from, to);
+        return attendanceRollupRepository.findTeamTotals(period, team == null || team.isBlank() ? null : team,
+                period.start(from), to);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Error: The from date must not be after the to date!");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxReportDays) {
+            throw new IllegalArgumentException("Error: A report covers at most " + maxReportDays + " days!");
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.dto.response.RollupRebuildResponse;
+import com.sagar.hr.attendance.model.DailyContribution;
+import com.sagar.hr.attendance.model.EmployeeDay;
+import com.sagar.hr.attendance.model.Punch;
+import com.sagar.hr.attendance.model.RollupPeriod;
+import com.sagar.hr.attendance.model.TeamDelta;
+import com.sagar.hr.attendance.repository.AttendanceRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the attendance rollups current without scanning punches. Every transaction that changes punches
+ * also queues the employee days it touched; a background thread claims queued days in batches, recomputes
+ * just those daily rows, and adds the difference between their old and new values to the team's weekly
+ * and monthly totals. A punch arriving days late, or one that is voided, simply queues its day again. A
+ * punch within {@code app.attendanceOvernightHours} of midnight also queues the day before, whose overnight
+ * shift it may close.
+ * <p>
+ * {@link #rebuild} recomputes a date range from scratch, one day per task across
+ * {@code app.attendanceRollupRebuildThreads}, and then the weeks and months it overlaps. Incremental
+ * updates pause while it runs.
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceRollupService.class);
+    private static final Comparator<TeamPeriod> TEAM_PERIOD_ORDER =
+            Comparator.comparing(TeamPeriod::team).thenComparing(TeamPeriod::start);
+    private static final Comparator<EmployeeDay> EMPLOYEE_DAY_ORDER =
+            Comparator.comparingLong(EmployeeDay::employeeId).thenComparing(EmployeeDay::workDate);
+
+    private final AttendanceRollupRepository attendanceRollupRepository;
+    private final TransactionTemplate transaction;
+    private final ZoneId zone;
+    private final Duration lateAfter;
+    private final Duration overnight;
+    private final int batchSize;
+    private final long intervalMs;
+    private final int rebuildThreads;
+    private final int maxRebuildDays;
+    private final Counter incrementalDays;
+    private final Counter rebuiltDays;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AttendanceRollupService(AttendanceRollupRepository attendanceRollupRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.attendanceZone:UTC}") String zone,
+            @Value("${app.attendanceShiftStart:09:00}") String shiftStart,
+            @Value("${app.attendanceLateGraceMinutes:5}") int lateGraceMinutes,
+            @Value("${app.attendanceOvernightHours:12}") int overnightHours,
+            @Value("${app.attendanceRollupBatchSize:500}") int batchSize,
+            @Value("${app.attendanceRollupIntervalMs:1000}") long intervalMs,
+            @Value("${app.attendanceRollupRebuildThreads:0}") int rebuildThreads,
+            @Value("${app.attendanceRollupMaxRebuildDays:366}") int maxRebuildDays) {
+        this.attendanceRollupRepository = attendanceRollupRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.zone = ZoneId.of(zone);
+        this.lateAfter = Duration.ofSeconds(LocalTime.parse(shiftStart).toSecondOfDay())
+                .plusMinutes(lateGraceMinutes);
+        this.overnight = Duration.ofHours(overnightHours);
+        this.batchSize = batchSize;
+        this.intervalMs = intervalMs;
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        this.maxRebuildDays = maxRebuildDays;
+        this.incrementalDays = dayCounter(meterRegistry, "incremental");
+        this.rebuiltDays = dayCounter(meterRegistry, "rebuild");
+    }
+
+    /**
+     * Queues the employee days of changed punches. Call it in the transaction that changes them. The days
+     * are queued in order so that concurrent writers lock queue rows in the same order.
+     */
+    public void markChanged(Collection<Punch> punches) {
+        Set<EmployeeDay> days = new TreeSet<>(EMPLOYEE_DAY_ORDER);
+        for (Punch punch : punches) {
+            LocalDateTime local = LocalDateTime.ofInstant(punch.punchedAt(), zone);
+            days.add(new EmployeeDay(punch.employeeId(), local.toLocalDate()));
+            days.add(new EmployeeDay(punch.employeeId(), local.minus(overnight).toLocalDate()));
+        }
+        attendanceRollupRepository.enqueue(days);
+    }
+
+    /**
+     * The zone working days are in, for writers that queue changed days in SQL.
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * How far into the next day a clock-out still closes the previous day's shift. Writers that queue
+     * changed days in SQL also queue the day before for punches this close to midnight.
+     */
+    public Duration getOvernight() {
+        return overnight;
+    }
+
+    /**
+     * Days already rolled up keep the team they were computed with; a rebuild moves them.
+     */
+    public void assignTeam(long employeeId, String team) {
+        attendanceRollupRepository.assignTeam(employeeId, team.trim());
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("attendance-rollup").daemon().start(this::workLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Applies queued changes until the queue is empty, a rebuild holds the lock, or the worker stops.
+     */
+    public void applyChanges() {
+        Integer applied;
+        do {
+            applied = transaction.execute(status -> applyBatch());
+        } while (running && applied != null && applied == batchSize);
+    }
+
+    public RollupRebuildResponse rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Error: A rebuild needs a from date on or before its to date!");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxRebuildDays) {
+            throw new IllegalArgumentException("Error: A rebuild covers at most " + maxRebuildDays + " days!");
+        }
+
+        long started = System.nanoTime();
+        return attendanceRollupRepository.withRebuildLock(() -> {
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+                Thread thread = new Thread(runnable, "attendance-rebuild-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Integer>> dayTasks = new ArrayList<>();
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    LocalDate rebuiltDay = day;
+                    dayTasks.add(executor.submit(() -> transaction.execute(status ->
+                            attendanceRollupRepository.rebuildDay(rebuiltDay, lateAfter, overnight, zone))));
+                }
+                int employeeDays = 0;
+                for (Future<Integer> task : dayTasks) {
+                    employeeDays += await(task);
+                }
+                rebuiltDays.increment(days);
+
+                // Only once every day is in place: the periods are summed from the daily rows
+                List<Future<Integer>> periodTasks = new ArrayList<>();
+                int[] periodCounts = new int[RollupPeriod.values().length];
+                for (RollupPeriod period : RollupPeriod.values()) {
+                    for (LocalDate start = period.start(from); !start.isAfter(to); start = period.next(start)) {
+                        LocalDate periodStart = start;
+                        periodTasks.add(executor.submit(() -> transaction.execute(status -> {
+                            attendanceRollupRepository.rebuildPeriod(period, periodStart);
+                            return 1;
+                        })));
+                        periodCounts[period.ordinal()]++;
+                    }
+                }
+                for (Future<Integer> task : periodTasks) {
+                    await(task);
+                }
+
+                long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                logger.info("Rebuilt attendance rollups from {} to {} ({} employee days) in {} ms",
+                        from, to, employeeDays, durationMs);
+                return RollupRebuildResponse.builder()
+                        .from(from)
+                        .to(to)
+                        .employeeDays(employeeDays)
+                        .weeks(periodCounts[RollupPeriod.WEEK.ordinal()])
+                        .months(periodCounts[RollupPeriod.MONTH.ordinal()])
+                        .durationMs(durationMs)
+                        .build();
+            } finally {
+                executor.shutdownNow();
+            }
+        });
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                applyChanges();
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply attendance rollup changes", e);
+            }
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int applyBatch() {
+        if (!attendanceRollupRepository.tryLockForUpdates()) {
+            return 0;
+        }
+        List<EmployeeDay> days = attendanceRollupRepository.claimChanged(batchSize);
+        if (days.isEmpty()) {
+            return 0;
+        }
+        List<DailyContribution> removed = attendanceRollupRepository.deleteDaily(days);
+        List<DailyContribution> added = attendanceRollupRepository.insertDaily(days, lateAfter, overnight, zone);
+        for (RollupPeriod period : RollupPeriod.values()) {
+            attendanceRollupRepository.applyDeltas(period, deltas(period, removed, added));
+        }
+        incrementalDays.increment(days.size());
+        return days.size();
+    }
+
+    /**
+     * Net change per team and period, sorted so that concurrent updates lock rows in the same order.
+     */
+    private static List<TeamDelta> deltas(RollupPeriod period, List<DailyContribution> removed,
+            List<DailyContribution> added) {
+        Map<TeamPeriod, long[]> totals = new TreeMap<>(TEAM_PERIOD_ORDER);
+        accumulate(totals, period, removed, -1);
+        accumulate(totals, period, added, 1);
+
+        List<TeamDelta> deltas = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> {
+            TeamDelta delta = new TeamDelta(key.team(), key.start(), (int) total[0], (int) total[1], total[2]);
+            if (!delta.isZero()) {
+                deltas.add(delta);
+            }
+        });
+        return deltas;
+    }
+
+    private static void accumulate(Map<TeamPeriod, long[]> totals, RollupPeriod period,
+            List<DailyContribution> contributions, int sign) {
+        for (DailyContribution contribution : contributions) {
+            long[] total = totals.computeIfAbsent(
+                    new TeamPeriod(contribution.team(), period.start(contribution.workDate())), key -> new long[3]);
+            total[0] += contribution.present() ? sign : 0;
+            total[1] += contribution.late() ? sign : 0;
+            total[2] += (long) sign * contribution.workedMinutes();
+        }
+    }
+
+    private static int await(Future<Integer> task) {
+        try {
+            Integer result = task.get();
+            return result == null ? 0 : result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding attendance rollups", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Attendance rollup rebuild failed", e.getCause());
+        }
+    }
+
+    private static Counter dayCounter(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("attendance.rollup.days")
+                .description("Employee days recomputed, or days rebuilt, by mode")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private record TeamPeriod(String team, LocalDate start) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.model.Punch;
+import com.sagar.hr.attendance.model.PunchKey;
+import com.sagar.hr.attendance.repository.PunchRepository;
+import com.sagar.hr.util.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for punches. Request threads hand their punches to a shared buffer and wait; writer threads
+ * take whatever has accumulated, up to {@code app.attendanceBatchSize}, insert it with one statement and
+ * commit it in one transaction, then complete every waiting punch. Under load many requests share each
+ * commit and its WAL flush. When idle a writer waits at most {@code app.attendanceGroupCommitMs} for
+ * company before committing. The employee days of new punches are queued for the rollups in the same
+ * transaction.
+ * <p>
+ * A punch counts against {@code app.attendanceBufferCapacity} from submission until its commit finishes.
+ * A submission that does not fit fails at once with a {@link ServiceBusyException}, so a backlog turns
+ * into 503s for the devices to retry instead of queued requests and memory.
+ */
+@Component
+public class PunchIngestBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PunchIngestBuffer.class);
+
+    private final PunchRepository punchRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final TransactionTemplate transaction;
+    private final BlockingQueue<PendingPunch> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int batchSize;
+    private final long groupCommitNanos;
+    private final int writerThreads;
+    private final long retryAfterSeconds;
+    private final List<Thread> writers = new ArrayList<>();
+
+    private final Counter storedPunches;
+    private final Counter duplicatePunches;
+    private final Counter failedPunches;
+    private final Counter rejectedPunches;
+    private final Timer commitTimer;
+    private final DistributionSummary commitSize;
+
+    private volatile boolean running;
+
+    public PunchIngestBuffer(PunchRepository punchRepository, AttendanceRollupService attendanceRollupService,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.attendanceBufferCapacity:20000}") int bufferCapacity,
+            @Value("${app.attendanceBatchSize:1000}") int batchSize,
+            @Value("${app.attendanceGroupCommitMs:2}") long groupCommitMs,
+            @Value("${app.attendanceWriterThreads:2}") int writerThreads,
+            @Value("${app.attendanceRetryAfterSeconds:1}") long retryAfterSeconds) {
+        this.punchRepository = punchRepository;
+        this.attendanceRollupService = attendanceRollupService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(bufferCapacity);
+        this.batchSize = batchSize;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMs);
+        this.writerThreads = writerThreads;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("attendance.buffer.depth", queue, BlockingQueue::size)
+                .description("Punches waiting for a writer")
+                .register(meterRegistry);
+        this.storedPunches = punchCounter(meterRegistry, "stored");
+        this.duplicatePunches = punchCounter(meterRegistry, "duplicate");
+        this.failedPunches = punchCounter(meterRegistry, "failed");
+        this.rejectedPunches = punchCounter(meterRegistry, "rejected");
+        this.commitTimer = Timer.builder("attendance.commit")
+                .description("Time to insert and commit one group of punches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitSize = DistributionSummary.builder("attendance.commit.size")
+                .description("Punches per group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the punches and returns one future per punch, in order. A future completes with {@code true}
+     * once the punch is committed, with {@code false} when it was already stored, or exceptionally when its
+     * commit failed.
+     *
+     * @throws ServiceBusyException when the buffer cannot take all of them
+     */
+    public List<CompletableFuture<Boolean>> submit(List<Punch> punches) {
+        if (!capacity.tryAcquire(punches.size())) {
+            rejectedPunches.increment(punches.size());
+            throw new ServiceBusyException("Error: Too many punches are waiting to be stored, please retry shortly.",
+                    retryAfterSeconds);
+        }
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(punches.size());
+        for (Punch punch : punches) {
+            PendingPunch pending = new PendingPunch(punch, new CompletableFuture<>());
+            queue.add(pending);
+            futures.add(pending.stored());
+        }
+        return futures;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 1; i <= writerThreads; i++) {
+            writers.add(Thread.ofPlatform().name("attendance-writer-" + i).daemon().start(this::drainLoop));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // Punches submitted while the writers were stopping
+        List<PendingPunch> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingPunch> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingPunch first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds what is already queued and, while the batch is not full, what arrives within the group commit
+     * window.
+     */
+    private void fill(List<PendingPunch> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + groupCommitNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingPunch next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingPunch> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Punch> punches = new ArrayList<>(batch.size());
+        for (PendingPunch pending : batch) {
+            punches.add(pending.punch());
+        }
+        Set<PunchKey> inserted;
+        long started = System.nanoTime();
+        try {
+            // Returns once the commit is durable (synchronous_commit is on by default)
+            inserted = transaction.execute(status -> {
+                Set<PunchKey> keys = punchRepository.insertBatch(punches);
+                attendanceRollupService.markChanged(
+                        punches.stream().filter(punch -> keys.contains(punch.key())).toList());
+                return keys;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to store {} punches", batch.size(), e);
+            failedPunches.increment(batch.size());
+            for (PendingPunch pending : batch) {
+                pending.stored().completeExceptionally(e);
+            }
+            return;
+        } finally {
+            capacity.release(batch.size());
+        }
+        commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        commitSize.record(batch.size());
+
+        for (PendingPunch pending : batch) {
+            // A key is reported as stored once; a repeat within the same batch is a duplicate
+            boolean stored = inserted.remove(pending.punch().key());
+            (stored ? storedPunches : duplicatePunches).increment();
+            pending.stored().complete(stored);
+        }
+    }
+
+    private static Counter punchCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("attendance.punches")
+                .description("Submitted punches by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingPunch(Punch punch, CompletableFuture<Boolean> stored) {
+    }
+}
@@ -0,0 +1,595 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.dto.response.PunchImportResponse;
+import com.sagar.hr.attendance.model.ImportBatchOutcome;
+import com.sagar.hr.attendance.model.PunchImport;
+import com.sagar.hr.attendance.model.PunchImportChunk;
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import com.sagar.hr.attendance.repository.PunchImportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bulk import of the flat punch logs badge terminals export, uploaded through the API or dropped into
+ * {@code app.attendanceImportDropDir}. A background thread claims one import at a time and:
+ * <ol>
+ *     <li>splits the file into chunks that start at record boundaries, recorded in
+ *     {@code attendance_import_chunks};</li>
+ *     <li>memory-maps each unfinished chunk and parses it on {@code app.attendanceImportThreads}, with
+ *     {@link PunchLogParser} writing COPY rows straight from the mapped bytes;</li>
+ *     <li>streams every {@code app.attendanceImportBatchRows} records into a staging table with COPY, merges
+ *     them into {@code attendance_punches} (duplicates skipped, rollup days queued) and moves the chunk's
+ *     committed offset, all in one transaction.</li>
+ * </ol>
+ * After a crash the import is taken over once its heartbeat is older than {@code app.attendanceImportStaleMs}
+ * and continues from each chunk's committed offset. Records past it are parsed again; anything stored twice
+ * would be deduplicated anyway.
+ */
+@Service
+public class PunchLogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PunchLogImportService.class);
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    // A longer line is not a punch record; it also bounds the search for a chunk boundary
+    private static final int MAX_RECORD_BYTES = 65536;
+    private static final int TRANSFER_BUFFER_BYTES = 65536;
+
+    private final PunchImportRepository punchImportRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final TransactionTemplate transaction;
+    private final Path importDir;
+    private final Path dropDir;
+    private final boolean dropCsvHeader;
+    private final long dropSettleMs;
+    private final ZoneId defaultZone;
+    private final int[][] fixedWidthLayout;
+    private final long maxBytes;
+    private final long maxChunkBytes;
+    private final int threads;
+    private final int batchRows;
+    private final long maxClockSkewMs;
+    private final long pollNanos;
+    private final long staleMs;
+
+    private final Counter importedPunches;
+    private final Counter duplicatePunches;
+    private final Counter rejectedPunches;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+    private ExecutorService chunkExecutor;
+
+    public PunchLogImportService(PunchImportRepository punchImportRepository,
+            AttendanceRollupService attendanceRollupService, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.attendanceImportDir:imports/attendance}") String importDir,
+            @Value("${app.attendanceImportDropDir:}") String dropDir,
+            @Value("${app.attendanceImportDropCsvHeader:true}") boolean dropCsvHeader,
+            @Value("${app.attendanceImportDropSettleMs:10000}") long dropSettleMs,
+            @Value("${app.attendanceZone:UTC}") String defaultZone,
+            @Value("${app.attendanceImportFixedWidthLayout:deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=45-59}")
+            String fixedWidthLayout,
+            @Value("${app.attendanceImportMaxBytes:4294967296}") long maxBytes,
+            @Value("${app.attendanceImportMaxChunkBytes:268435456}") long maxChunkBytes,
+            @Value("${app.attendanceImportThreads:0}") int threads,
+            @Value("${app.attendanceImportBatchRows:50000}") int batchRows,
+            @Value("${app.attendanceMaxClockSkewMs:300000}") long maxClockSkewMs,
+            @Value("${app.attendanceImportPollMs:5000}") long pollMs,
+            @Value("${app.attendanceImportStaleMs:60000}") long staleMs) {
+        this.punchImportRepository = punchImportRepository;
+        this.attendanceRollupService = attendanceRollupService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.importDir = Path.of(importDir);
+        this.dropDir = dropDir.isBlank() ? null : Path.of(dropDir);
+        this.dropCsvHeader = dropCsvHeader;
+        this.dropSettleMs = dropSettleMs;
+        this.defaultZone = zone(defaultZone);
+        this.fixedWidthLayout = PunchLogParser.parseLayout(fixedWidthLayout);
+        this.maxBytes = maxBytes;
+        // A chunk is mapped as one buffer, which int offsets must be able to address
+        this.maxChunkBytes = Math.max(MIN_CHUNK_BYTES, Math.min(maxChunkBytes, Integer.MAX_VALUE - MAX_RECORD_BYTES));
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.batchRows = batchRows;
+        this.maxClockSkewMs = maxClockSkewMs;
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(pollMs);
+        this.staleMs = staleMs;
+
+        this.importedPunches = punchCounter(meterRegistry, "imported");
+        this.duplicatePunches = punchCounter(meterRegistry, "duplicate");
+        this.rejectedPunches = punchCounter(meterRegistry, "rejected");
+        this.batchTimer = Timer.builder("attendance.import.batch")
+                .description("Time to copy, merge and checkpoint one batch of imported punches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Saves an uploaded punch log under {@code app.attendanceImportDir} and queues it for import.
+     *
+     * @param zone time zone of punch times without an offset; defaults to {@code app.attendanceZone}
+     */
+    public PunchImportResponse upload(String fileName, PunchLogFormat format, Boolean header, String zone,
+            InputStream body) {
+        ZoneId fileZone = zone == null || zone.isBlank() ? defaultZone : zone(zone);
+        boolean hasHeader = header != null ? header : format == PunchLogFormat.CSV;
+        String name = fileName == null || fileName.isBlank() ? "upload" : Path.of(fileName).getFileName().toString();
+        Path stored = importDir.resolve(UUID.randomUUID() + extension(format));
+        long size;
+        try {
+            Files.createDirectories(importDir);
+            size = save(body, stored);
+        } catch (IOException e) {
+            deleteQuietly(stored);
+            throw new UncheckedIOException("Failed to save uploaded punch log " + name, e);
+        }
+        if (size == 0) {
+            deleteQuietly(stored);
+            throw new IllegalArgumentException("Error: The punch log is empty!");
+        }
+        long id = punchImportRepository.create(name, stored.toAbsolutePath().toString(), format, hasHeader,
+                fileZone, size);
+        LockSupport.unpark(worker);
+        return get(id);
+    }
+
+    public PunchImportResponse get(long id) {
+        return punchImportRepository.findResponse(id)
+                .orElseThrow(() -> new IllegalArgumentException("Error: Import not found!"));
+    }
+
+    public List<PunchImportResponse> getRecent(int limit) {
+        return punchImportRepository.findRecentResponses(Math.max(1, Math.min(limit, 100)));
+    }
+
+    /**
+     * Retries a failed import from where it stopped.
+     */
+    public PunchImportResponse resume(long id) {
+        if (!punchImportRepository.resume(id)) {
+            throw new IllegalArgumentException("Error: Only a failed import can be resumed!");
+        }
+        LockSupport.unpark(worker);
+        return get(id);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        AtomicInteger threadCount = new AtomicInteger();
+        chunkExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "attendance-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker = Thread.ofPlatform().name("attendance-import").daemon().start(this::workLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Chunks stop after their current batch; the import is taken over again once its heartbeat is stale
+        running = false;
+        LockSupport.unpark(worker);
+        chunkExecutor.shutdown();
+        chunkExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                collectDropped();
+                while (running) {
+                    // A token per claim: tasks left over from an earlier claim of the same import cannot pass
+                    // as its owner
+                    String owner = UUID.randomUUID().toString();
+                    Optional<PunchImport> claimed = transaction.execute(
+                            status -> punchImportRepository.claimNext(owner, staleMs));
+                    if (claimed.isEmpty()) {
+                        break;
+                    }
+                    run(claimed.get(), owner);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Attendance import loop failed", e);
+            }
+            LockSupport.parkNanos(pollNanos);
+        }
+    }
+
+    /**
+     * Moves files that have stopped changing from the drop directory into the import directory and queues
+     * them. The move is what claims a file, so instances sharing the directory never import one twice.
+     */
+    private void collectDropped() {
+        if (dropDir == null || !Files.isDirectory(dropDir)) {
+            return;
+        }
+        long settledBefore = System.currentTimeMillis() - dropSettleMs;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dropDir)) {
+            for (Path file : files) {
+                PunchLogFormat format = formatOf(file);
+                if (format == null || !Files.isRegularFile(file)
+                        || Files.getLastModifiedTime(file).toMillis() > settledBefore) {
+                    continue;
+                }
+                Files.createDirectories(importDir);
+                Path stored = importDir.resolve(UUID.randomUUID() + extension(format));
+                try {
+                    Files.move(file, stored, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    continue; // taken by another instance
+                } catch (AtomicMoveNotSupportedException e) {
+                    logger.warn("{} and {} are on different file systems; dropped files are copied, not claimed",
+                            dropDir, importDir);
+                    Files.move(file, stored);
+                }
+                long id = punchImportRepository.create(file.getFileName().toString(),
+                        stored.toAbsolutePath().toString(), format, format == PunchLogFormat.CSV && dropCsvHeader,
+                        defaultZone, Files.size(stored));
+                logger.info("Queued dropped punch log {} as import {}", file.getFileName(), id);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to collect punch logs from {}", dropDir, e);
+        }
+    }
+
+    private void run(PunchImport punchImport, String owner) {
+        long started = System.nanoTime();
+        Path path = Path.of(punchImport.storedPath());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<PunchImportChunk> chunks = punchImportRepository.findChunks(punchImport.id());
+            if (chunks.isEmpty()) {
+                List<long[]> ranges = split(channel, punchImport.hasHeader());
+                transaction.executeWithoutResult(status -> {
+                    if (punchImportRepository.holdOwnership(punchImport.id(), owner)) {
+                        punchImportRepository.insertChunks(punchImport.id(), ranges);
+                    }
+                });
+                chunks = punchImportRepository.findChunks(punchImport.id());
+            }
+
+            AtomicBoolean stopped = new AtomicBoolean();
+            List<Future<Boolean>> tasks = new ArrayList<>();
+            for (PunchImportChunk chunk : chunks) {
+                if (!chunk.isDone()) {
+                    tasks.add(chunkExecutor.submit(() -> importChunk(punchImport, owner, stopped, channel, chunk)));
+                }
+            }
+            if (!awaitChunks(punchImport, owner, stopped, tasks)) {
+                return; // stopping, or taken over by another instance; the chunks keep their checkpoints
+            }
+            transaction.executeWithoutResult(status -> punchImportRepository.complete(punchImport.id(), owner));
+            deleteQuietly(path);
+            logger.info("Imported punch log {} ({}, {} bytes) in {} ms", punchImport.id(), punchImport.fileName(),
+                    punchImport.sizeBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (NoSuchFileException e) {
+            fail(punchImport, owner, "Error: The punch log file is missing from " + path + "!", e);
+        } catch (IOException | RuntimeException e) {
+            fail(punchImport, owner, e instanceof IllegalArgumentException ? e.getMessage()
+                    : "Error: Import stopped: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Waits until every chunk task has finished, refreshing the import's heartbeat meanwhile. When one fails
+     * the others are told to stop after their current batch, and its failure is rethrown once they have.
+     * Returns whether every chunk completed.
+     */
+    private boolean awaitChunks(PunchImport punchImport, String owner, AtomicBoolean stopped,
+            List<Future<Boolean>> tasks) {
+        boolean complete = true;
+        boolean interrupted = false;
+        RuntimeException failure = null;
+        for (Future<Boolean> task : tasks) {
+            while (true) {
+                try {
+                    complete &= task.get(staleMs / 3, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    if (!punchImportRepository.heartbeat(punchImport.id(), owner)) {
+                        // Taken over; the chunks notice at their next batch
+                        complete = false;
+                    }
+                } catch (InterruptedException e) {
+                    // Still wait: the tasks use the channel the caller closes
+                    interrupted = true;
+                    stopped.set(true);
+                } catch (ExecutionException e) {
+                    complete = false;
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException runtimeException ? runtimeException
+                                : new IllegalStateException(e.getCause().getMessage(), e.getCause());
+                        stopped.set(true);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return complete && !interrupted;
+    }
+
+    /**
+     * Imports one chunk from its committed offset, a batch per transaction. Returns false when it stopped
+     * early because the service is stopping, another chunk failed or the import was taken over.
+     */
+    private boolean importChunk(PunchImport punchImport, String owner, AtomicBoolean stopped, FileChannel channel,
+            PunchImportChunk chunk) throws IOException {
+        long base = chunk.committedOffset();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, chunk.endOffset() - base);
+        PunchLogParser parser = new PunchLogParser(punchImport.format(), fixedWidthLayout);
+        ZoneId fileZone = ZoneId.of(punchImport.zone());
+        ChunkCursor cursor = new ChunkCursor(buffer, base, parser, batchRows, chunk.firstError() != null);
+
+        while (cursor.hasMore()) {
+            if (!running || stopped.get()) {
+                return false;
+            }
+            long started = System.nanoTime();
+            cursor.startBatch();
+            ImportBatchOutcome outcome = transaction.execute(status -> {
+                if (!punchImportRepository.holdOwnership(punchImport.id(), owner)) {
+                    return null;
+                }
+                ImportBatchOutcome copied = punchImportRepository.copyBatch(fileZone, maxClockSkewMs,
+                        attendanceRollupService.getZone(), attendanceRollupService.getOvernight(), cursor::copyBatch);
+                ImportBatchOutcome batch = new ImportBatchOutcome(copied.imported(), copied.duplicates(),
+                        copied.rejected() + cursor.rejected);
+                punchImportRepository.checkpoint(punchImport.id(), chunk.chunkNo(), cursor.batchEnd(), batch,
+                        cursor.firstError);
+                punchImportRepository.queueImportedDays();
+                return batch;
+            });
+            if (outcome == null) {
+                logger.info("Import {} was taken over by another instance", punchImport.id());
+                return false;
+            }
+            cursor.commit();
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            importedPunches.increment(outcome.imported());
+            duplicatePunches.increment(outcome.duplicates());
+            rejectedPunches.increment(outcome.rejected());
+        }
+        return true;
+    }
+
+    /**
+     * Byte ranges of at most {@code app.attendanceImportMaxChunkBytes}, each ending just after a line break,
+     * spread over the import threads.
+     */
+    private List<long[]> split(FileChannel channel, boolean hasHeader) throws IOException {
+        long size = channel.size();
+        long chunkBytes = Math.max(MIN_CHUNK_BYTES, Math.min(maxChunkBytes, (size + threads - 1) / threads));
+        return split(channel, hasHeader, chunkBytes);
+    }
+
+    /**
+     * Byte ranges that together cover the file after its header line, each ending just after the first line
+     * break at least {@code chunkBytes} into it, or at the end of the file.
+     */
+    static List<long[]> split(FileChannel channel, boolean hasHeader, long chunkBytes) throws IOException {
+        long size = channel.size();
+        long start = hasHeader ? lineEndAfter(channel, 0, size) : 0;
+        List<long[]> ranges = new ArrayList<>();
+        while (start < size) {
+            long end = size - start <= chunkBytes ? size : lineEndAfter(channel, start + chunkBytes - 1, size);
+            ranges.add(new long[] {start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * The offset just past the first line break at or after {@code from}, or the end of the file.
+     */
+    private static long lineEndAfter(FileChannel channel, long from, long size) throws IOException {
+        long length = Math.min(MAX_RECORD_BYTES, size - from);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        for (int i = 0; i < length; i++) {
+            if (window.get(i) == '\n') {
+                return from + i + 1;
+            }
+        }
+        if (from + length == size) {
+            return size;
+        }
+        throw new IllegalArgumentException(
+                "Error: No line break within " + MAX_RECORD_BYTES + " bytes of offset " + from + "; not a punch log!");
+    }
+
+    private long save(InputStream body, Path target) throws IOException {
+        long size = 0;
+        byte[] buffer = new byte[TRANSFER_BUFFER_BYTES];
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException(
+                            "Error: A punch log may be at most " + maxBytes + " bytes!");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IllegalArgumentException e) {
+            deleteQuietly(target);
+            throw e;
+        }
+        return size;
+    }
+
+    private void fail(PunchImport punchImport, String owner, String error, Exception cause) {
+        logger.error("Import {} ({}) failed", punchImport.id(), punchImport.fileName(), cause);
+        try {
+            transaction.executeWithoutResult(status -> punchImportRepository.fail(punchImport.id(), owner, error));
+        } catch (RuntimeException e) {
+            logger.error("Failed to mark import {} as failed", punchImport.id(), e);
+        }
+    }
+
+    /**
+     * Zones go to PostgreSQL by ID, which reads a bare offset such as {@code +05:45} with the opposite (POSIX)
+     * sign, so only region IDs are accepted.
+     */
+    private static ZoneId zone(String zone) {
+        ZoneId zoneId;
+        try {
+            zoneId = ZoneId.of(zone.trim());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Error: Unknown time zone " + zone + "!");
+        }
+        if (zoneId.equals(ZoneOffset.UTC)) {
+            return ZoneId.of("UTC");
+        }
+        if (zoneId instanceof ZoneOffset) {
+            throw new IllegalArgumentException("Error: Give a region such as Asia/Kathmandu instead of " + zone + "!");
+        }
+        return zoneId;
+    }
+
+    private static PunchLogFormat formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return PunchLogFormat.CSV;
+        }
+        if (name.endsWith(".dat") || name.endsWith(".txt")) {
+            return PunchLogFormat.FIXED_WIDTH;
+        }
+        return null;
+    }
+
+    private static String extension(PunchLogFormat format) {
+        return format == PunchLogFormat.CSV ? ".csv" : ".dat";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    private static Counter punchCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("attendance.import.punches")
+                .description("Punches read from imported punch logs by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Walks a mapped chunk record by record. {@link #copyBatch} runs inside the batch transaction and only
+     * advances {@link #batchEnd}; {@link #commit} makes it the new position once the transaction commits, so
+     * a failed batch leaves the position where it was.
+     */
+    static final class ChunkCursor {
+        private final ByteBuffer buffer;
+        private final long base;
+        private final PunchLogParser parser;
+        private final int batchRows;
+        private boolean errorRecorded;
+        private int position;
+        private int batchEnd;
+        long rejected;
+        String firstError;
+
+        ChunkCursor(ByteBuffer buffer, long base, PunchLogParser parser, int batchRows, boolean errorRecorded) {
+            this.buffer = buffer;
+            this.base = base;
+            this.parser = parser;
+            this.batchRows = batchRows;
+            this.errorRecorded = errorRecorded;
+        }
+
+        boolean hasMore() {
+            return position < buffer.limit();
+        }
+
+        long batchEnd() {
+            return base + batchEnd;
+        }
+
+        void startBatch() {
+            batchEnd = position;
+            rejected = 0;
+            firstError = null;
+        }
+
+        void copyBatch(OutputStream copy) throws IOException {
+            int limit = buffer.limit();
+            int p = position;
+            int records = 0;
+            while (p < limit && records < batchRows) {
+                int lineEnd = p;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int recordEnd = lineEnd > p && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (recordEnd > p) {
+                    String error = parser.parse(buffer, p, recordEnd);
+                    if (error == null) {
+                        copy.write(parser.row(), 0, parser.rowLength());
+                    } else {
+                        rejected++;
+                        if (!errorRecorded && firstError == null) {
+                            firstError = "Byte " + (base + p) + ": " + error;
+                        }
+                    }
+                    records++;
+                }
+                p = Math.min(lineEnd + 1, limit);
+            }
+            batchEnd = p;
+        }
+
+        void commit() {
+            position = batchEnd;
+            errorRecorded |= firstError != null;
+        }
+    }
+}
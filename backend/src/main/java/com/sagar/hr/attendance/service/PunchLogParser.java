@@ -0,0 +1,402 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.model.PunchLogFormat;
+
+import java.nio.ByteBuffer;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Turns one punch log record into one row of PostgreSQL's COPY text format for
+ * {@code attendance_import_staging}. Nothing is allocated per record: fields are located as offsets into
+ * the (memory-mapped) buffer, checked in place and copied byte by byte into a row buffer that is reused for
+ * the next record. Rejection reasons are constants.
+ * <p>
+ * Times are {@code yyyy-MM-dd'T'HH:mm:ss} (a space instead of the {@code T} is fine) or {@code yyyyMMddHHmmss},
+ * with up to six fraction digits after a dot, and optionally {@code Z} or an offset such as {@code +05:45}.
+ * Without one they are local to the import's zone, which the database applies when the row is merged.
+ * Directions are {@code IN}, {@code OUT}, {@code I} or {@code O}, in any case.
+ * <p>
+ * Not thread-safe; use one per chunk.
+ */
+final class PunchLogParser {
+
+    private static final int DEVICE_ID = 0;
+    private static final int EVENT_ID = 1;
+    private static final int EMPLOYEE_ID = 2;
+    private static final int DIRECTION = 3;
+    private static final int PUNCHED_AT = 4;
+    private static final String[] FIELDS = {"deviceId", "eventId", "employeeId", "direction", "punchedAt"};
+
+    private static final int MAX_ID_BYTES = 64;
+    private static final int MAX_EMPLOYEE_ID_DIGITS = 18;
+    // Two IDs, an employee ID, a direction, a time with microseconds, an offset and the separators
+    private static final int MAX_ROW_BYTES = 256;
+
+    private static final String WRONG_FIELD_COUNT = "Error: A record needs 5 comma-separated fields!";
+    private static final String TOO_SHORT = "Error: Record is shorter than the fixed-width layout!";
+    private static final String[] INVALID = {
+            "Error: deviceId must be 1 to 64 printable ASCII characters without a backslash!",
+            "Error: eventId must be 1 to 64 printable ASCII characters without a backslash!",
+            "Error: employeeId must be 1 to 18 digits!",
+            "Error: direction must be IN or OUT!",
+            "Error: punchedAt is not a valid time!"
+    };
+
+    private final PunchLogFormat format;
+    private final int[][] layout;
+    private final int layoutLength;
+    private final int[] fieldStart = new int[FIELDS.length];
+    private final int[] fieldEnd = new int[FIELDS.length];
+    private final byte[] row = new byte[MAX_ROW_BYTES];
+    private int rowLength;
+
+    PunchLogParser(PunchLogFormat format, int[][] layout) {
+        this.format = format;
+        this.layout = layout;
+        int length = 0;
+        for (int[] range : layout) {
+            length = Math.max(length, range[1]);
+        }
+        this.layoutLength = length;
+    }
+
+    /**
+     * Parses a fixed-width layout such as {@code deviceId=0-10,eventId=10-30,...}: each field's start column
+     * (from 0) and end column (exclusive). Every field must be given.
+     */
+    static int[][] parseLayout(String layout) {
+        int[][] ranges = new int[FIELDS.length][];
+        for (String part : layout.split(",")) {
+            String[] field = part.trim().split("[=-]");
+            int index = field.length == 3 ? indexOf(field[0].trim()) : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid fixed-width layout entry: " + part);
+            }
+            int start = Integer.parseInt(field[1].trim());
+            int end = Integer.parseInt(field[2].trim());
+            if (start < 0 || end <= start) {
+                throw new IllegalArgumentException("Invalid fixed-width column range: " + part);
+            }
+            ranges[index] = new int[] {start, end};
+        }
+        for (int i = 0; i < ranges.length; i++) {
+            if (ranges[i] == null) {
+                throw new IllegalArgumentException("Fixed-width layout is missing " + FIELDS[i]);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Parses the record between {@code from} and {@code to}, line terminator excluded. Returns null when it
+     * is valid, leaving its COPY row in {@link #row()}, or the reason it was rejected.
+     */
+    String parse(ByteBuffer buffer, int from, int to) {
+        String error = format == PunchLogFormat.CSV ? splitCsv(buffer, from, to) : splitFixed(from, to);
+        if (error != null) {
+            return error;
+        }
+        for (int field = 0; field < FIELDS.length; field++) {
+            trim(buffer, field);
+        }
+
+        rowLength = 0;
+        if (!appendId(buffer, DEVICE_ID)) {
+            return INVALID[DEVICE_ID];
+        }
+        row[rowLength++] = '\t';
+        if (!appendId(buffer, EVENT_ID)) {
+            return INVALID[EVENT_ID];
+        }
+        row[rowLength++] = '\t';
+        if (!appendEmployeeId(buffer)) {
+            return INVALID[EMPLOYEE_ID];
+        }
+        row[rowLength++] = '\t';
+        if (!appendDirection(buffer)) {
+            return INVALID[DIRECTION];
+        }
+        row[rowLength++] = '\t';
+        if (!appendTime(buffer)) {
+            return INVALID[PUNCHED_AT];
+        }
+        row[rowLength++] = '\n';
+        return null;
+    }
+
+    byte[] row() {
+        return row;
+    }
+
+    int rowLength() {
+        return rowLength;
+    }
+
+    private String splitCsv(ByteBuffer buffer, int from, int to) {
+        int field = 0;
+        fieldStart[0] = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == ',') {
+                if (field == FIELDS.length - 1) {
+                    return WRONG_FIELD_COUNT;
+                }
+                fieldEnd[field++] = i;
+                fieldStart[field] = i + 1;
+            }
+        }
+        if (field != FIELDS.length - 1) {
+            return WRONG_FIELD_COUNT;
+        }
+        fieldEnd[field] = to;
+        return null;
+    }
+
+    private String splitFixed(int from, int to) {
+        if (to - from < layoutLength) {
+            return TOO_SHORT;
+        }
+        for (int field = 0; field < FIELDS.length; field++) {
+            fieldStart[field] = from + layout[field][0];
+            fieldEnd[field] = from + layout[field][1];
+        }
+        return null;
+    }
+
+    /**
+     * Drops padding and a pair of double quotes around the field.
+     */
+    private void trim(ByteBuffer buffer, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        fieldStart[field] = start;
+        fieldEnd[field] = end;
+    }
+
+    // Printable ASCII only: no tab, newline or backslash to escape for COPY, and no encoding to check
+    private boolean appendId(ByteBuffer buffer, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (end == start || end - start > MAX_ID_BYTES) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < 0x20 || b > 0x7e || b == '\\') {
+                return false;
+            }
+            row[rowLength++] = b;
+        }
+        return true;
+    }
+
+    private boolean appendEmployeeId(ByteBuffer buffer) {
+        int start = fieldStart[EMPLOYEE_ID];
+        int end = fieldEnd[EMPLOYEE_ID];
+        if (end == start || end - start > MAX_EMPLOYEE_ID_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+            row[rowLength++] = b;
+        }
+        return true;
+    }
+
+    private boolean appendDirection(ByteBuffer buffer) {
+        int start = fieldStart[DIRECTION];
+        int length = fieldEnd[DIRECTION] - start;
+        int first = length > 0 ? buffer.get(start) | 0x20 : 0;
+        boolean in = first == 'i' && (length == 1 || length == 2 && (buffer.get(start + 1) | 0x20) == 'n');
+        boolean out = first == 'o' && (length == 1
+                || length == 3 && (buffer.get(start + 1) | 0x20) == 'u' && (buffer.get(start + 2) | 0x20) == 't');
+        if (in) {
+            row[rowLength++] = 'I';
+            row[rowLength++] = 'N';
+        } else if (out) {
+            row[rowLength++] = 'O';
+            row[rowLength++] = 'U';
+            row[rowLength++] = 'T';
+        }
+        return in || out;
+    }
+
+    /**
+     * Appends {@code punched_local} and {@code utc_offset_minutes}, the latter {@code \N} when the time has
+     * no offset.
+     */
+    private boolean appendTime(ByteBuffer buffer) {
+        int p = fieldStart[PUNCHED_AT];
+        int end = fieldEnd[PUNCHED_AT];
+        boolean compact = end - p >= 14 && isDigit(buffer, p + 4);
+        if (end - p < (compact ? 14 : 19)) {
+            return false;
+        }
+        int year = digits(buffer, p, 4);
+        int month;
+        int day;
+        int hour;
+        int minute;
+        int second;
+        if (compact) {
+            month = digits(buffer, p + 4, 2);
+            day = digits(buffer, p + 6, 2);
+            hour = digits(buffer, p + 8, 2);
+            minute = digits(buffer, p + 10, 2);
+            second = digits(buffer, p + 12, 2);
+            p += 14;
+        } else {
+            byte separator = buffer.get(p + 10);
+            if (buffer.get(p + 4) != '-' || buffer.get(p + 7) != '-' || (separator != 'T' && separator != ' ')
+                    || buffer.get(p + 13) != ':' || buffer.get(p + 16) != ':') {
+                return false;
+            }
+            month = digits(buffer, p + 5, 2);
+            day = digits(buffer, p + 8, 2);
+            hour = digits(buffer, p + 11, 2);
+            minute = digits(buffer, p + 14, 2);
+            second = digits(buffer, p + 17, 2);
+            p += 19;
+        }
+        if (year < 1970 || month < 1 || month > 12 || day < 1
+                || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return false;
+        }
+
+        int fractionStart = p;
+        int fractionEnd = p;
+        if (p < end && buffer.get(p) == '.') {
+            p++;
+            fractionStart = p;
+            while (p < end && isDigit(buffer, p)) {
+                p++;
+            }
+            if (p == fractionStart) {
+                return false;
+            }
+            // Stored with microsecond precision, like punches posted to the API
+            fractionEnd = Math.min(p, fractionStart + 6);
+        }
+
+        int offsetMinutes = Integer.MIN_VALUE;
+        if (p < end) {
+            byte sign = buffer.get(p);
+            if ((sign == 'Z' || sign == 'z') && p + 1 == end) {
+                offsetMinutes = 0;
+            } else if (sign == '+' || sign == '-') {
+                offsetMinutes = offset(buffer, p + 1, end);
+                if (offsetMinutes < 0) {
+                    return false;
+                }
+                offsetMinutes = sign == '-' ? -offsetMinutes : offsetMinutes;
+            } else {
+                return false;
+            }
+        }
+
+        appendNumber(year, 4);
+        row[rowLength++] = '-';
+        appendNumber(month, 2);
+        row[rowLength++] = '-';
+        appendNumber(day, 2);
+        row[rowLength++] = ' ';
+        appendNumber(hour, 2);
+        row[rowLength++] = ':';
+        appendNumber(minute, 2);
+        row[rowLength++] = ':';
+        appendNumber(second, 2);
+        if (fractionEnd > fractionStart) {
+            row[rowLength++] = '.';
+            for (int i = fractionStart; i < fractionEnd; i++) {
+                row[rowLength++] = buffer.get(i);
+            }
+        }
+        row[rowLength++] = '\t';
+        if (offsetMinutes == Integer.MIN_VALUE) {
+            row[rowLength++] = '\\';
+            row[rowLength++] = 'N';
+        } else {
+            if (offsetMinutes < 0) {
+                row[rowLength++] = '-';
+            }
+            appendNumber(Math.abs(offsetMinutes), 1);
+        }
+        return true;
+    }
+
+    /**
+     * Minutes of an offset written {@code HH}, {@code HHMM} or {@code HH:MM}, or -1.
+     */
+    private static int offset(ByteBuffer buffer, int p, int end) {
+        int length = end - p;
+        int hours = length >= 2 ? digits(buffer, p, 2) : -1;
+        int minutes = switch (length) {
+            case 2 -> 0;
+            case 4 -> digits(buffer, p + 2, 2);
+            case 5 -> buffer.get(p + 2) == ':' ? digits(buffer, p + 3, 2) : -1;
+            default -> -1;
+        };
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return hours * 60 + minutes;
+    }
+
+    private void appendNumber(int value, int width) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            row[rowLength++] = '0';
+        }
+        for (int i = rowLength + digits - 1; i >= rowLength; i--) {
+            row[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        rowLength += digits;
+    }
+
+    /**
+     * The value of {@code count} decimal digits, or -1 when one of them is not a digit.
+     */
+    private static int digits(ByteBuffer buffer, int p, int count) {
+        int value = 0;
+        for (int i = p; i < p + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(ByteBuffer buffer, int p) {
+        byte b = buffer.get(p);
+        return b >= '0' && b <= '9';
+    }
+
+    private static int indexOf(String field) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
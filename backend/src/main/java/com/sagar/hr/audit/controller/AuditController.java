@@ -0,0 +1,44 @@
+package com.sagar.hr.audit.controller;
+
+import com.sagar.hr.audit.dto.response.AuditEntryResponse;
+import com.sagar.hr.audit.service.AuditService;
+import com.sagar.hr.security.dto.response.MessageResponse;
+import com.sagar.hr.util.pojo.response.CursorPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    @GetMapping("/{entityType}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getTypeHistory(@PathVariable String entityType,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return history(entityType, null, after, limit);
+    }
+
+    @GetMapping("/{entityType}/{entityId}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getEntityHistory(@PathVariable String entityType, @PathVariable Long entityId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return history(entityType, entityId, after, limit);
+    }
+
+    private ResponseEntity<?> history(String entityType, Long entityId, String after, Integer limit) {
+        try {
+            CursorPage<AuditEntryResponse> page = auditService.getHistory(entityType, entityId, after, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+}
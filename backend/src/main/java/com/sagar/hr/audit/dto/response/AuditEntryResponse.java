@@ -0,0 +1,22 @@
+package com.sagar.hr.audit.dto.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEntryResponse {
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private String actor;
+    private Instant occurredAt;
+    private JsonNode changes;
+}
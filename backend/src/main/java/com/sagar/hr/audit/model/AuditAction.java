@@ -0,0 +1,11 @@
+package com.sagar.hr.audit.model;
+
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    DELETE,
+    // The complete role set of one user was replaced
+    SET_ROLES,
+    // Roles were added to or removed from a user by a bulk update
+    CHANGE_ROLES
+}
@@ -0,0 +1,10 @@
+package com.sagar.hr.audit.model;
+
+import java.time.Instant;
+
+/**
+ * One row of {@code audit_log}. {@code changes} is a JSON document describing the new state or the delta.
+ */
+public record AuditEntry(Long id, AuditedEntity entityType, long entityId, AuditAction action, String actor,
+        Instant occurredAt, String changes) {
+}
@@ -0,0 +1,34 @@
+package com.sagar.hr.audit.model;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Entity types recorded in {@code audit_log}; {@code path} is the segment used by the audit API.
+ */
+public enum AuditedEntity {
+    USER("users"),
+    ROLE("roles"),
+    PERMISSION("permissions"),
+    ENDPOINT_ROLE("endpoint-roles");
+
+    private final String path;
+
+    AuditedEntity(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public static Optional<AuditedEntity> fromPath(String path) {
+        String normalised = path.toLowerCase(Locale.ROOT);
+        for (AuditedEntity entity : values()) {
+            if (entity.path.equals(normalised)) {
+                return Optional.of(entity);
+            }
+        }
+        return Optional.empty();
+    }
+}
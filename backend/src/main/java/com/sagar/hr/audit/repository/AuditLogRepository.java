@@ -0,0 +1,70 @@
+package com.sagar.hr.audit.repository;
+
+import com.sagar.hr.audit.model.AuditAction;
+import com.sagar.hr.audit.model.AuditEntry;
+import com.sagar.hr.audit.model.AuditedEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class AuditLogRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_log (entity_type, entity_id, action, actor, occurred_at, changes)
+            VALUES (?, ?, ?, ?, ?, ?::jsonb)
+            """;
+    private static final String SELECT_COLUMNS =
+            "SELECT id, entity_type, entity_id, action, actor, occurred_at, changes::text AS changes FROM audit_log ";
+
+    private static final RowMapper<AuditEntry> ROW_MAPPER = (rs, rowNum) -> new AuditEntry(
+            rs.getLong("id"),
+            AuditedEntity.valueOf(rs.getString("entity_type")),
+            rs.getLong("entity_id"),
+            AuditAction.valueOf(rs.getString("action")),
+            rs.getString("actor"),
+            rs.getTimestamp("occurred_at").toInstant(),
+            rs.getString("changes"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertBatch(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (statement, entry) -> {
+            statement.setString(1, entry.entityType().name());
+            statement.setLong(2, entry.entityId());
+            statement.setString(3, entry.action().name());
+            statement.setString(4, entry.actor());
+            statement.setTimestamp(5, Timestamp.from(entry.occurredAt()));
+            statement.setString(6, entry.changes());
+        });
+    }
+
+    /**
+     * Newest-first history of one entity, or of every entity of the type when {@code entityId} is
+     * {@code null}, with IDs below {@code beforeId} when given.
+     */
+    public List<AuditEntry> findPage(AuditedEntity entityType, Long entityId, Long beforeId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append("WHERE entity_type = ?");
+        List<Object> args = new ArrayList<>(4);
+        args.add(entityType.name());
+        if (entityId != null) {
+            sql.append(" AND entity_id = ?");
+            args.add(entityId);
+        }
+        if (beforeId != null) {
+            sql.append(" AND id < ?");
+            args.add(beforeId);
+        }
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+}
@@ -0,0 +1,67 @@
+package com.sagar.hr.audit.service;
+
+import com.sagar.hr.audit.model.AuditAction;
+import com.sagar.hr.audit.model.AuditedEntity;
+import com.sagar.hr.security.model.EndpointRole;
+import com.sagar.hr.security.model.Permission;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPA callbacks for the audited entities. Snapshots hold scalar columns only: reading a lazy association
+ * here would load it in the middle of a flush. Role assignments are recorded explicitly by the services
+ * that change them, since collection changes raise no entity callback.
+ */
+@Component
+public class AuditEntityListener {
+
+    private final AuditTrail auditTrail;
+
+    public AuditEntityListener(AuditTrail auditTrail) {
+        this.auditTrail = auditTrail;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        record(entity, AuditAction.CREATE);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        record(entity, AuditAction.UPDATE);
+    }
+
+    @PostRemove
+    public void onDelete(Object entity) {
+        record(entity, AuditAction.DELETE);
+    }
+
+    private void record(Object entity, AuditAction action) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        if (entity instanceof User user) {
+            // Never the password hash
+            snapshot.put("username", user.getUsername());
+            snapshot.put("email", user.getEmail());
+            auditTrail.record(AuditedEntity.USER, user.getId(), action, snapshot);
+        } else if (entity instanceof Role role) {
+            snapshot.put("name", role.getName());
+            auditTrail.record(AuditedEntity.ROLE, role.getId(), action, snapshot);
+        } else if (entity instanceof Permission permission) {
+            snapshot.put("name", permission.getName());
+            snapshot.put("code", permission.getCode());
+            auditTrail.record(AuditedEntity.PERMISSION, permission.getId(), action, snapshot);
+        } else if (entity instanceof EndpointRole endpointRole) {
+            snapshot.put("urlPattern", endpointRole.getUrlPattern());
+            snapshot.put("httpMethod", endpointRole.getHttpMethod());
+            snapshot.put("roleId", endpointRole.getRole() == null ? null : endpointRole.getRole().getId());
+            auditTrail.record(AuditedEntity.ENDPOINT_ROLE, endpointRole.getId(), action, snapshot);
+        }
+    }
+}
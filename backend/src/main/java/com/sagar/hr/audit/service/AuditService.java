@@ -0,0 +1,75 @@
+package com.sagar.hr.audit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sagar.hr.audit.dto.response.AuditEntryResponse;
+import com.sagar.hr.audit.model.AuditEntry;
+import com.sagar.hr.audit.model.AuditedEntity;
+import com.sagar.hr.audit.repository.AuditLogRepository;
+import com.sagar.hr.util.pojo.response.CursorPage;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class AuditService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public AuditService(AuditLogRepository auditLogRepository, ObjectMapper objectMapper) {
+        this.auditLogRepository = auditLogRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Newest-first history of the entity type named by {@code path}, or of a single entity when
+     * {@code entityId} is given. The cursor is the ID of the last entry of the previous page. Entries
+     * reach the log shortly after their transaction commits, so the newest changes may not be listed yet.
+     */
+    public CursorPage<AuditEntryResponse> getHistory(String path, Long entityId, String after, Integer limit) {
+        AuditedEntity entityType = AuditedEntity.fromPath(path)
+                .orElseThrow(() -> new IllegalArgumentException("Error: Unknown audited entity type " + path + "!"));
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Error: Limit must be between 1 and " + MAX_PAGE_SIZE + "!");
+        }
+        Long beforeId = parseCursor(after);
+
+        List<AuditEntry> entries = auditLogRepository.findPage(entityType, entityId, beforeId, pageSize + 1);
+        boolean hasMore = entries.size() > pageSize;
+        List<AuditEntryResponse> items = entries.stream().limit(pageSize).map(this::convertToResponse).toList();
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor, pageSize);
+    }
+
+    private static Long parseCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Error: Invalid cursor!");
+        }
+    }
+
+    private AuditEntryResponse convertToResponse(AuditEntry entry) {
+        try {
+            return AuditEntryResponse.builder()
+                    .id(entry.id())
+                    .entityType(entry.entityType().getPath())
+                    .entityId(entry.entityId())
+                    .action(entry.action().name())
+                    .actor(entry.actor())
+                    .occurredAt(entry.occurredAt())
+                    .changes(entry.changes() == null ? null : objectMapper.readTree(entry.changes()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Audit entry " + entry.id() + " has malformed changes", e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sagar.hr.audit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sagar.hr.audit.model.AuditAction;
+import com.sagar.hr.audit.model.AuditEntry;
+import com.sagar.hr.audit.model.AuditedEntity;
+import com.sagar.hr.audit.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records who changed what without adding inserts to the changing transaction. Entries are captured with
+ * the acting principal at the time of the change, handed over once the transaction commits (rolled back
+ * changes are never recorded), and written by a single background thread in JDBC batches.
+ * <p>
+ * If the queue is full the entry is written synchronously by the caller instead, so a burst slows writers
+ * down rather than losing history.
+ */
+@Component
+public class AuditTrail {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrail.class);
+    private static final String ANONYMOUS_ACTOR = "anonymous";
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Counter synchronousWrites;
+    private final Counter failedEntries;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditTrail(AuditLogRepository auditLogRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.auditQueueCapacity:10000}") int queueCapacity,
+            @Value("${app.auditBatchSize:500}") int batchSize,
+            @Value("${app.auditFlushIntervalMs:1000}") long flushIntervalMs) {
+        this.auditLogRepository = auditLogRepository;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        this.synchronousWrites = Counter.builder("audit.writes.synchronous")
+                .description("Audit entries written by the caller because the queue was full")
+                .register(meterRegistry);
+        this.failedEntries = Counter.builder("audit.writes.failed")
+                .description("Audit entries that could not be written")
+                .register(meterRegistry);
+    }
+
+    public void record(AuditedEntity entityType, Long entityId, AuditAction action, Map<String, ?> changes) {
+        if (entityId == null) {
+            return;
+        }
+        AuditEntry entry = new AuditEntry(null, entityType, entityId, action, currentActor(), Instant.now(),
+                toJson(changes));
+
+        // Also works for entity callbacks fired by the flush inside commit: after-commit synchronizations
+        // are collected only once the commit itself has completed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever the writer did not get to
+        List<AuditEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        write(remaining);
+    }
+
+    private void enqueue(AuditEntry entry) {
+        if (!queue.offer(entry)) {
+            synchronousWrites.increment();
+            write(List.of(entry));
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            auditLogRepository.insertBatch(entries);
+        } catch (RuntimeException e) {
+            failedEntries.increment(entries.size());
+            logger.error("Failed to write {} audit entries", entries.size(), e);
+        }
+    }
+
+    private String toJson(Map<String, ?> changes) {
+        if (changes == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Audit changes are not serialisable", e);
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return ANONYMOUS_ACTOR;
+        }
+        return authentication.getName();
+    }
+}
@@ -2,9 +2,13 @@ package com.sagar.hr.auth.controller;
 
 import com.sagar.hr.security.dto.request.LoginRequest;
 import com.sagar.hr.security.dto.request.SignupRequest;
+import com.sagar.hr.security.dto.request.TokenRefreshRequest;
+import com.sagar.hr.security.dto.response.AvailabilityResponse;
 import com.sagar.hr.security.dto.response.JwtResponse;
 import com.sagar.hr.security.dto.response.MessageResponse;
 import com.sagar.hr.auth.service.AuthService;
+import com.sagar.hr.security.jwt.AuthTokenFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -27,4 +31,21 @@ public class AuthController {
     public ResponseEntity<MessageResponse> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         return ResponseEntity.ok(authService.registerUser(signUpRequest));
     }
+
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody TokenRefreshRequest request) {
+        return ResponseEntity.ok(authService.refreshToken(request));
+    }
+
+    @PostMapping("/signout")
+    public ResponseEntity<MessageResponse> signout(HttpServletRequest servletRequest,
+            @RequestBody(required = false) TokenRefreshRequest request) {
+        return ResponseEntity.ok(authService.signout(AuthTokenFilter.parseJwt(servletRequest), request));
+    }
 }
@@ -3,16 +3,24 @@ package com.sagar.hr.auth.service;
 import com.sagar.hr.security.repository.RoleRepository;
 import com.sagar.hr.security.dto.request.LoginRequest;
 import com.sagar.hr.security.dto.request.SignupRequest;
+import com.sagar.hr.security.dto.request.TokenRefreshRequest;
+import com.sagar.hr.security.dto.response.AvailabilityResponse;
 import com.sagar.hr.security.dto.response.JwtResponse;
 import com.sagar.hr.security.dto.response.MessageResponse;
 import com.sagar.hr.security.jwt.JwtUtils;
+import com.sagar.hr.security.jwt.TokenRevocationList;
 import com.sagar.hr.security.model.Role;
 import com.sagar.hr.security.model.User;
 import com.sagar.hr.security.repository.UserRepository;
+import com.sagar.hr.security.services.UserAvailabilityIndex;
 import com.sagar.hr.security.services.UserDetailsImpl;
+import com.sagar.hr.security.services.UserDetailsServiceImpl;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogVersions;
 import com.sagar.hr.util.exception.NotAbleTOAssignException;
 import com.sagar.hr.util.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -34,6 +42,11 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final UserAvailabilityIndex userAvailabilityIndex;
+    private final CatalogVersions catalogVersions;
 
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -48,18 +61,67 @@ public class AuthService {
                 .toList();
 
         return new JwtResponse(jwt,
+                refreshTokenService.issue(userDetails.getId()),
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getEmail(),
                 roles);
     }
 
+    public JwtResponse refreshToken(TokenRefreshRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(rotation.username());
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        return new JwtResponse(jwtUtils.generateJwtToken(userDetails),
+                rotation.refreshToken(),
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail(),
+                roles);
+    }
+
+    public MessageResponse signout(String accessToken, TokenRefreshRequest request) {
+        if (accessToken != null) {
+            jwtUtils.verifyJwtToken(accessToken).ifPresent(token ->
+                    tokenRevocationList.revoke(token.getId(), token.getExpiration().toInstant()));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        SecurityContextHolder.clearContext();
+        return new MessageResponse("Signed out successfully!");
+    }
+
+    /**
+     * Answers from the in-memory filters when they rule a value out and asks the database only on a
+     * possible hit.
+     */
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        Boolean usernameAvailable = null;
+        if (username != null && !username.isBlank()) {
+            usernameAvailable = !userAvailabilityIndex.mightHaveUsername(username)
+                    || !userRepository.existsByUsername(username);
+        }
+        Boolean emailAvailable = null;
+        if (email != null && !email.isBlank()) {
+            emailAvailable = !userAvailabilityIndex.mightHaveEmail(email) || !userRepository.existsByEmail(email);
+        }
+        return new AvailabilityResponse(usernameAvailable, emailAvailable);
+    }
+
     public MessageResponse registerUser(SignupRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
+        // The filters settle most sign-ups without a query; the unique constraints catch anything they miss
+        if (userAvailabilityIndex.mightHaveUsername(signUpRequest.getUsername())
+                && userRepository.existsByUsername(signUpRequest.getUsername())) {
             return new MessageResponse("Error: Username is already taken!");
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (userAvailabilityIndex.mightHaveEmail(signUpRequest.getEmail())
+                && userRepository.existsByEmail(signUpRequest.getEmail())) {
             return new MessageResponse("Error: Email is already in use!");
         }
 
@@ -87,7 +149,15 @@ public class AuthService {
         }
 
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            return new MessageResponse(userRepository.existsByUsername(signUpRequest.getUsername())
+                    ? "Error: Username is already taken!"
+                    : "Error: Email is already in use!");
+        }
+        userAvailabilityIndex.add(user.getUsername(), user.getEmail());
+        catalogVersions.bump(CatalogCollection.USERS);
 
         return new MessageResponse("User registered successfully!");
     }
@@ -0,0 +1,112 @@
+package com.sagar.hr.auth.service;
+
+import com.sagar.hr.security.model.RefreshToken;
+import com.sagar.hr.security.model.User;
+import com.sagar.hr.security.repository.RefreshTokenRepository;
+import com.sagar.hr.security.repository.UserRepository;
+import com.sagar.hr.util.exception.InvalidTokenException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates opaque refresh tokens. Only a SHA-256 digest of each token is stored. Every refresh
+ * revokes the presented token and issues a new one; presenting an already-rotated token is treated as
+ * theft and revokes every refresh token of that user.
+ */
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwtRefreshExpirationMs}")
+    private long refreshExpirationMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId)).rawToken();
+    }
+
+    /**
+     * Rotates the presented token. The transaction commits even when an {@link InvalidTokenException} is
+     * thrown, so a detected reuse still revokes the user's tokens; callers must not wrap this in their own
+     * transaction. The token row stays locked until then: a concurrent refresh with the same token waits and
+     * is treated as reuse.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(digest(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Error: Refresh token is not recognised!"));
+
+        if (current.isRevoked()) {
+            refreshTokenRepository.revokeAllByUserId(current.getUser().getId());
+            throw new InvalidTokenException("Error: Refresh token has already been used!");
+        }
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidTokenException("Error: Refresh token has expired!");
+        }
+
+        Issued next = issue(current.getUser());
+        current.setRevoked(true);
+        current.setReplacedById(next.token().getId());
+        return new Rotation(current.getUser().getUsername(), next.rawToken());
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(digest(rawToken))
+                .ifPresent(token -> token.setRevoked(true));
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocationRebuildMs:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private Issued issue(User user) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = refreshTokenRepository.save(
+                new RefreshToken(user, digest(rawToken), Instant.now().plusMillis(refreshExpirationMs)));
+        return new Issued(token, rawToken);
+    }
+
+    private static String digest(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Issued(RefreshToken token, String rawToken) {
+    }
+
+    public record Rotation(String username, String refreshToken) {
+    }
+}
@@ -2,25 +2,28 @@ package com.sagar.hr.permission.controller;
 
 import com.sagar.hr.security.model.Permission;
 import com.sagar.hr.permission.service.PermissionService;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/v1/permissions")
 public class PermissionController {
 
     private final PermissionService permissionService;
+    private final CatalogResponses catalogResponses;
 
-    public PermissionController(PermissionService permissionService) {
+    public PermissionController(PermissionService permissionService, CatalogResponses catalogResponses) {
         this.permissionService = permissionService;
+        this.catalogResponses = catalogResponses;
     }
 
     @GetMapping
-    public List<Permission> getAllPermissions() {
-        return permissionService.findAll();
+    public ResponseEntity<byte[]> getAllPermissions(HttpServletRequest request) {
+        return catalogResponses.get(CatalogCollection.PERMISSIONS, request, permissionService::findAll);
     }
 
     @PostMapping
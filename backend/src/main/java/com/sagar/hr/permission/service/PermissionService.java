@@ -2,6 +2,9 @@ package com.sagar.hr.permission.service;
 
 import com.sagar.hr.security.model.Permission;
 import com.sagar.hr.permission.repository.PermissionRepository;
+import com.sagar.hr.security.services.AuthorizationVersionService;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogVersions;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,29 +15,42 @@ import java.util.Optional;
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final CatalogVersions catalogVersions;
 
-    public PermissionService(PermissionRepository permissionRepository) {
+    public PermissionService(PermissionRepository permissionRepository,
+            AuthorizationVersionService authorizationVersionService, CatalogVersions catalogVersions) {
         this.permissionRepository = permissionRepository;
+        this.authorizationVersionService = authorizationVersionService;
+        this.catalogVersions = catalogVersions;
     }
 
+    @Transactional(readOnly = true)
     public List<Permission> findAll() {
         return permissionRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Permission> findByName(String name) {
         return permissionRepository.findByName(name);
     }
 
     @Transactional
     public Permission save(Permission permission) {
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        authorizationVersionService.bumpForPermission(savedPermission.getId());
+        catalogVersions.bump(CatalogCollection.PERMISSIONS);
+        return savedPermission;
     }
 
     @Transactional
     public void deleteById(Long id) {
+        authorizationVersionService.bumpForPermission(id);
         permissionRepository.deleteById(id);
+        catalogVersions.bump(CatalogCollection.PERMISSIONS);
     }
 
+    @Transactional(readOnly = true)
     public boolean existsById(Long id) {
         return permissionRepository.existsById(id);
     }
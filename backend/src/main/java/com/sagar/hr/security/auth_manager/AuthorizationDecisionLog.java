@@ -0,0 +1,237 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sampled log of {@link DynamicAuthorizationManager} decisions for security review.
+ * <p>
+ * Request threads write events into a preallocated ring buffer of parallel arrays using a bounded
+ * multi-producer queue: a slot is claimed with one CAS on the tail and published by a release write of
+ * its sequence number, so recording never locks, never blocks and never allocates. When the buffer is
+ * full the event is dropped and counted. A single background thread drains the buffer in batches to the
+ * {@code authz.decisions} logger, which {@code logback-spring.xml} routes to a rolling file.
+ * <p>
+ * Grants and denies are sampled at separate rates; a skipped event costs one random draw.
+ */
+@Component
+public class AuthorizationDecisionLog {
+
+    public static final String LOGGER_NAME = "authz.decisions";
+    public static final long NO_PRINCIPAL = -1;
+    public static final long NO_RULE = -1;
+
+    private static final Logger decisions = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationDecisionLog.class);
+
+    private final double grantSampleRate;
+    private final double denySampleRate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter dropped;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final long[] principalIds;
+    private final String[] methods;
+    private final String[] paths;
+    private final long[] ruleIds;
+    private final boolean[] granted;
+    private final Reason[] reasons;
+    private final long[] latencies;
+
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the drainer thread
+    private long head;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public AuthorizationDecisionLog(MeterRegistry meterRegistry,
+            @Value("${app.decisionLogCapacity:8192}") int capacity,
+            @Value("${app.decisionLogGrantSampleRate:0.01}") double grantSampleRate,
+            @Value("${app.decisionLogDenySampleRate:1.0}") double denySampleRate,
+            @Value("${app.decisionLogBatchSize:512}") int batchSize,
+            @Value("${app.decisionLogFlushIntervalMs:200}") long flushIntervalMs) {
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.grantSampleRate = grantSampleRate;
+        this.denySampleRate = denySampleRate;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[this.capacity];
+        this.principalIds = new long[this.capacity];
+        this.methods = new String[this.capacity];
+        this.paths = new String[this.capacity];
+        this.ruleIds = new long[this.capacity];
+        this.granted = new boolean[this.capacity];
+        this.reasons = new Reason[this.capacity];
+        this.latencies = new long[this.capacity];
+
+        Gauge.builder("authz.decision.log.depth", this, log -> log.tail.get() - log.head)
+                .description("Authorization decisions waiting to be written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("authz.decision.log.dropped")
+                .description("Sampled authorization decisions dropped because the ring buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a decision with this outcome should be recorded. Callers check this first so that skipped
+     * events do no further work.
+     */
+    public boolean shouldSample(boolean isGranted) {
+        double rate = isGranted ? grantSampleRate : denySampleRate;
+        if (rate >= 1.0) {
+            return true;
+        }
+        return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * Records one decision. {@code path} should be the matched rule's pattern where there is one, so the
+     * log groups by template rather than by concrete URI.
+     */
+    public void record(long principalId, String method, String path, long ruleId, boolean isGranted, Reason reason,
+            long latencyNanos) {
+        long sequence;
+        int index;
+        while (true) {
+            sequence = tail.get();
+            index = (int) (sequence & mask);
+            long available = sequences.getAcquire(index) - sequence;
+            if (available == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                // The drainer has not freed this slot yet: the buffer is full
+                dropped.increment();
+                return;
+            }
+            // Otherwise another producer claimed the slot first; retry with the new tail
+        }
+
+        timestamps[index] = System.currentTimeMillis();
+        principalIds[index] = principalId;
+        methods[index] = method;
+        paths[index] = path;
+        ruleIds[index] = ruleId;
+        granted[index] = isGranted;
+        reasons[index] = reason;
+        latencies[index] = latencyNanos;
+        sequences.setRelease(index, sequence + 1);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        drainer = Thread.ofPlatform().name("authz-decision-log").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to write authorization decisions", e);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Writes up to {@code batchSize} published events in order and frees their slots.
+     */
+    private int drain() {
+        int written = 0;
+        while (written < batchSize) {
+            int index = (int) (head & mask);
+            if (sequences.getAcquire(index) != head + 1) {
+                break;
+            }
+            write(index);
+            methods[index] = null;
+            paths[index] = null;
+            reasons[index] = null;
+            sequences.setRelease(index, head + capacity);
+            head++;
+            written++;
+        }
+        return written;
+    }
+
+    private void write(int index) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(timestamps[index]))
+                .append("\",\"principalId\":");
+        if (principalIds[index] == NO_PRINCIPAL) {
+            line.append("null");
+        } else {
+            line.append(principalIds[index]);
+        }
+        line.append(",\"method\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(methods[index], line);
+        line.append("\",\"path\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(paths[index], line);
+        line.append("\",\"ruleId\":");
+        if (ruleIds[index] == NO_RULE) {
+            line.append("null");
+        } else {
+            line.append(ruleIds[index]);
+        }
+        line.append(",\"outcome\":\"").append(granted[index] ? "GRANTED" : "DENIED")
+                .append("\",\"reason\":\"").append(reasons[index])
+                .append("\",\"latencyMicros\":").append(TimeUnit.NANOSECONDS.toMicros(latencies[index]))
+                .append('}');
+        decisions.info(line.toString());
+    }
+
+    /**
+     * Why the manager reached its decision.
+     */
+    public enum Reason {
+        // No authenticated principal
+        UNAUTHENTICATED,
+        // Super admins bypass endpoint rules
+        SUPER_ADMIN,
+        // A matching rule's role is held; the rule is logged
+        RULE,
+        // Rules matched but none of their roles is held; the first matched rule is logged
+        RULES_NOT_SATISFIED,
+        // No rule covers the request
+        NO_MATCHING_RULE
+    }
+}
@@ -0,0 +1,58 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.security.auth_manager.AuthorizationDecisionLog.Reason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer for {@link DynamicAuthorizationManager} checks and grant/deny counters per endpoint rule. Each
+ * counter is registered on first use and then looked up by rule ID and slot, so recording does not build
+ * tags or allocate. Counters of deleted rules stay registered until restart.
+ */
+@Component
+public class AuthorizationMetrics {
+
+    private static final String NO_RULE = "none";
+    private static final int SLOTS = Reason.values().length * 2;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer checkTimer;
+    private final Counter[] withoutRule = new Counter[SLOTS];
+    private final Map<Long, Counter[]> byRule = new ConcurrentHashMap<>();
+
+    public AuthorizationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.checkTimer = Timer.builder("security.authz.check")
+                .description("Time DynamicAuthorizationManager spends deciding a request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void record(boolean granted, Reason reason, EndpointRuleIndex.Rule rule, long elapsedNanos) {
+        checkTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        Counter[] counters = rule == null
+                ? withoutRule
+                : byRule.computeIfAbsent(rule.id(), id -> new Counter[SLOTS]);
+        int slot = reason.ordinal() * 2 + (granted ? 1 : 0);
+        Counter counter = counters[slot];
+        if (counter == null) {
+            // Racing threads get the same meter back from the registry
+            counter = Counter.builder("security.authz.decisions")
+                    .description("Authorization decisions by outcome, reason and endpoint rule")
+                    .tag("outcome", granted ? "granted" : "denied")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .tag("rule", rule == null ? NO_RULE : String.valueOf(rule.id()))
+                    .register(meterRegistry);
+            counters[slot] = counter;
+        }
+        counter.increment();
+    }
+}
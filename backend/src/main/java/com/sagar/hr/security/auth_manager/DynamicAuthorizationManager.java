@@ -1,65 +1,59 @@
 package com.sagar.hr.security.auth_manager;
 
-import com.sagar.hr.security.model.EndpointRole;
-import com.sagar.hr.security.repository.EndpointRoleRepository;
+import com.sagar.hr.security.auth_manager.AuthorizationDecisionLog.Reason;
+import com.sagar.hr.security.services.UserDetailsImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 public class DynamicAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
 
-    private final EndpointRoleRepository endpointRoleRepository;
-    private final RoleHierarchy roleHierarchy;
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
 
-    public DynamicAuthorizationManager(EndpointRoleRepository endpointRoleRepository, RoleHierarchy roleHierarchy) {
-        this.endpointRoleRepository = endpointRoleRepository;
-        this.roleHierarchy = roleHierarchy;
-    }
+    private final EndpointRuleRegistry endpointRuleRegistry;
+    private final RbacCatalog rbacCatalog;
+    private final AuthorizationDecisionLog decisionLog;
+    private final AuthorizationMetrics metrics;
 
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    public DynamicAuthorizationManager(EndpointRuleRegistry endpointRuleRegistry, RbacCatalog rbacCatalog,
+            AuthorizationDecisionLog decisionLog, AuthorizationMetrics metrics) {
+        this.endpointRuleRegistry = endpointRuleRegistry;
+        this.rbacCatalog = rbacCatalog;
+        this.decisionLog = decisionLog;
+        this.metrics = metrics;
+    }
 
     @Override
     public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        long start = System.nanoTime();
         Authentication auth = authentication.get();
+        HttpServletRequest request = context.getRequest();
         if (auth == null || !auth.isAuthenticated()) {
-            return new AuthorizationDecision(false);
+            return decide(false, Reason.UNAUTHENTICATED, auth, request, null, start);
         }
 
         // Get reachable authorities based on hierarchy
-        Collection<? extends GrantedAuthority> authorities = roleHierarchy
-                .getReachableGrantedAuthorities(auth.getAuthorities());
-        Set<String> authorityNames = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toSet());
+        BitSet authorities = rbacCatalog.effectiveAuthorities(auth);
 
         // Super Admin bypass: grant all permissions
-        if (authorityNames.contains("ROLE_SUPER_ADMIN")) {
-            return new AuthorizationDecision(true);
+        if (authorities.get(rbacCatalog.superAdminId())) {
+            return decide(true, Reason.SUPER_ADMIN, auth, request, null, start);
         }
 
-        String requestUri = context.getRequest().getRequestURI();
-        String method = context.getRequest().getMethod();
-
-        List<EndpointRole> rules = endpointRoleRepository.findAll();
-
-        for (EndpointRole rule : rules) {
-            if (rule.getHttpMethod().equalsIgnoreCase(method)
-                    && antPathMatcher.match(rule.getUrlPattern(), requestUri)) {
-                String requiredRole = rule.getRole().getName();
+        String requestUri = request.getRequestURI();
+        String method = request.getMethod();
 
-                if (authorityNames.contains(requiredRole)) {
-                    return new AuthorizationDecision(true);
-                }
+        List<EndpointRuleIndex.Rule> matched = endpointRuleRegistry.current().match(method, requestUri);
+        for (EndpointRuleIndex.Rule rule : matched) {
+            if (authorities.get(rule.roleId())) {
+                return decide(true, Reason.RULE, auth, request, rule, start);
             }
         }
 
@@ -96,6 +90,27 @@ public class DynamicAuthorizationManager implements AuthorizationManager<Request
 
         boolean isAuthenticated = authentication.get().isAuthenticated()
                 && !"anonymousUser".equals(authentication.get().getName());
-        return new AuthorizationDecision(isAuthenticated);
+        if (matched.isEmpty()) {
+            return decide(isAuthenticated, Reason.NO_MATCHING_RULE, auth, request, null, start);
+        }
+        return decide(isAuthenticated, Reason.RULES_NOT_SATISFIED, auth, request, matched.get(0), start);
+    }
+
+    /**
+     * Returns the shared decision instance after recording metrics, and hands it to the decision log when
+     * sampled. Nothing here allocates when the event is skipped.
+     */
+    private AuthorizationDecision decide(boolean granted, Reason reason, Authentication auth,
+            HttpServletRequest request, EndpointRuleIndex.Rule rule, long start) {
+        metrics.record(granted, reason, rule, System.nanoTime() - start);
+        if (decisionLog.shouldSample(granted)) {
+            long principalId = auth != null && auth.getPrincipal() instanceof UserDetailsImpl principal
+                    && principal.getId() != null ? principal.getId() : AuthorizationDecisionLog.NO_PRINCIPAL;
+            decisionLog.record(principalId, request.getMethod(),
+                    rule != null ? rule.urlPattern() : request.getRequestURI(),
+                    rule != null ? rule.id() : AuthorizationDecisionLog.NO_RULE,
+                    granted, reason, System.nanoTime() - start);
+        }
+        return granted ? GRANTED : DENIED;
     }
 }
@@ -0,0 +1,188 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.security.model.EndpointRole;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, pre-compiled view of the {@link EndpointRole} table.
+ * <p>
+ * Rules are bucketed by HTTP method and their URL patterns are split into a segment trie, so a lookup
+ * walks the request path once instead of running {@link AntPathMatcher#match} against every rule.
+ * Matching follows the same Ant-style semantics: {@code *}, {@code ?} and {@code {var}} match within a
+ * single segment and {@code **} matches zero or more segments. As with {@link AntPathMatcher}, a pattern
+ * only matches paths that agree with it on a leading slash, and a trailing {@code *} not preceded by
+ * {@code **} also matches an empty last segment ({@code /api/*} matches {@code /api/}).
+ */
+public final class EndpointRuleIndex {
+
+    private static final String SEPARATOR = "/";
+    private static final String DOUBLE_WILDCARD = "**";
+    private static final AntPathMatcher SEGMENT_MATCHER = new AntPathMatcher();
+
+    private static final String SINGLE_WILDCARD = "*";
+
+    private static final EndpointRuleIndex EMPTY =
+            new EndpointRuleIndex(Collections.emptyMap(), Collections.emptyMap(), 0);
+
+    private final Map<String, Node> roots;
+    private final Map<String, Node> relativeRoots;
+    private final int size;
+
+    private EndpointRuleIndex(Map<String, Node> roots, Map<String, Node> relativeRoots, int size) {
+        this.roots = roots;
+        this.relativeRoots = relativeRoots;
+        this.size = size;
+    }
+
+    public static EndpointRuleIndex empty() {
+        return EMPTY;
+    }
+
+    public static EndpointRuleIndex compile(Collection<EndpointRole> endpointRoles, RbacCatalog rbacCatalog) {
+        Map<String, Node> roots = new HashMap<>();
+        Map<String, Node> relativeRoots = new HashMap<>();
+        int size = 0;
+        for (EndpointRole endpointRole : endpointRoles) {
+            String roleName = endpointRole.getRole().getName();
+            Rule rule = new Rule(endpointRole.getId(), endpointRole.getUrlPattern(),
+                    endpointRole.getHttpMethod().toUpperCase(Locale.ROOT), roleName, rbacCatalog.idOf(roleName));
+            Node node = (rule.urlPattern().startsWith(SEPARATOR) ? roots : relativeRoots)
+                    .computeIfAbsent(rule.httpMethod(), method -> new Node(false));
+            for (String segment : tokenize(rule.urlPattern())) {
+                node = node.child(segment);
+            }
+            if (rule.urlPattern().endsWith(SEPARATOR)) {
+                node.slashRules.add(rule);
+            } else {
+                node.rules.add(rule);
+            }
+            size++;
+        }
+        return new EndpointRuleIndex(roots, relativeRoots, size);
+    }
+
+    /**
+     * Returns every rule whose method and URL pattern match the given request. The result may contain
+     * the same rule more than once when a pattern can match a path in several ways.
+     */
+    public List<Rule> match(String httpMethod, String path) {
+        Map<String, Node> methodRoots = path.startsWith(SEPARATOR) ? roots : relativeRoots;
+        Node root = methodRoots.get(httpMethod);
+        if (root == null) {
+            root = methodRoots.get(httpMethod.toUpperCase(Locale.ROOT));
+            if (root == null) {
+                return Collections.emptyList();
+            }
+        }
+        List<Rule> matches = new ArrayList<>(2);
+        collect(root, tokenize(path), 0, path.endsWith(SEPARATOR), false, matches);
+        return matches;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void collect(Node node, String[] segments, int index, boolean trailingSlash,
+            boolean pastDoubleWildcard, List<Rule> matches) {
+        if (node.doubleWildcard != null) {
+            for (int next = index; next <= segments.length; next++) {
+                collect(node.doubleWildcard, segments, next, trailingSlash, true, matches);
+            }
+        }
+        if (index == segments.length) {
+            if (node.isDoubleWildcard) {
+                matches.addAll(node.rules);
+                matches.addAll(node.slashRules);
+            } else {
+                matches.addAll(trailingSlash ? node.slashRules : node.rules);
+                if (trailingSlash && !pastDoubleWildcard) {
+                    // AntPathMatcher lets a last "*" match the empty segment after a trailing slash
+                    Node wildcard = node.pattern(SINGLE_WILDCARD);
+                    if (wildcard != null) {
+                        matches.addAll(wildcard.rules);
+                        matches.addAll(wildcard.slashRules);
+                    }
+                }
+            }
+            return;
+        }
+
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            collect(literal, segments, index + 1, trailingSlash, pastDoubleWildcard, matches);
+        }
+        for (SegmentPattern pattern : node.patterns) {
+            if (SEGMENT_MATCHER.match(pattern.pattern(), segment)) {
+                collect(pattern.node(), segments, index + 1, trailingSlash, pastDoubleWildcard, matches);
+            }
+        }
+    }
+
+    private static String[] tokenize(String path) {
+        return StringUtils.tokenizeToStringArray(path, SEPARATOR, false, true);
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * A single compiled {@link EndpointRole} row; {@code roleId} is the role's {@link RbacCatalog} ID.
+     */
+    public record Rule(Long id, String urlPattern, String httpMethod, String roleName, int roleId) {
+    }
+
+    private record SegmentPattern(String pattern, Node node) {
+    }
+
+    private static final class Node {
+        private final boolean isDoubleWildcard;
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<SegmentPattern> patterns = new ArrayList<>();
+        private final List<Rule> rules = new ArrayList<>();
+        private final List<Rule> slashRules = new ArrayList<>();
+        private Node doubleWildcard;
+
+        private Node(boolean isDoubleWildcard) {
+            this.isDoubleWildcard = isDoubleWildcard;
+        }
+
+        private Node child(String segment) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                if (doubleWildcard == null) {
+                    doubleWildcard = new Node(true);
+                }
+                return doubleWildcard;
+            }
+            if (!isPattern(segment)) {
+                return literals.computeIfAbsent(segment, key -> new Node(false));
+            }
+            Node node = pattern(segment);
+            if (node == null) {
+                node = new Node(false);
+                patterns.add(new SegmentPattern(segment, node));
+            }
+            return node;
+        }
+
+        private Node pattern(String segment) {
+            for (SegmentPattern pattern : patterns) {
+                if (pattern.pattern().equals(segment)) {
+                    return pattern.node();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.security.repository.EndpointRoleRepository;
+import com.sagar.hr.util.datasource.ReadRouting;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link EndpointRuleIndex}. The index is rebuilt from the database on startup,
+ * on a fixed schedule and whenever {@link #reload()} is called, and swapped in atomically so
+ * authorization checks never block on or observe a half-built index.
+ */
+@Component
+public class EndpointRuleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointRuleRegistry.class);
+
+    private final EndpointRoleRepository endpointRoleRepository;
+    private final RbacCatalog rbacCatalog;
+    private final AtomicReference<EndpointRuleIndex> index = new AtomicReference<>(EndpointRuleIndex.empty());
+
+    public EndpointRuleRegistry(EndpointRoleRepository endpointRoleRepository, RbacCatalog rbacCatalog) {
+        this.endpointRoleRepository = endpointRoleRepository;
+        this.rbacCatalog = rbacCatalog;
+    }
+
+    public EndpointRuleIndex current() {
+        return index.get();
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.security.endpoint-rules.refresh-ms:60000}",
+            fixedDelayString = "${app.security.endpoint-rules.refresh-ms:60000}")
+    public void reload() {
+        EndpointRuleIndex compiled = EndpointRuleIndex.compile(
+                ReadRouting.onPrimary(endpointRoleRepository::findAll), rbacCatalog);
+        EndpointRuleIndex previous = index.getAndSet(compiled);
+        if (previous.size() != compiled.size()) {
+            logger.info("Loaded {} endpoint authorization rules", compiled.size());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sagar.hr.permission.repository.PermissionRepository;
+import com.sagar.hr.security.model.Permission;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.repository.RoleRepository;
+import com.sagar.hr.security.services.UserDetailsImpl;
+import com.sagar.hr.util.datasource.ReadRouting;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Interns every role and permission name to a small integer ID and precomputes the transitive closure
+ * of the role hierarchy stored in {@code role_hierarchy}. A principal's effective authorities become a
+ * {@link BitSet}, so authorization checks are bit tests instead of string-set lookups.
+ * <p>
+ * IDs are never reassigned for the lifetime of the process, so compiled rules stay valid across reloads;
+ * only the hierarchy closure is swapped. Only names loaded from the database or used by endpoint rules get
+ * an ID; a principal's other authorities cannot match a rule and are left out of its bit set.
+ * <p>
+ * Effective authorities are computed once per principal and hierarchy version and kept on the
+ * {@link UserDetailsImpl}. A principal rebuilt for the same user and authorization version, such as one
+ * parsed from a new token, finds them in a memo keyed by those numbers, so checks hash no authority names.
+ */
+@Component
+public class RbacCatalog implements RoleHierarchy {
+
+    public static final String SUPER_ADMIN = "ROLE_SUPER_ADMIN";
+
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int nextId;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, new BitSet[0]));
+    private final Cache<PrincipalKey, BitSet> effectiveByPrincipal;
+    private final int superAdminId;
+
+    public RbacCatalog(RoleRepository roleRepository, PermissionRepository permissionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.rbacEffectiveCacheMaxSize:10000}") long effectiveCacheMaxSize) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.effectiveByPrincipal = Caffeine.newBuilder()
+                .maximumSize(effectiveCacheMaxSize)
+                .build();
+        this.superAdminId = idOf(SUPER_ADMIN);
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.rbacRefreshMs:60000}", fixedDelayString = "${app.rbacRefreshMs:60000}")
+    public void reload() {
+        // Every request is authorized against this snapshot, so it is never built from a lagging replica
+        List<Role> roles = ReadRouting.onPrimary(
+                () -> readOnlyTransaction.execute(status -> roleRepository.findAllWithIncludedRoles()));
+        for (Permission permission : ReadRouting.onPrimary(permissionRepository::findAll)) {
+            idOf(permission.getName());
+        }
+
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        for (Role role : roles) {
+            List<Integer> included = children.computeIfAbsent(idOf(role.getName()), id -> new ArrayList<>());
+            for (Role child : role.getIncludedRoles()) {
+                included.add(idOf(child.getName()));
+            }
+        }
+
+        BitSet[] closure = new BitSet[nextId()];
+        for (Integer roleId : children.keySet()) {
+            closure[roleId] = reachableFrom(roleId, children);
+        }
+        Snapshot previous = snapshot.get();
+        snapshot.set(new Snapshot(previous.version() + 1, closure));
+    }
+
+    /**
+     * Returns the ID of a catalog or endpoint rule name, assigning one if needed. Principals' authorities
+     * are only looked up, so request input cannot grow the catalog.
+     */
+    public int idOf(String authority) {
+        return ids.computeIfAbsent(authority, this::register);
+    }
+
+    public int superAdminId() {
+        return superAdminId;
+    }
+
+    /**
+     * Returns the effective authorities of the authenticated principal. The returned set is shared and must
+     * not be modified.
+     */
+    public BitSet effectiveAuthorities(Authentication authentication) {
+        Snapshot current = snapshot.get();
+        if (!(authentication.getPrincipal() instanceof UserDetailsImpl principal)) {
+            return expand(current, authentication.getAuthorities());
+        }
+        EffectiveAuthorities cached = principal.getEffectiveAuthorities();
+        if (cached != null && cached.catalogVersion() == current.version()) {
+            return cached.authorities();
+        }
+        BitSet computed = effectiveByPrincipal.get(
+                new PrincipalKey(current.version(), principal.getId(), principal.getAuthzVersion()),
+                key -> expand(current, principal.getAuthorities()));
+        principal.setEffectiveAuthorities(new EffectiveAuthorities(current.version(), computed));
+        return computed;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getReachableGrantedAuthorities(
+            Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null || authorities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        BitSet reachable = expand(snapshot.get(), authorities);
+        String[] currentNames = names;
+        List<GrantedAuthority> result = new ArrayList<>(reachable.cardinality());
+        for (int id = reachable.nextSetBit(0); id >= 0; id = reachable.nextSetBit(id + 1)) {
+            result.add(new SimpleGrantedAuthority(currentNames[id]));
+        }
+        for (GrantedAuthority authority : authorities) {
+            if (!ids.containsKey(authority.getAuthority())) {
+                // Unknown to the catalog, but still reachable from itself
+                result.add(authority);
+            }
+        }
+        return result;
+    }
+
+    private BitSet expand(Snapshot current, Collection<? extends GrantedAuthority> authorities) {
+        BitSet effective = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            Integer id = ids.get(authority.getAuthority());
+            if (id == null) {
+                continue;
+            }
+            effective.set(id);
+            if (id < current.closure().length && current.closure()[id] != null) {
+                effective.or(current.closure()[id]);
+            }
+        }
+        return effective;
+    }
+
+    private static BitSet reachableFrom(int roleId, Map<Integer, List<Integer>> children) {
+        BitSet reachable = new BitSet();
+        Deque<Integer> pending = new ArrayDeque<>(children.getOrDefault(roleId, List.of()));
+        while (!pending.isEmpty()) {
+            int next = pending.pop();
+            if (!reachable.get(next)) {
+                reachable.set(next);
+                pending.addAll(children.getOrDefault(next, List.of()));
+            }
+        }
+        return reachable;
+    }
+
+    private synchronized Integer register(String authority) {
+        int id = nextId++;
+        String[] current = names;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = authority;
+        names = current;
+        return id;
+    }
+
+    private synchronized int nextId() {
+        return nextId;
+    }
+
+    private record Snapshot(long version, BitSet[] closure) {
+    }
+
+    private record PrincipalKey(long catalogVersion, long userId, long authzVersion) {
+    }
+
+    /**
+     * Effective authorities of a principal, tagged with the catalog version they were computed against.
+     */
+    public record EffectiveAuthorities(long catalogVersion, BitSet authorities) {
+    }
+}
@@ -1,11 +1,21 @@
 package com.sagar.hr.security.config;
 
+import com.sagar.hr.security.auth_manager.AuthorizationDecisionLog;
+import com.sagar.hr.security.auth_manager.AuthorizationMetrics;
 import com.sagar.hr.security.auth_manager.DynamicAuthorizationManager;
+import com.sagar.hr.security.auth_manager.EndpointRuleRegistry;
+import com.sagar.hr.security.auth_manager.RbacCatalog;
 import com.sagar.hr.security.jwt.AuthEntryPointJwt;
 import com.sagar.hr.security.jwt.AuthTokenFilter;
 import com.sagar.hr.security.jwt.JwtUtils;
-import com.sagar.hr.security.repository.EndpointRoleRepository;
+import com.sagar.hr.security.jwt.TokenMetrics;
+import com.sagar.hr.security.jwt.TokenRevocationList;
+import com.sagar.hr.security.password.OffloadingPasswordEncoder;
+import com.sagar.hr.security.password.PasswordHashingExecutor;
+import com.sagar.hr.security.services.AuthorizationVersionService;
 import com.sagar.hr.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,12 +26,12 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+
+import java.util.Map;
 
 @Configuration
 @EnableMethodSecurity
@@ -30,16 +40,30 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final AuthEntryPointJwt unauthorizedHandler;
     private final JwtUtils jwtUtils;
-
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService, AuthEntryPointJwt unauthorizedHandler, JwtUtils jwtUtils) {
+    private final AuthorizationVersionService authorizationVersionService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenMetrics tokenMetrics;
+    private final int bcryptStrength;
+
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService, AuthEntryPointJwt unauthorizedHandler, JwtUtils jwtUtils,
+            AuthorizationVersionService authorizationVersionService, PasswordHashingExecutor passwordHashingExecutor,
+            TokenRevocationList tokenRevocationList, TokenMetrics tokenMetrics,
+            @Value("${app.passwordBcryptStrength:10}") int bcryptStrength) {
         this.userDetailsService = userDetailsService;
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtUtils = jwtUtils;
+        this.authorizationVersionService = authorizationVersionService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.tokenRevocationList = tokenRevocationList;
+        this.tokenMetrics = tokenMetrics;
+        this.bcryptStrength = bcryptStrength;
     }
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
-        return new AuthTokenFilter(jwtUtils, userDetailsService);
+        return new AuthTokenFilter(jwtUtils, userDetailsService, authorizationVersionService, tokenRevocationList,
+                tokenMetrics);
     }
 
     @Bean
@@ -47,6 +71,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 
         authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
 
         return authProvider;
@@ -57,23 +82,24 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * New hashes use the configured BCrypt cost with a {@code {bcrypt}} prefix. Legacy unprefixed hashes
+     * still verify and are rehashed on the next successful login through the
+     * {@link org.springframework.security.core.userdetails.UserDetailsPasswordService}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    public RoleHierarchy roleHierarchy() {
-        RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
-        String hierarchy = "ROLE_SUPER_ADMIN > ROLE_ADMIN \n ROLE_ADMIN > ROLE_MODERATOR \n ROLE_MODERATOR > ROLE_USER";
-        roleHierarchy.setHierarchy(hierarchy);
-        return roleHierarchy;
+    public OffloadingPasswordEncoder passwordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadingPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     @Bean
     public DynamicAuthorizationManager dynamicAuthorizationManager(
-            EndpointRoleRepository endpointRoleRepository, RoleHierarchy roleHierarchy) {
-        return new DynamicAuthorizationManager(endpointRoleRepository, roleHierarchy);
+            EndpointRuleRegistry endpointRuleRegistry, RbacCatalog rbacCatalog, AuthorizationDecisionLog decisionLog,
+            AuthorizationMetrics authorizationMetrics) {
+        return new DynamicAuthorizationManager(endpointRuleRegistry, rbacCatalog, decisionLog, authorizationMetrics);
     }
 
     @Bean
@@ -84,11 +110,16 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses finish on an ASYNC dispatch of a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/api/v1/auth/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/api/v1/test/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/swagger-ui/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/swagger-ui.html")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/v3/api-docs/**")).permitAll()
+                        // Served on the separate management port only, which is not published
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/health")).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/actuator/prometheus")).permitAll()
                         .anyRequest().access(dynamicAuthorizationManager));
 
         http.authenticationProvider(authenticationProvider());
@@ -1,16 +1,34 @@
 package com.sagar.hr.security.controller;
 
+import com.sagar.hr.security.dto.request.BulkRoleUpdateRequest;
 import com.sagar.hr.security.dto.request.SignupRequest;
 import com.sagar.hr.security.dto.response.MessageResponse;
 import com.sagar.hr.security.dto.response.UserResponse;
+import com.sagar.hr.security.dto.response.UserImportReport;
+import com.sagar.hr.security.services.UserExportService;
+import com.sagar.hr.security.services.UserImportService;
 import com.sagar.hr.security.services.UserService;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogResponses;
+import com.sagar.hr.util.exception.ServiceBusyException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
 import java.util.Set;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -20,11 +38,78 @@ import java.util.Set;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final CatalogResponses catalogResponses;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<?> getUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            HttpServletRequest request) {
+        try {
+            return catalogResponses.get(CatalogCollection.USERS, request,
+                    () -> userService.getUsers(after, limit, sort, direction));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> searchUsers(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String match,
+            @RequestParam(required = false) List<String> roles,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            HttpServletRequest request) {
+        try {
+            return catalogResponses.get(CatalogCollection.USERS, request,
+                    () -> userService.searchUsers(q, match, roles, after, limit, sort, direction));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams every user as NDJSON ({@code format=ndjson}, the default) or CSV. The body is gzip-encoded
+     * when the client sends {@code Accept-Encoding: gzip}.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            if (csv) {
+                userExportService.writeCsv(target);
+            } else {
+                userExportService.writeNdjson(target);
+            }
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            target.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @PostMapping
@@ -33,11 +118,27 @@ public class UserController {
         try {
             UserResponse user = userService.createUser(signUpRequest);
             return ResponseEntity.ok(user);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Creates users from a {@code text/csv} or {@code application/x-ndjson} request body and reports the
+     * rows that were rejected.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<UserImportReport> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        UserImportReport report = contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")
+                ? userImportService.importCsv(body)
+                : userImportService.importNdjson(body);
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping("/{id}/roles")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
     public ResponseEntity<?> updateRoles(@PathVariable Long id, @RequestBody Set<String> roles) {
@@ -49,6 +150,16 @@ public class UserController {
         }
     }
 
+    @PostMapping("/roles/bulk")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+    public ResponseEntity<?> bulkUpdateRoles(@RequestBody BulkRoleUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(userService.bulkUpdateRoles(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
@@ -0,0 +1,26 @@
+package com.sagar.hr.security.dto.request;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Targets either the listed {@code userIds} or, when none are given, every user currently holding
+ * {@code withRole}.
+ */
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRoleUpdateRequest {
+    private List<Long> userIds;
+
+    private String withRole;
+
+    private Set<String> add;
+
+    private Set<String> remove;
+}
@@ -0,0 +1,16 @@
+package com.sagar.hr.security.dto.response;
+
+import lombok.*;
+
+/**
+ * {@code null} for a field that was not asked about.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
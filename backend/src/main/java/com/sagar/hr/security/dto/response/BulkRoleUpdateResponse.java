@@ -0,0 +1,14 @@
+package com.sagar.hr.security.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoleUpdateResponse {
+    private List<Long> affectedUserIds;
+}
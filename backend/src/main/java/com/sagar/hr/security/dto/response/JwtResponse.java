@@ -12,6 +12,7 @@ import java.util.List;
 @AllArgsConstructor
 public class JwtResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String username;
@@ -25,4 +26,9 @@ public class JwtResponse {
         this.email = email;
         this.roles = roles;
     }
+
+    public JwtResponse(String jwt, String refreshToken, Long id, String username, String email, List<String> roles) {
+        this(jwt, id, username, email, roles);
+        this.refreshToken = refreshToken;
+    }
 }
@@ -0,0 +1,34 @@
+package com.sagar.hr.security.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+    private int total;
+    private int created;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(long row, String username, String message) {
+        errors.add(new RowError(row, username, message));
+        failed++;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row; // 1-based data row, not counting a CSV header
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sagar.hr.security.event;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Published when the roles or permissions of the given users change, so anything holding a copy of
+ * their authorities can drop it once the change is committed.
+ */
+@Getter
+public class AuthorizationChangedEvent {
+
+    private final Set<Long> userIds;
+
+    public AuthorizationChangedEvent(Set<Long> userIds) {
+        this.userIds = userIds;
+    }
+}
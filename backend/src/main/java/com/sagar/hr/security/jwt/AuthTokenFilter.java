@@ -1,5 +1,6 @@
 package com.sagar.hr.security.jwt;
 
+import com.sagar.hr.security.services.AuthorizationVersionService;
 import com.sagar.hr.security.services.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -15,15 +16,24 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenMetrics tokenMetrics;
 
-    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService,
+            AuthorizationVersionService authorizationVersionService, TokenRevocationList tokenRevocationList,
+            TokenMetrics tokenMetrics) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.authorizationVersionService = authorizationVersionService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.tokenMetrics = tokenMetrics;
     }
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
@@ -31,12 +41,22 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long start = System.nanoTime();
+        String jwt = parseJwt(request);
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Optional<VerifiedJwt> verified = jwt != null ? jwtUtils.verifyJwtToken(jwt) : Optional.empty();
+            if (verified.isPresent() && tokenRevocationList.isRevoked(verified.get().getId())) {
+                logger.error("JWT token has been revoked");
+                tokenMetrics.recordFailure(TokenMetrics.Failure.REVOKED);
+                verified = Optional.empty();
+            }
+            if (verified.isPresent()) {
+                VerifiedJwt token = verified.get();
+                UserDetails userDetails = jwtUtils.getPrincipalFromJwtToken(token)
+                        .filter(principal -> authorizationVersionService.isCurrent(principal.getId(),
+                                principal.getAuthzVersion()))
+                        .map(UserDetails.class::cast)
+                        .orElseGet(() -> userDetailsService.loadUserByUsername(token.getSubject()));
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -48,11 +68,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
         }
+        if (jwt != null) {
+            // Anonymous requests are left out so they do not drag the distribution down
+            tokenMetrics.recordAuthentication(start);
+        }
 
         filterChain.doFilter(request, response);
     }
 
-    private String parseJwt(HttpServletRequest request) {
+    public static String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
@@ -1,62 +1,218 @@
 package com.sagar.hr.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sagar.hr.security.jwt.TokenMetrics.Failure;
 import com.sagar.hr.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_PERMISSIONS = "perms";
+    public static final String CLAIM_AUTHZ_VERSION = "av";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwtCacheMaxSize:10000}")
+    private long jwtCacheMaxSize;
+
+    private final TokenMetrics tokenMetrics;
+    private final MeterRegistry meterRegistry;
+
+    private Key key;
+    private JwtParser jwtParser;
+    private Cache<String, VerifiedJwt> verifiedTokens;
+
+    public JwtUtils(TokenMetrics tokenMetrics, MeterRegistry meterRegistry) {
+        this.tokenMetrics = tokenMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+    }
+
     public String generateJwtToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+    }
+
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        List<String> permissions = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> !userPrincipal.getRoles().contains(authority))
+                .distinct()
+                .toList();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, userPrincipal.getRoles())
+                .claim(CLAIM_PERMISSIONS, permissions)
+                .claim(CLAIM_AUTHZ_VERSION, userPrincipal.getAuthzVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    /**
+     * Verifies the signature and expiry of the token with a single parse and returns its claims.
+     * Tokens verified recently are served from a bounded cache keyed by the token's SHA-256 digest
+     * until their own expiry, so a client re-sending the same bearer token skips the HMAC and JSON work.
+     */
+    public Optional<VerifiedJwt> verifyJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            tokenMetrics.recordFailure(Failure.EMPTY);
+            return Optional.empty();
+        }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
+        String digest = digest(authToken);
+        VerifiedJwt cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return Optional.of(cached);
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            VerifiedJwt verified = new VerifiedJwt(jwtParser.parseClaimsJws(authToken).getBody());
+            verifiedTokens.put(digest, verified);
+            return Optional.of(verified);
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            tokenMetrics.recordFailure(Failure.MALFORMED);
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            tokenMetrics.recordFailure(Failure.EXPIRED);
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            tokenMetrics.recordFailure(Failure.UNSUPPORTED);
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            tokenMetrics.recordFailure(Failure.EMPTY);
+        } catch (JwtException e) {
+            logger.error("JWT signature is invalid: {}", e.getMessage());
+            tokenMetrics.recordFailure(Failure.INVALID_SIGNATURE);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Rebuilds the principal from the authorities embedded in the token, once per verified token. Returns
+     * empty for tokens issued before authorities were embedded; callers must still check the authorization
+     * version.
+     */
+    public Optional<UserDetailsImpl> getPrincipalFromJwtToken(VerifiedJwt token) {
+        UserDetailsImpl principal = token.getPrincipal();
+        if (principal != null) {
+            return Optional.of(principal);
+        }
+        Long userId = token.getClaim(CLAIM_USER_ID, Long.class);
+        Long authzVersion = token.getClaim(CLAIM_AUTHZ_VERSION, Long.class);
+        Object roles = token.getClaims().get(CLAIM_ROLES);
+        Object permissions = token.getClaims().get(CLAIM_PERMISSIONS);
+        if (userId == null || authzVersion == null
+                || !(roles instanceof Collection<?> roleClaims)
+                || !(permissions instanceof Collection<?> permissionClaims)) {
+            return Optional.empty();
         }
 
-        return false;
+        principal = UserDetailsImpl.build(
+                userId,
+                token.getSubject(),
+                token.getClaim(CLAIM_EMAIL, String.class),
+                roleClaims.stream().map(String::valueOf).toList(),
+                permissionClaims.stream().map(String::valueOf).toList(),
+                authzVersion);
+        token.setPrincipal(principal);
+        return Optional.of(principal);
+    }
+
+    public long getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return verifyJwtToken(token)
+                .map(VerifiedJwt::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken).isPresent();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<String, VerifiedJwt> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            if (value.getExpiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMs = value.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
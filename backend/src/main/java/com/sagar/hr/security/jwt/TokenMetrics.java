@@ -0,0 +1,52 @@
+package com.sagar.hr.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for bearer-token handling in {@link AuthTokenFilter} and {@link JwtUtils}. Every meter is
+ * registered up front, so recording is a field access and an add.
+ */
+@Component
+public class TokenMetrics {
+
+    private final Timer authenticationTimer;
+    private final Map<Failure, Counter> failures = new EnumMap<>(Failure.class);
+
+    public TokenMetrics(MeterRegistry meterRegistry) {
+        this.authenticationTimer = Timer.builder("security.token.authentication")
+                .description("Time AuthTokenFilter spends turning a bearer token into an authentication")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (Failure failure : Failure.values()) {
+            failures.put(failure, Counter.builder("security.token.failures")
+                    .description("Bearer tokens rejected, by reason")
+                    .tag("reason", failure.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordAuthentication(long startNanos) {
+        authenticationTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailure(Failure failure) {
+        failures.get(failure).increment();
+    }
+
+    public enum Failure {
+        EMPTY,
+        MALFORMED,
+        EXPIRED,
+        UNSUPPORTED,
+        INVALID_SIGNATURE,
+        REVOKED
+    }
+}
@@ -0,0 +1,121 @@
+package com.sagar.hr.security.jwt;
+
+import com.sagar.hr.security.model.RevokedToken;
+import com.sagar.hr.security.repository.RevokedTokenRepository;
+import com.sagar.hr.util.bloom.BloomFilter;
+import com.sagar.hr.util.datasource.ReadRouting;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory mirror of the {@code revoked_tokens} table. A Bloom filter answers the common "not revoked"
+ * case without I/O; only a possible hit consults the exact set of revoked token IDs. New rows are pulled
+ * in incrementally, and the filter is rebuilt periodically so expired revocations drop out of it.
+ * <p>
+ * Rows do not commit in ID or {@code revoked_at} order, and {@code revoked_at} comes from the revoking
+ * instance's clock. Each refresh therefore reads everything revoked since the previous one started, less
+ * {@code app.revocationRefreshOverlapMs}; rows read twice are simply added again.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transaction;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final long refreshOverlapMs;
+
+    private volatile State state;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.revocationBloomExpectedInsertions:100000}") long expectedInsertions,
+            @Value("${app.revocationBloomFalsePositiveProbability:0.001}") double falsePositiveProbability,
+            @Value("${app.revocationRefreshOverlapMs:60000}") long refreshOverlapMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshOverlapMs = refreshOverlapMs;
+        this.state = new State(BloomFilter.create(expectedInsertions, falsePositiveProbability));
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        State current = state;
+        return current.filter.mightContain(jti) && current.revoked.contains(jti);
+    }
+
+    /**
+     * Records the revocation and makes it visible to this instance immediately; other instances pick it
+     * up on their next {@link #refresh()}.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || isRevoked(jti)) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            if (!revokedTokenRepository.existsByJti(jti)) {
+                revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+            }
+        });
+        state.add(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocationRefreshMs:5000}")
+    public void refresh() {
+        State current = state;
+        Instant started = Instant.now();
+        Instant since = current.lastRefresh.minusMillis(refreshOverlapMs);
+        List<RevokedToken> added = ReadRouting.onPrimary(
+                () -> revokedTokenRepository.findByRevokedAtGreaterThanEqual(since));
+        for (RevokedToken revokedToken : added) {
+            current.add(revokedToken.getJti());
+        }
+        current.lastRefresh = started;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.revocationRebuildMs:3600000}",
+            fixedDelayString = "${app.revocationRebuildMs:3600000}")
+    public void rebuild() {
+        Instant now = Instant.now();
+        transaction.executeWithoutResult(status -> revokedTokenRepository.deleteExpired(now));
+
+        List<RevokedToken> active = ReadRouting.onPrimary(() -> revokedTokenRepository.findByExpiresAtAfter(now));
+        State rebuilt = new State(BloomFilter.create(Math.max(expectedInsertions, 2L * active.size()),
+                falsePositiveProbability));
+        for (RevokedToken revokedToken : active) {
+            rebuilt.add(revokedToken.getJti());
+        }
+        rebuilt.lastRefresh = now;
+        state = rebuilt;
+    }
+
+    private static final class State {
+        private final BloomFilter filter;
+        private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+        private volatile Instant lastRefresh = Instant.EPOCH;
+
+        private State(BloomFilter filter) {
+            this.filter = filter;
+        }
+
+        private void add(String jti) {
+            // Exact set first, so a concurrent reader that passes the filter always finds the entry
+            revoked.add(jti);
+            filter.put(jti);
+        }
+    }
+}
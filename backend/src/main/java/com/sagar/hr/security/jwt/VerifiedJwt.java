@@ -0,0 +1,40 @@
+package com.sagar.hr.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import com.sagar.hr.security.services.UserDetailsImpl;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by {@link JwtUtils}. The principal
+ * rebuilt from them is kept here too, so a cached token yields the same principal on every request.
+ */
+@Getter
+public class VerifiedJwt {
+
+    private final String id;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Claims claims;
+    @Setter
+    private volatile UserDetailsImpl principal;
+
+    public VerifiedJwt(Claims claims) {
+        this.id = claims.getId();
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+        this.claims = claims;
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sagar.hr.security.model;
 
+import com.sagar.hr.audit.service.AuditEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(AuditEntityListener.class)
 @Table(name = "endpoint_roles")
 @Getter
 @Setter
@@ -1,5 +1,6 @@
 package com.sagar.hr.security.model;
 
+import com.sagar.hr.audit.service.AuditEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,6 +11,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(AuditEntityListener.class)
 @Table(name = "roles")
 @Getter
 @Setter
@@ -28,6 +30,10 @@ public class Role {
     @JoinTable(name = "role_permissions", joinColumns = @JoinColumn(name = "role_id"), inverseJoinColumns = @JoinColumn(name = "permission_id"))
     private Set<Permission> permissions = new HashSet<>();
 
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "role_hierarchy", joinColumns = @JoinColumn(name = "parent_role_id"), inverseJoinColumns = @JoinColumn(name = "child_role_id"))
+    private Set<Role> includedRoles = new HashSet<>();
+
     public Role(String name) {
         this.name = name;
     }
@@ -0,0 +1,42 @@
+package com.sagar.hr.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+/**
+ * Runs the delegate's expensive {@code encode} and {@code matches} calls on the
+ * {@link PasswordHashingExecutor}. {@code upgradeEncoding} only inspects the stored hash and stays inline.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.encode(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes a batch in parallel on the executor's bulk pool; used by imports.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return executor.encodeAll(rawPasswords, delegate::encode);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.matches(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,163 @@
+package com.sagar.hr.security.password;
+
+import com.sagar.hr.util.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Dedicated, bounded pool for password hashing and verification. Hashing is CPU bound, so the pool is
+ * sized to the cores; when both the workers and the queue are busy, callers fail fast with a
+ * {@link ServiceBusyException} instead of tying up more request threads behind BCrypt.
+ * <p>
+ * Bulk hashing ({@link #encodeAll}) runs on a separate pool so an import never fills the sign-in queue.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService bulkExecutor;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer bulkEncodeTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejections;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+            @Value("${app.passwordHashThreads:0}") int threads,
+            @Value("${app.passwordHashQueueCapacity:64}") int queueCapacity,
+            @Value("${app.passwordHashRetryAfterSeconds:1}") long retryAfterSeconds,
+            @Value("${app.passwordHashBulkThreads:0}") int bulkThreads) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int poolSize = threads > 0 ? threads : cores;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger bulkThreadCount = new AtomicInteger();
+        this.bulkExecutor = Executors.newFixedThreadPool(bulkThreads > 0 ? bulkThreads : Math.max(1, cores - 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-bulk-" + bulkThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("security.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("security.password.hash")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hash")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bulkEncodeTimer = Timer.builder("security.password.hash")
+                .tag("operation", "bulk_encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("security.password.hash.queue.wait")
+                .description("Time a sign-in hashing task waits for a worker before BCrypt starts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejections = Counter.builder("security.password.hash.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public String encode(Callable<String> task) {
+        return run(encodeTimer, task);
+    }
+
+    public boolean matches(Callable<Boolean> task) {
+        return run(matchesTimer, task);
+    }
+
+    /**
+     * Hashes every password in parallel on the bulk pool and returns the hashes in input order. Blocks
+     * until all are done; never rejects.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords, Function<CharSequence, String> hasher) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (CharSequence rawPassword : rawPasswords) {
+            futures.add(bulkExecutor.submit(() -> bulkEncodeTimer.recordCallable(() -> hasher.apply(rawPassword))));
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            hashes.add(await(future));
+        }
+        return hashes;
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        Future<T> future;
+        long submitted = System.nanoTime();
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ServiceBusyException("Error: Too many concurrent sign-in requests, please retry shortly.",
+                    retryAfterSeconds);
+        }
+
+        return await(future);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+}
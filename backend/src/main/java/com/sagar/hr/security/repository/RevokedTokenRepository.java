@@ -0,0 +1,25 @@
+package com.sagar.hr.security.repository;
+
+import com.sagar.hr.security.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Instant since);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    boolean existsByJti(String jti);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
@@ -2,11 +2,19 @@ package com.sagar.hr.security.repository;
 
 import com.sagar.hr.security.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
+
+    List<Role> findByNameIn(Collection<String> names);
+
+    @Query("select distinct r from Role r left join fetch r.includedRoles")
+    List<Role> findAllWithIncludedRoles();
 }
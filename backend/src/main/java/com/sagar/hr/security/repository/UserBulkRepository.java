@@ -0,0 +1,211 @@
+package com.sagar.hr.security.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Set-based writes against {@code users} and {@code user_roles}. Every method is a single statement that
+ * takes its rows as PostgreSQL arrays and expands them with {@code unnest}, so a batch of any size costs
+ * one round trip and one plan. Callers provide the transaction.
+ */
+@Repository
+public class UserBulkRepository {
+
+    private static final String EXISTING_USERNAMES_SQL =
+            "SELECT username FROM users WHERE username = ANY(?)";
+    private static final String EXISTING_EMAILS_SQL =
+            "SELECT email FROM users WHERE email = ANY(?)";
+    // ON CONFLICT covers both unique constraints, so a row inserted concurrently since the duplicate check
+    // is skipped rather than failing the whole batch; it is simply missing from the returned IDs
+    private static final String INSERT_USERS_SQL = """
+            INSERT INTO users (username, email, password)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[])
+            ON CONFLICT DO NOTHING
+            RETURNING id, username
+            """;
+    private static final String INSERT_USER_ROLES_SQL = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[])
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String ROLE_NAMES_BY_USER_SQL = """
+            SELECT u.id, array_remove(array_agg(r.name ORDER BY r.name), NULL) AS roles
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.id = ANY(?)
+            GROUP BY u.id
+            """;
+    private static final String DELETE_USER_ROLES_SQL = """
+            DELETE FROM user_roles
+            WHERE user_id = ANY(?) AND role_id = ANY(?)
+            RETURNING user_id
+            """;
+    private static final String GRANT_ROLES_SQL = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT u.id, r.role_id
+            FROM (SELECT id FROM users WHERE id = ANY(?)) u
+            CROSS JOIN unnest(?::bigint[]) AS r(role_id)
+            ON CONFLICT DO NOTHING
+            RETURNING user_id
+            """;
+    private static final String GRANT_ROLE_WHERE_NONE_SQL = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT u.id, ?
+            FROM users u
+            WHERE u.id = ANY(?)
+              AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        return findExisting(EXISTING_USERNAMES_SQL, usernames);
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return findExisting(EXISTING_EMAILS_SQL, emails);
+    }
+
+    /**
+     * Inserts the users given as parallel lists and returns the generated ID of each inserted username.
+     */
+    public Map<String, Long> insertUsers(List<String> usernames, List<String> emails, List<String> passwordHashes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (usernames.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_USERS_SQL);
+            statement.setArray(1, varcharArray(connection, usernames));
+            statement.setArray(2, varcharArray(connection, emails));
+            statement.setArray(3, varcharArray(connection, passwordHashes));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            ids.put(rs.getString("username"), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    /**
+     * Inserts {@code (userIds[i], roleIds[i])} pairs, ignoring pairs that already exist.
+     */
+    public int insertUserRoles(List<Long> userIds, List<Long> roleIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_USER_ROLES_SQL);
+            statement.setArray(1, bigintArray(connection, userIds));
+            statement.setArray(2, bigintArray(connection, roleIds));
+            return statement;
+        });
+    }
+
+    /**
+     * Returns the assigned role names of each existing user; users with no roles map to an empty set.
+     */
+    public Map<Long, Set<String>> findRoleNamesByUserIds(Collection<Long> userIds) {
+        Map<Long, Set<String>> roleNames = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return roleNames;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ROLE_NAMES_BY_USER_SQL);
+            statement.setArray(1, bigintArray(connection, userIds));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Array roles = rs.getArray("roles");
+            roleNames.put(rs.getLong("id"), new TreeSet<>(Arrays.asList((String[]) roles.getArray())));
+            roles.free();
+        });
+        return roleNames;
+    }
+
+    /**
+     * Removes the given roles from the given users and returns the IDs of users that lost at least one.
+     */
+    public Set<Long> revokeRoles(Collection<Long> userIds, Collection<Long> roleIds) {
+        return modifyRoles(DELETE_USER_ROLES_SQL, userIds, roleIds);
+    }
+
+    /**
+     * Grants every given role to every given user and returns the IDs of users that gained at least one.
+     */
+    public Set<Long> grantRoles(Collection<Long> userIds, Collection<Long> roleIds) {
+        return modifyRoles(GRANT_ROLES_SQL, userIds, roleIds);
+    }
+
+    /**
+     * Grants {@code roleId} to those of the given users that are left without any role.
+     */
+    public int grantRoleWhereNone(Collection<Long> userIds, Long roleId) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(GRANT_ROLE_WHERE_NONE_SQL);
+            statement.setLong(1, roleId);
+            statement.setArray(2, bigintArray(connection, userIds));
+            return statement;
+        });
+    }
+
+    private Set<Long> modifyRoles(String sql, Collection<Long> userIds, Collection<Long> roleIds) {
+        Set<Long> affected = new HashSet<>();
+        if (userIds.isEmpty() || roleIds.isEmpty()) {
+            return affected;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, bigintArray(connection, userIds));
+            statement.setArray(2, bigintArray(connection, roleIds));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            affected.add(rs.getLong("user_id"));
+        });
+        return affected;
+    }
+
+    private Set<String> findExisting(String sql, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        if (values.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, varcharArray(connection, values));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            existing.add(rs.getString(1));
+        });
+        return existing;
+    }
+
+    static Array varcharArray(Connection connection, Collection<String> values) throws SQLException {
+        return connection.createArrayOf("varchar", values.toArray());
+    }
+
+    static Array bigintArray(Connection connection, Collection<Long> values) throws SQLException {
+        return connection.createArrayOf("bigint", values.toArray());
+    }
+}
@@ -0,0 +1,188 @@
+package com.sagar.hr.security.repository;
+
+import com.sagar.hr.security.dto.response.UserResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-only user listing that bypasses the persistence context. Each page is one statement: the keyset
+ * predicate and {@code LIMIT} select the page's users from the {@code users} indexes first, and only
+ * those rows are joined to their role names, which are folded into an array per user.
+ */
+@Repository
+public class UserListingRepository {
+
+    private static final String PAGE_SQL = """
+            SELECT p.id, p.username, p.email,
+                   array_remove(array_agg(r.name ORDER BY r.name), NULL) AS roles
+            FROM (
+                SELECT u.id, u.username, u.email
+                FROM users u
+                %s
+                ORDER BY %s
+                LIMIT :limit
+            ) p
+            LEFT JOIN user_roles ur ON ur.user_id = p.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            GROUP BY p.id, p.username, p.email
+            ORDER BY %s
+            """;
+
+    // A correlated ARRAY() per row keeps the plan a plain index scan on users, so rows stream out as soon
+    // as they are read instead of waiting for a table-wide aggregate
+    private static final String EXPORT_SQL = """
+            SELECT u.id, u.username, u.email,
+                   ARRAY(SELECT r.name
+                         FROM user_roles ur
+                         JOIN roles r ON r.id = ur.role_id
+                         WHERE ur.user_id = u.id
+                         ORDER BY r.name) AS roles
+            FROM users u
+            ORDER BY u.id
+            """;
+
+    private static final String IDENTITIES_SQL =
+            "SELECT id, username, email FROM users WHERE id > ? ORDER BY id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+
+    public UserListingRepository(NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${app.userExportFetchSize:1000}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        this.exportJdbcTemplate.setFetchSize(exportFetchSize);
+    }
+
+    /**
+     * Returns up to {@code limit} users matching {@code filter}, ordered by {@code sortKey} and then by ID,
+     * starting strictly after the row identified by {@code afterValue} and {@code afterId}. Both are
+     * {@code null} for the first page.
+     */
+    public List<UserResponse> findPage(UserFilter filter, SortKey sortKey, boolean descending, String afterValue,
+            Long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<String> conditions = new ArrayList<>(3);
+        if (afterId != null) {
+            String comparison = descending ? "<" : ">";
+            if (sortKey == SortKey.ID) {
+                conditions.add("u.id " + comparison + " :afterId");
+            } else {
+                conditions.add("(u." + sortKey.column + ", u.id) " + comparison + " (:afterValue, :afterId)");
+                params.addValue("afterValue", afterValue);
+            }
+            params.addValue("afterId", afterId);
+        }
+        if (filter.text() != null) {
+            // Same expressions as the V9 indexes: text_pattern_ops serves prefixes, pg_trgm substrings
+            String pattern = escapeLike(filter.text().toLowerCase(Locale.ROOT));
+            params.addValue("pattern", filter.substring() ? "%" + pattern + "%" : pattern + "%");
+            conditions.add("(lower(u.username) LIKE :pattern OR lower(u.email) LIKE :pattern)");
+        }
+        if (filter.roleNames() != null && !filter.roleNames().isEmpty()) {
+            params.addValue("roleNames", filter.roleNames());
+            conditions.add("EXISTS (SELECT 1 FROM user_roles fur JOIN roles fr ON fr.id = fur.role_id"
+                    + " WHERE fur.user_id = u.id AND fr.name IN (:roleNames))");
+        }
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+
+        String sql = PAGE_SQL.formatted(where, orderBy("u", sortKey, descending), orderBy("p", sortKey, descending));
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new UserResponse(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                roles(rs)));
+    }
+
+    /**
+     * Passes every user to {@code consumer} in ID order without materialising the result. The PostgreSQL
+     * driver only honours the fetch size on a non-autocommit connection, so callers must invoke this
+     * inside a (read-only) transaction to get a server-side cursor.
+     */
+    public void streamAll(Consumer<UserResponse> consumer) {
+        exportJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+            consumer.accept(new UserResponse(
+                    rs.getLong("id"),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    roles(rs)));
+        });
+    }
+
+    /**
+     * Streams the ID, username and email of every user with an ID above {@code afterId}, in ID order. Like
+     * {@link #streamAll}, it needs a surrounding transaction to stream rather than buffer.
+     */
+    public void streamIdentities(long afterId, Consumer<UserIdentity> consumer) {
+        exportJdbcTemplate.query(IDENTITIES_SQL, (RowCallbackHandler) rs -> {
+            consumer.accept(new UserIdentity(rs.getLong("id"), rs.getString("username"), rs.getString("email")));
+        }, afterId);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String orderBy(String alias, SortKey sortKey, boolean descending) {
+        String direction = descending ? " DESC" : " ASC";
+        if (sortKey == SortKey.ID) {
+            return alias + ".id" + direction;
+        }
+        return alias + "." + sortKey.column + direction + ", " + alias + ".id" + direction;
+    }
+
+    private static Set<String> roles(ResultSet rs) throws SQLException {
+        Array array = rs.getArray("roles");
+        if (array == null) {
+            return new LinkedHashSet<>();
+        }
+        try {
+            return new LinkedHashSet<>(Arrays.asList((String[]) array.getArray()));
+        } finally {
+            array.free();
+        }
+    }
+
+    public record UserIdentity(long id, String username, String email) {
+    }
+
+    /**
+     * Optional search criteria. {@code text} matches the start of the username or email, or anywhere in
+     * them when {@code substring} is set; {@code roleNames} keeps users holding any of the roles.
+     */
+    public record UserFilter(String text, boolean substring, Collection<String> roleNames) {
+
+        public static final UserFilter NONE = new UserFilter(null, false, null);
+    }
+
+    /**
+     * Columns a listing can be ordered by. Only these fixed column names are ever concatenated into SQL.
+     */
+    public enum SortKey {
+        ID("id"),
+        USERNAME("username"),
+        EMAIL("email");
+
+        private final String column;
+
+        SortKey(String column) {
+            this.column = column;
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.sagar.hr.security.repository;
 
 import com.sagar.hr.security.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.authzVersion from User u where u.id = :id")
+    Optional<Long> findAuthzVersionById(@Param("id") Long id);
+
+    @Query("select distinct u.id from User u join u.roles r join r.permissions p where p.id = :permissionId")
+    List<Long> findIdsByPermissionId(@Param("permissionId") Long permissionId);
+
+    @Query("select distinct u.id from User u join u.roles r where r.name = :roleName")
+    List<Long> findIdsByRoleName(@Param("roleName") String roleName);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Modifying
+    @Query("update User u set u.authzVersion = u.authzVersion + 1 where u.id in :ids")
+    int incrementAuthzVersion(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,88 @@
+package com.sagar.hr.security.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sagar.hr.security.event.AuthorizationChangedEvent;
+import com.sagar.hr.security.repository.UserRepository;
+import com.sagar.hr.util.cache.SingleFlightCache;
+import com.sagar.hr.util.datasource.ReadRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks the per-user authorization version stamped into access tokens. A token whose stamp no longer
+ * matches the user's current version was issued before a role or permission change and must not be
+ * trusted for its embedded authorities.
+ * <p>
+ * Versions are cached. A bump evicts the entry only on the instance that made it, so entries also expire
+ * after {@code app.authzVersionCacheTtlMs}, which bounds how long other instances trust a superseded token.
+ */
+@Service
+public class AuthorizationVersionService {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightCache<Long, Long> versions;
+
+    public AuthorizationVersionService(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+            @Value("${app.authzVersionCacheMaxSize:100000}") long maxSize,
+            @Value("${app.authzVersionCacheTtlMs:5000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.versions = new SingleFlightCache<>(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .buildAsync());
+    }
+
+    /**
+     * Returns the current version for the user, or {@code null} if the user no longer exists. Always read
+     * from the primary: a lagging replica would let a token issued before a change pass as current.
+     */
+    public Long currentVersion(Long userId) {
+        return versions.get(userId,
+                id -> ReadRouting.onPrimary(() -> userRepository.findAuthzVersionById(id).orElse(null)));
+    }
+
+    public boolean isCurrent(Long userId, Long tokenVersion) {
+        if (userId == null || tokenVersion == null) {
+            return false;
+        }
+        Long current = currentVersion(userId);
+        return current != null && current.longValue() == tokenVersion.longValue();
+    }
+
+    @Transactional
+    public void bump(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userRepository.incrementAuthzVersion(userIds);
+        eventPublisher.publishEvent(new AuthorizationChangedEvent(Set.copyOf(userIds)));
+    }
+
+    /**
+     * Bumps every user whose authorities include the permission: holders of a role that references it,
+     * plus super admins, who are granted every permission.
+     */
+    @Transactional
+    public void bumpForPermission(Long permissionId) {
+        Set<Long> userIds = new HashSet<>(userRepository.findIdsByRoleName("ROLE_SUPER_ADMIN"));
+        if (permissionId != null) {
+            userIds.addAll(userRepository.findIdsByPermissionId(permissionId));
+        }
+        bump(userIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        versions.invalidateAll(event.getUserIds());
+    }
+}
@@ -0,0 +1,62 @@
+package com.sagar.hr.security.services;
+
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Which roles the current user may grant, revoke or manage. A check depends only on the caller's highest
+ * assigned role and the target role names, so bulk operations can run it once per distinct role set.
+ */
+@Component
+public class RoleAssignmentPolicy {
+
+    public void validateCanManageRoles(Collection<String> targetRoleNames) {
+        validateCanManageRoles(getCurrentUserHighestRole(), targetRoleNames);
+    }
+
+    public void validateCanManageRoles(String currentUserRole, Collection<String> targetRoleNames) {
+        boolean isAdmin = currentUserRole.equals("ROLE_ADMIN");
+        boolean isModerator = currentUserRole.equals("ROLE_MODERATOR");
+
+        for (String roleName : targetRoleNames) {
+            if (isModerator) {
+                // Moderator can ONLY manage ROLE_USER
+                if (!roleName.equals("ROLE_USER")) {
+                    throw new RuntimeException("Error: Moderator can only manage Users!");
+                }
+            } else if (isAdmin) {
+                // Admin can manage ROLE_MODERATOR and ROLE_USER
+                if (roleName.equals("ROLE_ADMIN") || roleName.equals("ROLE_SUPER_ADMIN")) {
+                    throw new RuntimeException("Error: Admin cannot manage Admins or Super Admins!");
+                }
+            }
+            // Super Admin can manage anyone
+        }
+    }
+
+    public String getCurrentUserHighestRole() {
+        // Get the UserDetailsImpl from the authentication principal
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if (!(principal instanceof UserDetailsImpl)) {
+            throw new RuntimeException("Error: Invalid authentication principal!");
+        }
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) principal;
+
+        // Get actual assigned roles (not inherited from hierarchy)
+        Set<String> actualRoles = userDetails.getRoles();
+
+        // Return the highest role based on priority
+        if (actualRoles.contains("ROLE_SUPER_ADMIN"))
+            return "ROLE_SUPER_ADMIN";
+        if (actualRoles.contains("ROLE_ADMIN"))
+            return "ROLE_ADMIN";
+        if (actualRoles.contains("ROLE_MODERATOR"))
+            return "ROLE_MODERATOR";
+        return "ROLE_USER";
+    }
+}
@@ -0,0 +1,123 @@
+package com.sagar.hr.security.services;
+
+import com.sagar.hr.security.repository.UserListingRepository;
+import com.sagar.hr.security.repository.UserListingRepository.UserIdentity;
+import com.sagar.hr.util.bloom.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filters of every normalised (trimmed, lower-cased) username and email. A miss proves the value is
+ * free without touching the database; a hit only means "possibly taken" and must be confirmed there.
+ * <p>
+ * Filters are built from a streamed scan once the application is ready, pick up users created on other
+ * instances by polling for new IDs, and are rebuilt periodically so deleted users drop out. Until the
+ * first build finishes every lookup reports a possible hit.
+ * <p>
+ * IDs are taken before commit, so a user can become visible after others with higher IDs. Each poll
+ * therefore scans again from {@code app.availabilityRefreshLookbackIds} below the highest ID seen.
+ */
+@Component
+public class UserAvailabilityIndex {
+
+    private final UserListingRepository userListingRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final long refreshLookbackIds;
+
+    private volatile State state;
+
+    public UserAvailabilityIndex(UserListingRepository userListingRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.availabilityBloomExpectedInsertions:1000000}") long expectedInsertions,
+            @Value("${app.availabilityBloomFalsePositiveProbability:0.01}") double falsePositiveProbability,
+            @Value("${app.availabilityRefreshLookbackIds:10000}") long refreshLookbackIds) {
+        this.userListingRepository = userListingRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshLookbackIds = refreshLookbackIds;
+    }
+
+    public boolean mightHaveUsername(String username) {
+        State current = state;
+        return current == null || current.usernames.mightContain(normalise(username));
+    }
+
+    public boolean mightHaveEmail(String email) {
+        State current = state;
+        return current == null || current.emails.mightContain(normalise(email));
+    }
+
+    /**
+     * Makes a newly created user visible immediately on this instance.
+     */
+    public void add(String username, String email) {
+        State current = state;
+        if (current != null) {
+            current.usernames.put(normalise(username));
+            current.emails.put(normalise(email));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.availabilityRefreshMs:5000}",
+            fixedDelayString = "${app.availabilityRefreshMs:5000}")
+    public void refresh() {
+        State current = state;
+        if (current != null) {
+            load(current);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.availabilityRebuildMs:21600000}",
+            fixedDelayString = "${app.availabilityRebuildMs:21600000}")
+    public void rebuild() {
+        State current = state;
+        long previousCount = current == null ? 0 : current.count.get();
+        State rebuilt = new State(Math.max(expectedInsertions, 2 * previousCount), falsePositiveProbability);
+        load(rebuilt);
+        state = rebuilt;
+    }
+
+    private void load(State target) {
+        long highestSeenId = target.lastSeenId.get();
+        long afterId = Math.max(0, highestSeenId - refreshLookbackIds);
+        readOnlyTransaction.executeWithoutResult(status ->
+                userListingRepository.streamIdentities(afterId, (UserIdentity user) -> {
+                    // Users seen before are put again, which leaves the filters unchanged
+                    target.usernames.put(normalise(user.username()));
+                    target.emails.put(normalise(user.email()));
+                    if (user.id() > highestSeenId) {
+                        target.count.incrementAndGet();
+                        target.lastSeenId.accumulateAndGet(user.id(), Math::max);
+                    }
+                }));
+    }
+
+    static String normalise(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class State {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+        private final AtomicLong lastSeenId = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+
+        private State(long expectedInsertions, double falsePositiveProbability) {
+            this.usernames = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+            this.emails = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+        }
+    }
+}
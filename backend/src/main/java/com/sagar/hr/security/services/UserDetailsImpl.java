@@ -2,21 +2,21 @@ package com.sagar.hr.security.services;
 
 import com.sagar.hr.security.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import lombok.AllArgsConstructor;
+import com.sagar.hr.security.auth_manager.RbacCatalog;
 import lombok.Getter;
+import lombok.Setter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-@AllArgsConstructor
 public class UserDetailsImpl implements UserDetails {
     @Serial
     private static final long serialVersionUID = 1L;
@@ -37,38 +37,41 @@ public class UserDetailsImpl implements UserDetails {
     @Getter
     private Set<String> roles;
 
+    @Getter
+    private long authzVersion;
+
+    @JsonIgnore
+    @Getter
+    @Setter
+    private transient volatile RbacCatalog.EffectiveAuthorities effectiveAuthorities;
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+            Collection<? extends GrantedAuthority> authorities, Set<String> roles, long authzVersion) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.authorities = authorities;
+        this.roles = roles;
+        this.authzVersion = authzVersion;
+    }
+
     public static UserDetailsImpl build(User user, Collection<String> allPermissions) {
         // Extract actual user roles (not inherited from hierarchy)
-        Set<String> userRoles = user.getRoles().stream()
-                .map(role -> role.getName())
-                .collect(Collectors.toSet());
-        boolean isSuperAdmin = user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals("ROLE_SUPER_ADMIN"));
-
-        // Collect Roles
-        List<GrantedAuthority> roleAuthorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
-
-        List<GrantedAuthority> authorities;
+        Set<String> userRoles = new HashSet<>();
+        user.getRoles().forEach(role -> userRoles.add(role.getName()));
+        boolean isSuperAdmin = userRoles.contains("ROLE_SUPER_ADMIN");
+
+        // Roles first, then permissions, collected into a single list
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        userRoles.forEach(role -> authorities.add(new SimpleGrantedAuthority(role)));
         if (isSuperAdmin && allPermissions != null) {
             // For Super Admin, grant all system permissions explicitly
-            List<GrantedAuthority> permissionAuthorities = allPermissions.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-
-            authorities = Stream.concat(roleAuthorities.stream(), permissionAuthorities.stream())
-                    .collect(Collectors.toList());
+            allPermissions.forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
         } else {
             // Collect Permissions from all Roles for normal users
-            List<GrantedAuthority> permissionAuthorities = user.getRoles().stream()
-                    .flatMap(role -> role.getPermissions().stream())
-                    .map(permission -> new SimpleGrantedAuthority(permission.getName()))
-                    .collect(Collectors.toList());
-
-            // Combine both
-            authorities = Stream.concat(roleAuthorities.stream(), permissionAuthorities.stream())
-                    .collect(Collectors.toList());
+            user.getRoles().forEach(role -> role.getPermissions()
+                    .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission.getName()))));
         }
 
         return new UserDetailsImpl(
@@ -77,7 +80,21 @@ public class UserDetailsImpl implements UserDetails {
                 user.getEmail(),
                 user.getPassword(),
                 authorities,
-                userRoles);
+                userRoles,
+                user.getAuthzVersion());
+    }
+
+    /**
+     * Rebuilds a principal from authorities carried in a verified access token. The password is not
+     * part of the token, so the result can only be used for request authorization.
+     */
+    public static UserDetailsImpl build(Long id, String username, String email, Collection<String> roles,
+            Collection<String> permissions, long authzVersion) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size() + permissions.size());
+        roles.forEach(role -> authorities.add(new SimpleGrantedAuthority(role)));
+        permissions.forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
+
+        return new UserDetailsImpl(id, username, email, null, authorities, Set.copyOf(roles), authzVersion);
     }
 
     @Override
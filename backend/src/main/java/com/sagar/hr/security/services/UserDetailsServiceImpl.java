@@ -1,46 +1,183 @@
 package com.sagar.hr.security.services;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sagar.hr.security.event.AuthorizationChangedEvent;
 import com.sagar.hr.security.model.User;
 import com.sagar.hr.security.model.Permission;
 import com.sagar.hr.permission.repository.PermissionRepository;
 import com.sagar.hr.security.repository.UserRepository;
+import com.sagar.hr.util.cache.SingleFlightCache;
+import com.sagar.hr.util.datasource.ReadRouting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Loads principals through a bounded, TTL-limited cache. Concurrent misses for the same username
+ * share a single database load, and entries are evicted when an {@link AuthorizationChangedEvent}
+ * reports that the user's roles or permissions changed. That event is local, so a cache hit is also
+ * checked against the user's current authorization version, and reloaded if another instance changed
+ * or deleted the user.
+ * <p>
+ * Loads may be served by a read replica. One that has not caught up yet is detected by comparing the
+ * loaded authorization version with the primary's, and the load is repeated on the primary, so a stale
+ * principal is never cached.
+ */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final PermissionRepository permissionRepository;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final SingleFlightCache<String, UserDetailsImpl> principals;
+    private final Map<Long, String> usernamesById = new ConcurrentHashMap<>();
+    private final Timer loadTimer;
+    private final Timer databaseLoadTimer;
 
-    public UserDetailsServiceImpl(UserRepository userRepository, PermissionRepository permissionRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, PermissionRepository permissionRepository,
+            AuthorizationVersionService authorizationVersionService, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.userDetailsCacheMaxSize:10000}") long cacheMaxSize,
+            @Value("${app.userDetailsCacheTtlMs:600000}") long cacheTtlMs) {
         this.userRepository = userRepository;
         this.permissionRepository = permissionRepository;
+        this.authorizationVersionService = authorizationVersionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        AsyncCache<String, UserDetailsImpl> cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .recordStats()
+                .<String, UserDetailsImpl>evictionListener((username, principal, cause) -> {
+                    if (principal != null) {
+                        usernamesById.remove(principal.getId(), username);
+                    }
+                })
+                .buildAsync();
+        this.principals = new SingleFlightCache<>(cache);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+        this.loadTimer = Timer.builder("security.user.load")
+                .description("Time to resolve a principal, cache hits included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.databaseLoadTimer = Timer.builder("security.user.load.database")
+                .description("Time to load a principal from the database on a cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        long start = System.nanoTime();
+        try {
+            UserDetailsImpl principal = principals.get(username, this::loadFromDatabase);
+            if (!isCurrent(principal)) {
+                principals.invalidate(username);
+                principal = principals.get(username, this::loadFromDatabase);
+            }
+            return principal;
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stores a rehashed password after a successful login whose stored hash used an outdated algorithm
+     * or cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        writeTransaction.executeWithoutResult(status -> userRepository.updatePassword(user.getUsername(), newPassword));
+        principals.invalidate(user.getUsername());
+        UserDetailsImpl principal = (UserDetailsImpl) user;
+        return new UserDetailsImpl(principal.getId(), principal.getUsername(), principal.getEmail(), newPassword,
+                principal.getAuthorities(), principal.getRoles(), principal.getAuthzVersion());
+    }
 
-        boolean isSuperAdmin = user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals("ROLE_SUPER_ADMIN"));
+    public CacheStats getCacheStats() {
+        return principals.stats();
+    }
 
-        Collection<String> allPermissions = Collections.emptyList();
-        if (isSuperAdmin) {
-            allPermissions = permissionRepository.findAll().stream()
-                    .map(Permission::getName)
-                    .collect(Collectors.toList());
+    public void evict(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            String username = usernamesById.get(userId);
+            if (username != null) {
+                principals.invalidate(username);
+            }
         }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChanged(AuthorizationChangedEvent event) {
+        evict(event.getUserIds());
+    }
+
+    private boolean isCurrent(UserDetailsImpl principal) {
+        Long currentVersion = authorizationVersionService.currentVersion(principal.getId());
+        return currentVersion != null && principal.getAuthzVersion() >= currentVersion;
+    }
+
+    private UserDetailsImpl loadFromDatabase(String username) {
+        long start = System.nanoTime();
+        UserDetailsImpl principal;
+        try {
+            principal = readPrincipal(username);
+        } catch (UsernameNotFoundException e) {
+            // The account may have been created moments ago and not be on the replica yet
+            principal = ReadRouting.onPrimary(() -> readPrincipal(username));
+        }
+        Long currentVersion = authorizationVersionService.currentVersion(principal.getId());
+        if (currentVersion == null || principal.getAuthzVersion() < currentVersion) {
+            // Changed, or deleted (and perhaps recreated), since the replica's snapshot
+            principal = ReadRouting.onPrimary(() -> readPrincipal(username));
+            if (authorizationVersionService.currentVersion(principal.getId()) == null) {
+                throw new UsernameNotFoundException("User Not Found with username: " + username);
+            }
+        }
+        databaseLoadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        usernamesById.put(principal.getId(), username);
+        return principal;
+    }
+
+    private UserDetailsImpl readPrincipal(String username) {
+        return readOnlyTransaction.execute(status -> {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+
+            boolean isSuperAdmin = user.getRoles().stream()
+                    .anyMatch(role -> role.getName().equals("ROLE_SUPER_ADMIN"));
+
+            Collection<String> allPermissions = Collections.emptyList();
+            if (isSuperAdmin) {
+                allPermissions = permissionRepository.findAll().stream()
+                        .map(Permission::getName)
+                        .collect(Collectors.toList());
+            }
 
-        return UserDetailsImpl.build(user, allPermissions);
+            return UserDetailsImpl.build(user, allPermissions);
+        });
     }
 }
@@ -0,0 +1,113 @@
+package com.sagar.hr.security.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sagar.hr.security.dto.response.UserResponse;
+import com.sagar.hr.security.repository.UserListingRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes every user with their role names straight from a JDBC cursor to an output stream, one row at a
+ * time, so memory use does not depend on the number of users.
+ */
+@Service
+public class UserExportService {
+
+    private static final String ROLE_SEPARATOR = ";";
+
+    private final UserListingRepository userListingRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public UserExportService(UserListingRepository userListingRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.userListingRepository = userListingRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One JSON object per line: {@code {"id":1,"username":"...","email":"...","roles":["ROLE_USER"]}}.
+     */
+    public void writeNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)) {
+            stream(user -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", user.getId());
+                    generator.writeStringField("username", user.getUsername());
+                    generator.writeStringField("email", user.getEmail());
+                    generator.writeArrayFieldStart("roles");
+                    for (String role : user.getRoles()) {
+                        generator.writeString(role);
+                    }
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; roles are joined with {@code ;} in a single column.
+     */
+    public void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,username,email,roles\r\n");
+        stream(user -> {
+            try {
+                writer.write(String.valueOf(user.getId()));
+                writer.write(',');
+                writer.write(csvField(user.getUsername()));
+                writer.write(',');
+                writer.write(csvField(user.getEmail()));
+                writer.write(',');
+                writer.write(csvField(String.join(ROLE_SEPARATOR, user.getRoles())));
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void stream(Consumer<UserResponse> consumer) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> userListingRepository.streamAll(consumer));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; surface it as the IOException the caller expects
+            throw e.getCause();
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Spreadsheets evaluate cells starting with these characters as formulas
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
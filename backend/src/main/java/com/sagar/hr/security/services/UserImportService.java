@@ -0,0 +1,342 @@
+package com.sagar.hr.security.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sagar.hr.audit.model.AuditAction;
+import com.sagar.hr.audit.model.AuditedEntity;
+import com.sagar.hr.audit.service.AuditTrail;
+import com.sagar.hr.security.dto.request.SignupRequest;
+import com.sagar.hr.security.dto.response.UserImportReport;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.password.OffloadingPasswordEncoder;
+import com.sagar.hr.security.repository.RoleRepository;
+import com.sagar.hr.security.repository.UserBulkRepository;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogVersions;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Creates users from a CSV or NDJSON stream. Rows are validated as they are read and written in batches:
+ * duplicates are checked with one query per batch, passwords are hashed in parallel, and users and their
+ * roles are inserted with one statement each. Every batch commits on its own, so a bad row never undoes
+ * the rest; it is reported with its row number instead.
+ * <p>
+ * CSV needs a header naming the {@code username}, {@code email}, {@code password} and optional
+ * {@code roles} columns; roles within a cell are separated by {@code ;}. NDJSON rows use the same
+ * fields as the sign-up request.
+ */
+@Service
+public class UserImportService {
+
+    private static final String DEFAULT_ROLE = "ROLE_USER";
+    private static final String ROLE_SEPARATOR = ";";
+
+    private final UserBulkRepository userBulkRepository;
+    private final RoleRepository roleRepository;
+    private final RoleAssignmentPolicy roleAssignmentPolicy;
+    private final UserAvailabilityIndex userAvailabilityIndex;
+    private final AuditTrail auditTrail;
+    private final CatalogVersions catalogVersions;
+    private final OffloadingPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+
+    public UserImportService(UserBulkRepository userBulkRepository, RoleRepository roleRepository,
+            RoleAssignmentPolicy roleAssignmentPolicy, UserAvailabilityIndex userAvailabilityIndex,
+            AuditTrail auditTrail, CatalogVersions catalogVersions, OffloadingPasswordEncoder passwordEncoder,
+            Validator validator, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${app.userImportBatchSize:1000}") int batchSize) {
+        this.userBulkRepository = userBulkRepository;
+        this.roleRepository = roleRepository;
+        this.roleAssignmentPolicy = roleAssignmentPolicy;
+        this.userAvailabilityIndex = userAvailabilityIndex;
+        this.auditTrail = auditTrail;
+        this.catalogVersions = catalogVersions;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public UserImportReport importCsv(InputStream in) throws IOException {
+        return importRows(in, true);
+    }
+
+    public UserImportReport importNdjson(InputStream in) throws IOException {
+        return importRows(in, false);
+    }
+
+    private UserImportReport importRows(InputStream in, boolean csv) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        Map<String, Integer> header = null;
+        if (csv) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return run.report;
+            }
+            header = parseHeader(headerLine);
+        }
+
+        List<Candidate> batch = new ArrayList<>(batchSize);
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            run.report.setTotal(run.report.getTotal() + 1);
+
+            SignupRequest request;
+            try {
+                request = csv ? parseCsvRow(line, header) : objectMapper.readValue(line, SignupRequest.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                run.report.addError(row, null, "Error: Row could not be parsed!");
+                continue;
+            }
+
+            Candidate candidate = validate(run, row, request);
+            if (candidate != null) {
+                batch.add(candidate);
+                if (batch.size() >= batchSize) {
+                    flush(run, batch);
+                    batch.clear();
+                }
+            }
+        }
+        flush(run, batch);
+        return run.report;
+    }
+
+    private Candidate validate(ImportRun run, long row, SignupRequest request) {
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<SignupRequest> violation = violations.iterator().next();
+            run.report.addError(row, request.getUsername(),
+                    "Error: " + violation.getPropertyPath() + " " + violation.getMessage());
+            return null;
+        }
+
+        Set<String> roleNames = request.getRoles() == null || request.getRoles().isEmpty()
+                ? Set.of(DEFAULT_ROLE)
+                : new TreeSet<>(request.getRoles());
+        String roleError = run.roleErrors.computeIfAbsent(roleNames, names -> checkRoles(run, names));
+        if (!roleError.isEmpty()) {
+            run.report.addError(row, request.getUsername(), roleError);
+            return null;
+        }
+
+        if (!run.seenUsernames.add(request.getUsername())) {
+            run.report.addError(row, request.getUsername(), "Error: Username appears more than once in the file!");
+            return null;
+        }
+        if (!run.seenEmails.add(request.getEmail())) {
+            run.report.addError(row, request.getUsername(), "Error: Email appears more than once in the file!");
+            return null;
+        }
+
+        List<Long> roleIds = roleNames.stream().map(run.roleIds::get).toList();
+        return new Candidate(row, request.getUsername(), request.getEmail(), request.getPassword(), roleIds);
+    }
+
+    /**
+     * Returns an empty string when the current user may assign {@code roleNames}, the error otherwise.
+     * Memoised per distinct role set for the duration of one import.
+     */
+    private String checkRoles(ImportRun run, Set<String> roleNames) {
+        if (roleNames.contains("ROLE_SUPER_ADMIN")) {
+            return "Error: Cannot create or assign SUPER_ADMIN role!";
+        }
+        for (String roleName : roleNames) {
+            if (!run.roleIds.containsKey(roleName)) {
+                return "Error: Role " + roleName + " is not found.";
+            }
+        }
+        try {
+            roleAssignmentPolicy.validateCanManageRoles(run.currentUserRole, roleNames);
+            return "";
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void flush(ImportRun run, List<Candidate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> existingUsernames = userBulkRepository.findExistingUsernames(
+                batch.stream().map(Candidate::username).toList());
+        Set<String> existingEmails = userBulkRepository.findExistingEmails(
+                batch.stream().map(Candidate::email).toList());
+
+        List<Candidate> accepted = new ArrayList<>(batch.size());
+        for (Candidate candidate : batch) {
+            if (existingUsernames.contains(candidate.username())) {
+                run.report.addError(candidate.row(), candidate.username(), "Error: Username is already taken!");
+            } else if (existingEmails.contains(candidate.email())) {
+                run.report.addError(candidate.row(), candidate.username(), "Error: Email is already in use!");
+            } else {
+                accepted.add(candidate);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // Hash before opening the transaction so no connection is held while BCrypt runs
+        List<String> hashes = passwordEncoder.encodeAll(accepted.stream().map(Candidate::password).toList());
+
+        Map<String, Long> userIds = transaction.execute(status -> {
+            Map<String, Long> inserted = userBulkRepository.insertUsers(
+                    accepted.stream().map(Candidate::username).toList(),
+                    accepted.stream().map(Candidate::email).toList(),
+                    hashes);
+
+            List<Long> roleUserIds = new ArrayList<>();
+            List<Long> roleIds = new ArrayList<>();
+            for (Candidate candidate : accepted) {
+                Long userId = inserted.get(candidate.username());
+                if (userId != null) {
+                    // Inserted over JDBC, so the entity listener never sees these rows
+                    auditTrail.record(AuditedEntity.USER, userId, AuditAction.CREATE, Map.of(
+                            "username", candidate.username(),
+                            "email", candidate.email(),
+                            "roleIds", candidate.roleIds()));
+                    for (Long roleId : candidate.roleIds()) {
+                        roleUserIds.add(userId);
+                        roleIds.add(roleId);
+                    }
+                }
+            }
+            userBulkRepository.insertUserRoles(roleUserIds, roleIds);
+            if (!inserted.isEmpty()) {
+                catalogVersions.bump(CatalogCollection.USERS);
+            }
+            return inserted;
+        });
+
+        for (Candidate candidate : accepted) {
+            if (userIds.containsKey(candidate.username())) {
+                userAvailabilityIndex.add(candidate.username(), candidate.email());
+                run.report.setCreated(run.report.getCreated() + 1);
+            } else {
+                run.report.addError(candidate.row(), candidate.username(),
+                        "Error: Username or email was taken during the import!");
+            }
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String headerLine) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = splitCsvLine(headerLine);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return header;
+    }
+
+    private static SignupRequest parseCsvRow(String line, Map<String, Integer> header) {
+        List<String> fields = splitCsvLine(line);
+        SignupRequest request = new SignupRequest();
+        request.setUsername(field(fields, header, "username"));
+        request.setEmail(field(fields, header, "email"));
+        request.setPassword(field(fields, header, "password"));
+        String roles = field(fields, header, "roles");
+        if (roles != null && !roles.isBlank()) {
+            Set<String> roleNames = new LinkedHashSet<>();
+            for (String role : roles.split(ROLE_SEPARATOR)) {
+                if (!role.isBlank()) {
+                    roleNames.add(role.trim());
+                }
+            }
+            request.setRoles(roleNames);
+        }
+        return request;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    /**
+     * Splits one RFC 4180 line. Quoted fields may contain commas and doubled quotes but not line breaks.
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record Candidate(long row, String username, String email, String password, List<Long> roleIds) {
+    }
+
+    /**
+     * Per-import state. The caller's role and the role catalogue are read once up front.
+     */
+    private final class ImportRun {
+        private final UserImportReport report = new UserImportReport();
+        private final String currentUserRole = roleAssignmentPolicy.getCurrentUserHighestRole();
+        private final Map<String, Long> roleIds = new HashMap<>();
+        private final Map<Set<String>, String> roleErrors = new HashMap<>();
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+
+        private ImportRun() {
+            for (Role role : roleRepository.findAll()) {
+                roleIds.put(role.getName(), role.getId());
+            }
+        }
+    }
+}
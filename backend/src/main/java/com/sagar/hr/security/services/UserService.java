@@ -1,45 +1,141 @@
 package com.sagar.hr.security.services;
 
+import com.sagar.hr.audit.model.AuditAction;
+import com.sagar.hr.audit.model.AuditedEntity;
+import com.sagar.hr.audit.service.AuditTrail;
+import com.sagar.hr.security.dto.request.BulkRoleUpdateRequest;
 import com.sagar.hr.security.dto.request.SignupRequest;
+import com.sagar.hr.security.dto.response.BulkRoleUpdateResponse;
 import com.sagar.hr.security.dto.response.UserResponse;
 import com.sagar.hr.security.model.Role;
 import com.sagar.hr.security.model.User;
+import com.sagar.hr.security.repository.UserBulkRepository;
+import com.sagar.hr.security.repository.UserListingRepository;
+import com.sagar.hr.security.repository.UserListingRepository.SortKey;
+import com.sagar.hr.security.repository.UserListingRepository.UserFilter;
 import com.sagar.hr.security.repository.UserRepository;
 import com.sagar.hr.security.repository.RoleRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.sagar.hr.util.catalog.CatalogCollection;
+import com.sagar.hr.util.catalog.CatalogVersions;
+import com.sagar.hr.util.pojo.response.CursorPage;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
     private final UserRepository userRepository;
+    private final UserListingRepository userListingRepository;
+    private final UserBulkRepository userBulkRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder encoder;
-
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder encoder) {
+    private final AuthorizationVersionService authorizationVersionService;
+    private final RoleAssignmentPolicy roleAssignmentPolicy;
+    private final UserAvailabilityIndex userAvailabilityIndex;
+    private final AuditTrail auditTrail;
+    private final CatalogVersions catalogVersions;
+
+    public UserService(UserRepository userRepository, UserListingRepository userListingRepository,
+            UserBulkRepository userBulkRepository, RoleRepository roleRepository, PasswordEncoder encoder,
+            AuthorizationVersionService authorizationVersionService, RoleAssignmentPolicy roleAssignmentPolicy,
+            UserAvailabilityIndex userAvailabilityIndex, AuditTrail auditTrail, CatalogVersions catalogVersions) {
         this.userRepository = userRepository;
+        this.userListingRepository = userListingRepository;
+        this.userBulkRepository = userBulkRepository;
         this.roleRepository = roleRepository;
         this.encoder = encoder;
+        this.authorizationVersionService = authorizationVersionService;
+        this.roleAssignmentPolicy = roleAssignmentPolicy;
+        this.userAvailabilityIndex = userAvailabilityIndex;
+        this.auditTrail = auditTrail;
+        this.catalogVersions = catalogVersions;
+    }
+
+    /**
+     * Returns one page of users ordered by {@code sort} (id, username or email) and then by ID. When sorting
+     * by ID the cursor is the last ID itself; for other keys it is an opaque token that also carries the
+     * last sort value.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> getUsers(String after, Integer limit, String sort, String direction) {
+        return findPage(UserFilter.NONE, after, limit, sort, direction);
+    }
+
+    /**
+     * Users whose username or email starts with {@code query} ({@code match=prefix}, the default) or contains
+     * it ({@code match=contains}), optionally restricted to holders of any of {@code roles}. Paged like
+     * {@link #getUsers}, ordered by username unless {@code sort} says otherwise.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> searchUsers(String query, String match, Collection<String> roles, String after,
+            Integer limit, String sort, String direction) {
+        String text = query == null || query.isBlank() ? null : query.trim();
+        boolean substring = "contains".equalsIgnoreCase(match);
+        if (substring && text != null && text.length() < MIN_SUBSTRING_LENGTH) {
+            // Shorter patterns contain no complete trigram, so the index cannot narrow them down
+            throw new IllegalArgumentException(
+                    "Error: Substring search needs at least " + MIN_SUBSTRING_LENGTH + " characters!");
+        }
+        UserFilter filter = new UserFilter(text, substring, roles);
+        return findPage(filter, after, limit, sort == null || sort.isBlank() ? "username" : sort, direction);
     }
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    private CursorPage<UserResponse> findPage(UserFilter filter, String after, Integer limit, String sort,
+            String direction) {
+        SortKey sortKey = parseSortKey(sort);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String afterValue = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            if (sortKey == SortKey.ID) {
+                afterId = parseId(after);
+            } else {
+                String[] parts = decodeCursor(after, sortKey);
+                afterId = parseId(parts[1]);
+                afterValue = parts[2];
+            }
+        }
+
+        // One extra row tells whether another page follows without a count query
+        List<UserResponse> rows = userListingRepository.findPage(filter, sortKey, descending, afterValue, afterId,
+                pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, pageSize);
+        }
+        List<UserResponse> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, encodeCursor(sortKey, items.get(pageSize - 1)), pageSize);
     }
 
     public UserResponse createUser(SignupRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
+        if (userAvailabilityIndex.mightHaveUsername(signUpRequest.getUsername())
+                && userRepository.existsByUsername(signUpRequest.getUsername())) {
             throw new RuntimeException("Error: Username is already taken!");
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (userAvailabilityIndex.mightHaveEmail(signUpRequest.getEmail())
+                && userRepository.existsByEmail(signUpRequest.getEmail())) {
             throw new RuntimeException("Error: Email is already in use!");
         }
 
@@ -69,11 +165,21 @@ public class UserService {
         validateCanManageTargetRoles(roles);
 
         user.setRoles(roles);
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(userRepository.existsByUsername(signUpRequest.getUsername())
+                    ? "Error: Username is already taken!"
+                    : "Error: Email is already in use!");
+        }
+        userAvailabilityIndex.add(savedUser.getUsername(), savedUser.getEmail());
+        catalogVersions.bump(CatalogCollection.USERS);
 
         return convertToResponse(savedUser);
     }
 
+    @Transactional
     public UserResponse updateUserRoles(Long userId, Set<String> strRoles) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Error: User not found!"));
@@ -100,67 +206,147 @@ public class UserService {
 
         user.setRoles(roles);
         User updatedUser = userRepository.save(user);
+        authorizationVersionService.bump(List.of(updatedUser.getId()));
+        auditTrail.record(AuditedEntity.USER, updatedUser.getId(), AuditAction.SET_ROLES,
+                Map.of("roles", roles.stream().map(Role::getName).sorted().toList()));
+        catalogVersions.bump(CatalogCollection.USERS);
 
         return convertToResponse(updatedUser);
     }
 
+    /**
+     * Adds and removes roles for many users with a handful of set-based statements in one transaction.
+     * The management rules are checked once for the requested roles and once per distinct role set
+     * currently held by the targets. Users left without any role fall back to ROLE_USER, as in
+     * {@link #updateUserRoles}.
+     */
+    @Transactional
+    public BulkRoleUpdateResponse bulkUpdateRoles(BulkRoleUpdateRequest request) {
+        Set<String> add = request.getAdd() == null ? Set.of() : new TreeSet<>(request.getAdd());
+        Set<String> remove = request.getRemove() == null ? Set.of() : new TreeSet<>(request.getRemove());
+        if (add.isEmpty() && remove.isEmpty()) {
+            throw new RuntimeException("Error: No roles to add or remove!");
+        }
+        if (add.contains("ROLE_SUPER_ADMIN") || remove.contains("ROLE_SUPER_ADMIN")) {
+            throw new RuntimeException("Error: Cannot create or assign SUPER_ADMIN role!");
+        }
+        for (String role : add) {
+            if (remove.contains(role)) {
+                throw new RuntimeException("Error: Role " + role + " cannot be both added and removed!");
+            }
+        }
+
+        Set<Long> targetIds;
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            targetIds = new LinkedHashSet<>(request.getUserIds());
+        } else if (request.getWithRole() != null && !request.getWithRole().isBlank()) {
+            targetIds = new LinkedHashSet<>(userRepository.findIdsByRoleName(request.getWithRole()));
+        } else {
+            throw new RuntimeException("Error: Either userIds or withRole is required!");
+        }
+
+        Set<String> requested = new TreeSet<>(add);
+        requested.addAll(remove);
+        requested.add("ROLE_USER");
+        Map<String, Long> roleIds = new HashMap<>();
+        for (Role role : roleRepository.findByNameIn(requested)) {
+            roleIds.put(role.getName(), role.getId());
+        }
+        for (String role : requested) {
+            if (!roleIds.containsKey(role)) {
+                throw new RuntimeException("Error: Role " + role + " is not found.");
+            }
+        }
+
+        String currentUserRole = roleAssignmentPolicy.getCurrentUserHighestRole();
+        Set<String> changed = new TreeSet<>(add);
+        changed.addAll(remove);
+        roleAssignmentPolicy.validateCanManageRoles(currentUserRole, changed);
+
+        Map<Long, Set<String>> currentRoles = userBulkRepository.findRoleNamesByUserIds(targetIds);
+        for (Set<String> roleSet : new HashSet<>(currentRoles.values())) {
+            roleAssignmentPolicy.validateCanManageRoles(currentUserRole, roleSet);
+        }
+
+        Set<Long> existingIds = currentRoles.keySet();
+        Set<Long> affected = new TreeSet<>();
+        affected.addAll(userBulkRepository.revokeRoles(existingIds, remove.stream().map(roleIds::get).toList()));
+        affected.addAll(userBulkRepository.grantRoles(existingIds, add.stream().map(roleIds::get).toList()));
+        if (!remove.isEmpty()) {
+            userBulkRepository.grantRoleWhereNone(affected, roleIds.get("ROLE_USER"));
+        }
+        if (!affected.isEmpty()) {
+            authorizationVersionService.bump(affected);
+        }
+        Map<String, Set<String>> changes = Map.of("added", add, "removed", remove);
+        for (Long userId : affected) {
+            auditTrail.record(AuditedEntity.USER, userId, AuditAction.CHANGE_ROLES, changes);
+        }
+        if (!affected.isEmpty()) {
+            catalogVersions.bump(CatalogCollection.USERS);
+        }
+
+        return new BulkRoleUpdateResponse(new ArrayList<>(affected));
+    }
+
+    @Transactional
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Error: User not found!"));
 
         validateCanManageTargetUser(user);
         userRepository.delete(user);
+        authorizationVersionService.bump(List.of(id));
+        catalogVersions.bump(CatalogCollection.USERS);
     }
 
     private void validateCanManageTargetUser(User targetUser) {
-        Set<Role> targetRoles = targetUser.getRoles();
-        validateCanManageTargetRoles(targetRoles);
+        validateCanManageTargetRoles(targetUser.getRoles());
     }
 
     private void validateCanManageTargetRoles(Set<Role> targetRoles) {
-        String currentUserRole = getCurrentUserHighestRole();
-
-        boolean isAdmin = currentUserRole.equals("ROLE_ADMIN");
-        boolean isModerator = currentUserRole.equals("ROLE_MODERATOR");
-
-        for (Role role : targetRoles) {
-            String roleName = role.getName();
-            if (isModerator) {
-                // Moderator can ONLY manage ROLE_USER
-                if (!roleName.equals("ROLE_USER")) {
-                    throw new RuntimeException("Error: Moderator can only manage Users!");
-                }
-            } else if (isAdmin) {
-                // Admin can manage ROLE_MODERATOR and ROLE_USER
-                if (roleName.equals("ROLE_ADMIN") || roleName.equals("ROLE_SUPER_ADMIN")) {
-                    throw new RuntimeException("Error: Admin cannot manage Admins or Super Admins!");
-                }
-            }
-            // Super Admin can manage anyone
-        }
+        roleAssignmentPolicy.validateCanManageRoles(targetRoles.stream().map(Role::getName).toList());
     }
 
-    private String getCurrentUserHighestRole() {
-        // Get the UserDetailsImpl from the authentication principal
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        if (!(principal instanceof UserDetailsImpl)) {
-            throw new RuntimeException("Error: Invalid authentication principal!");
+    private static SortKey parseSortKey(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return SortKey.ID;
         }
+        try {
+            return SortKey.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: Unsupported sort key " + sort + "!");
+        }
+    }
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) principal;
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Error: Invalid cursor!");
+        }
+    }
 
-        // Get actual assigned roles (not inherited from hierarchy)
-        Set<String> actualRoles = userDetails.getRoles();
+    private static String encodeCursor(SortKey sortKey, UserResponse last) {
+        if (sortKey == SortKey.ID) {
+            return String.valueOf(last.getId());
+        }
+        String value = sortKey == SortKey.USERNAME ? last.getUsername() : last.getEmail();
+        String raw = sortKey.name() + "\n" + last.getId() + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        // Return the highest role based on priority
-        if (actualRoles.contains("ROLE_SUPER_ADMIN"))
-            return "ROLE_SUPER_ADMIN";
-        if (actualRoles.contains("ROLE_ADMIN"))
-            return "ROLE_ADMIN";
-        if (actualRoles.contains("ROLE_MODERATOR"))
-            return "ROLE_MODERATOR";
-        return "ROLE_USER";
+    private static String[] decodeCursor(String cursor, SortKey sortKey) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: Invalid cursor!");
+        }
+        if (parts.length != 3 || !parts[0].equals(sortKey.name())) {
+            throw new IllegalArgumentException("Error: Cursor does not match the requested sort!");
+        }
+        return parts;
     }
 
     private UserResponse convertToResponse(User user) {
@@ -0,0 +1,60 @@
+package com.sagar.hr.util.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache in which concurrent misses for the same key share one load. Unlike a synchronous Caffeine
+ * {@code get(key, loader)}, the loader runs on the calling thread outside any map lock, so a loader that
+ * blocks on JDBC does not pin a virtual thread's carrier. Loads that fail or return {@code null} are not
+ * cached.
+ */
+public class SingleFlightCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public SingleFlightCache(AsyncCache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public void invalidateAll(Collection<? extends K> keys) {
+        cache.synchronous().invalidateAll(keys);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
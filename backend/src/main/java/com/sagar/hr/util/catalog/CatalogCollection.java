@@ -0,0 +1,30 @@
+package com.sagar.hr.util.catalog;
+
+/**
+ * Resource collections whose GET responses are versioned. Each has a row in {@code collection_versions}.
+ */
+public enum CatalogCollection {
+    PERMISSIONS("permissions"),
+    ROLES("roles"),
+    USERS("users"),
+    ENDPOINT_RULES("endpoint_rules");
+
+    private final String key;
+
+    CatalogCollection(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static CatalogCollection fromKey(String key) {
+        for (CatalogCollection collection : values()) {
+            if (collection.key.equals(key)) {
+                return collection;
+            }
+        }
+        return null;
+    }
+}
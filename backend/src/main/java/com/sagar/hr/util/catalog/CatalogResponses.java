@@ -0,0 +1,181 @@
+package com.sagar.hr.util.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sagar.hr.util.datasource.ReadRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GETs for catalog collections. The strong ETag is derived from the collection's version, so
+ * a request whose {@code If-None-Match} names the current version gets a 304 before anything is loaded or
+ * serialised. Otherwise the body is serialised once per version and query string: bodies of up to
+ * {@code app.catalogCacheMaxEntryBytes} are kept together with a gzipped copy until the version moves on,
+ * larger ones are built per request.
+ * <p>
+ * The gzipped representation has its own ETag ({@code -gzip} suffix), as content codings of one resource
+ * must not share a strong validator.
+ */
+@Component
+public class CatalogResponses {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final CatalogVersions catalogVersions;
+    private final ObjectMapper objectMapper;
+    private final int maxEntryBytes;
+    private final Cache<Key, Body> bodies;
+    private final Counter[] notModified;
+    private final Counter[] cached;
+    private final Counter[] loaded;
+
+    public CatalogResponses(CatalogVersions catalogVersions, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.catalogCacheMaxBytes:16777216}") long maxBytes,
+            @Value("${app.catalogCacheMaxEntryBytes:262144}") int maxEntryBytes) {
+        this.catalogVersions = catalogVersions;
+        this.objectMapper = objectMapper;
+        this.maxEntryBytes = maxEntryBytes;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Body body) -> body.json().length + body.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "catalogResponses");
+
+        int collections = CatalogCollection.values().length;
+        this.notModified = new Counter[collections];
+        this.cached = new Counter[collections];
+        this.loaded = new Counter[collections];
+        for (CatalogCollection collection : CatalogCollection.values()) {
+            notModified[collection.ordinal()] = responseCounter(meterRegistry, collection, "not_modified");
+            cached[collection.ordinal()] = responseCounter(meterRegistry, collection, "cached");
+            loaded[collection.ordinal()] = responseCounter(meterRegistry, collection, "loaded");
+        }
+    }
+
+    /**
+     * Answers a GET on {@code collection}. {@code loader} is only called when neither the client nor the
+     * cache has the current version; its result is serialised with the application's {@link ObjectMapper}.
+     */
+    public ResponseEntity<byte[]> get(CatalogCollection collection, HttpServletRequest request, Supplier<?> loader) {
+        // Read before loading, so the body is at least as new as the version it is labelled with
+        long version = catalogVersions.current(collection);
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = etag(collection, version, gzip);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag(collection, version, false))) {
+            notModified[collection.ordinal()].increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(headers(etag, false))
+                    .build();
+        }
+
+        Key key = new Key(collection, version, request.getQueryString() == null ? "" : request.getQueryString());
+        Body body = bodies.getIfPresent(key);
+        if (body != null) {
+            cached[collection.ordinal()].increment();
+            return ResponseEntity.ok().headers(headers(etag, gzip)).body(gzip ? body.gzip() : body.json());
+        }
+
+        loaded[collection.ordinal()].increment();
+        // A lagging replica could return data older than the version the body is stored under
+        byte[] json = serialise(ReadRouting.onPrimary(loader));
+        if (json.length > maxEntryBytes) {
+            return ResponseEntity.ok().headers(headers(etag, gzip)).body(gzip ? gzip(json) : json);
+        }
+        body = new Body(json, gzip(json));
+        bodies.put(key, body);
+        return ResponseEntity.ok().headers(headers(etag, gzip)).body(gzip ? body.gzip() : body.json());
+    }
+
+    private static String etag(CatalogCollection collection, long version, boolean gzip) {
+        return "\"" + collection.getKey() + "-" + version + (gzip ? GZIP_SUFFIX : "") + "\"";
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires: either coding of the current version matches.
+     */
+    private static boolean matches(String ifNoneMatch, String identityEtag) {
+        String gzipEtag = identityEtag.substring(0, identityEtag.length() - 1) + GZIP_SUFFIX + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(identityEtag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpHeaders headers(String etag, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        // Clients may keep the body but must revalidate it, which costs a 304 at most
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return headers;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private byte[] serialise(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalog response is not serialisable", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Counter responseCounter(MeterRegistry meterRegistry, CatalogCollection collection,
+            String outcome) {
+        return Counter.builder("catalog.responses")
+                .description("Catalog GETs by how they were answered")
+                .tag("collection", collection.getKey())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Key(CatalogCollection collection, long version, String query) {
+    }
+
+    private record Body(byte[] json, byte[] gzip) {
+    }
+}
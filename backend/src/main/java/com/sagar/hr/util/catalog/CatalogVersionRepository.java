@@ -0,0 +1,38 @@
+package com.sagar.hr.util.catalog;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Repository
+public class CatalogVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Increments the collection's version in the current transaction and returns the new value.
+     */
+    public long increment(CatalogCollection collection) {
+        return jdbcTemplate.queryForObject(
+                "UPDATE collection_versions SET version = version + 1 WHERE name = ? RETURNING version",
+                Long.class, collection.getKey());
+    }
+
+    public Map<CatalogCollection, Long> findAll() {
+        Map<CatalogCollection, Long> versions = new EnumMap<>(CatalogCollection.class);
+        jdbcTemplate.query("SELECT name, version FROM collection_versions", (RowCallbackHandler) rs -> {
+            CatalogCollection collection = CatalogCollection.fromKey(rs.getString("name"));
+            if (collection != null) {
+                versions.put(collection, rs.getLong("version"));
+            }
+        });
+        return versions;
+    }
+}
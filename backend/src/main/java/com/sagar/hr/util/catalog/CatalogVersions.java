@@ -0,0 +1,59 @@
+package com.sagar.hr.util.catalog;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory mirror of {@code collection_versions}, so conditional GETs are answered without a query.
+ * Bumps made on this instance take effect as soon as their transaction commits; those made by other
+ * instances, or by the triggers on tables the application never writes, arrive with the next
+ * {@link #refresh()}.
+ */
+@Service
+public class CatalogVersions {
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final AtomicLongArray versions = new AtomicLongArray(CatalogCollection.values().length);
+
+    public CatalogVersions(CatalogVersionRepository catalogVersionRepository) {
+        this.catalogVersionRepository = catalogVersionRepository;
+    }
+
+    public long current(CatalogCollection collection) {
+        return versions.get(collection.ordinal());
+    }
+
+    /**
+     * Records that the collection changed. Call it as the last statement of the writing transaction: the
+     * version row stays locked until commit, so other writers of the same collection wait for it.
+     */
+    public void bump(CatalogCollection collection) {
+        long version = catalogVersionRepository.increment(collection);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(collection, version);
+                }
+            });
+        } else {
+            advance(collection, version);
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.catalogVersionRefreshMs:1000}",
+            fixedDelayString = "${app.catalogVersionRefreshMs:1000}")
+    public void refresh() {
+        catalogVersionRepository.findAll().forEach(this::advance);
+    }
+
+    private void advance(CatalogCollection collection, long version) {
+        versions.accumulateAndGet(collection.ordinal(), version, Math::max);
+    }
+}
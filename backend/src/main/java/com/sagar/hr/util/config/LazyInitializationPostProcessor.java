@@ -0,0 +1,75 @@
+package com.sagar.hr.util.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Defers beans that no request needs on the way to readiness, such as the springdoc machinery behind
+ * {@code /v3/api-docs} and Swagger UI, until something first asks for them. Unlike
+ * {@code spring.main.lazy-initialization}, the security chain, caches and repositories stay eager, so the
+ * first real request does not pay for their construction.
+ * <p>
+ * A bean is deferred when its class, or the configuration class declaring its {@code @Bean} method, is in
+ * one of the {@code app.lazyInitPackages}. Under Spring AOT the flag is captured in the generated bean
+ * definitions as well.
+ */
+@Component
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private List<String> packages = List.of();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.packages = Binder.get(environment)
+                .bind("app.lazy-init-packages", Bindable.listOf(String.class))
+                .orElse(List.of())
+                .stream()
+                .map(prefix -> prefix.endsWith(".") ? prefix : prefix + ".")
+                .toList();
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (packages.isEmpty()) {
+            return;
+        }
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && isDeferred(declaringClass(definition))) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    private boolean isDeferred(String className) {
+        if (className == null) {
+            return false;
+        }
+        for (String prefix : packages) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String declaringClass(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
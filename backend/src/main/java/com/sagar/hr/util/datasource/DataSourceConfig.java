@@ -0,0 +1,82 @@
+package com.sagar.hr.util.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pools for the primary ({@code spring.datasource}) and any read replicas in
+ * {@code app.readReplicaUrls}. Replica pools copy the primary's Hikari settings and credentials. With no
+ * replicas configured every connection comes from the primary pool, as before.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.readReplicaUrls:}") String replicaUrls,
+            @Value("${app.readReplicaPoolSize:10}") int replicaPoolSize,
+            @Value("${app.readReplicaStrategy:round-robin}") String strategy,
+            @Value("${app.readReplicaMaxLagMs:1000}") long maxLagMs,
+            @Value("${app.readYourWritesWindowMs:5000}") long readYourWritesWindowMs) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(replicaUrls)) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url.trim());
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setMinimumIdle(Math.min(replica.getMinimumIdle(), replicaPoolSize));
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, ReplicaRoutingDataSource.Strategy.parse(strategy),
+                maxLagMs, readYourWritesWindowMs, meterRegistry);
+    }
+
+    /**
+     * The data source JPA and the JDBC templates use. Deferring the physical connection lets the router see
+     * whether the transaction is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+            HikariDataSource primaryDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(replicaRoutingDataSource);
+        // Stated up front so the proxy does not open a connection just to read them
+        dataSource.setDefaultAutoCommit(primaryDataSource.isAutoCommit());
+        if (primaryDataSource.getTransactionIsolation() != null) {
+            dataSource.setDefaultTransactionIsolationName(primaryDataSource.getTransactionIsolation());
+        } else {
+            dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,292 @@
+package com.sagar.hr.util.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary. It sits behind a
+ * {@link LazyConnectionDataSourceProxy}, so the target is chosen at the first statement, once the
+ * transaction's read-only flag is known.
+ * <p>
+ * A replica is used only while its last lag probe succeeded and reported at most {@code maxLagMs};
+ * otherwise, or when it refuses a connection, reads fall back to the primary until a later probe finds it
+ * caught up. After a principal's write commits, that principal's reads stay on the primary for the
+ * read-your-writes window so they see their own change. The window is kept per instance: behind a load
+ * balancer without sticky sessions, a read served by another instance can still miss the write.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Zero on a primary, so an independent database (e.g. a second embedded instance) counts as caught up
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END::bigint
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final long maxLagMs;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter replicaReads;
+    private final Counter primaryRequiredReads;
+    private final Counter readYourWritesReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Strategy strategy,
+            long maxLagMs, long readYourWritesWindowMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.strategy = strategy;
+        this.maxLagMs = maxLagMs;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesWindowMs))
+                .maximumSize(100_000)
+                .build();
+
+        this.replicas = new ArrayList<>(replicas.size());
+        for (HikariDataSource dataSource : replicas) {
+            Replica replica = new Replica(dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.available ? r.lagMs : -1)
+                    .description("Replication lag at the last probe in milliseconds, -1 when unreachable")
+                    .baseUnit("milliseconds")
+                    .tag("replica", dataSource.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryRequiredReads = readCounter(meterRegistry, "primary-required");
+        this.readYourWritesReads = readCounter(meterRegistry, "read-your-writes");
+        this.fallbackReads = readCounter(meterRegistry, "no-usable-replica");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markUnavailable(e);
+                fallbackReads.increment();
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Measures each replica's lag and takes it out of, or back into, rotation.
+     */
+    @Scheduled(fixedDelayString = "${app.readReplicaLagCheckMs:1000}")
+    public void probeReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                replica.update(rs.getLong(1));
+            } catch (SQLException e) {
+                replica.markUnavailable(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    /**
+     * The replica to read from, or {@code null} for the primary.
+     */
+    private Replica chooseReplica() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWriter();
+            }
+            return null;
+        }
+        if (ReadRouting.isPrimaryRequired()) {
+            primaryRequiredReads.increment();
+            return null;
+        }
+        String principal = currentPrincipal();
+        if (principal != null && recentWriters.getIfPresent(principal) != null) {
+            readYourWritesReads.increment();
+            return null;
+        }
+
+        Replica chosen = strategy == Strategy.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+        if (chosen == null) {
+            fallbackReads.increment();
+        }
+        return chosen;
+    }
+
+    /**
+     * Starts the principal's read-your-writes window when the write commits, so a long transaction does not
+     * use up the window before its change is visible.
+     */
+    private void markWriter() {
+        String principal = currentPrincipal();
+        if (principal == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(principal, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(principal, Boolean.TRUE);
+            }
+        });
+    }
+
+    private Replica roundRobin() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUsable(maxLagMs)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica leastConnections() {
+        Replica best = null;
+        int fewest = Integer.MAX_VALUE;
+        for (Replica replica : replicas) {
+            if (replica.isUsable(maxLagMs)) {
+                int active = replica.activeConnections();
+                if (active < fewest) {
+                    best = replica;
+                    fewest = active;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.reads")
+                .description("Read-only transactions by the data source they were routed to")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private final class Replica {
+        private final HikariDataSource dataSource;
+        // Out of rotation until the first probe succeeds
+        private volatile boolean available;
+        private volatile long lagMs;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isUsable(long maxLag) {
+            return available && lagMs <= maxLag;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        private void update(long measuredLagMs) {
+            boolean wasUsable = isUsable(maxLagMs);
+            lagMs = measuredLagMs;
+            available = true;
+            boolean usable = isUsable(maxLagMs);
+            if (wasUsable && !usable) {
+                logger.warn("Read replica {} is {} ms behind, routing its reads to the primary",
+                        dataSource.getPoolName(), measuredLagMs);
+            } else if (!wasUsable && usable) {
+                logger.info("Read replica {} is in rotation ({} ms behind)", dataSource.getPoolName(), measuredLagMs);
+            }
+        }
+
+        private void markUnavailable(SQLException e) {
+            if (available) {
+                logger.warn("Read replica {} is unreachable, routing its reads to the primary: {}",
+                        dataSource.getPoolName(), e.getMessage());
+            }
+            available = false;
+        }
+    }
+
+    /**
+     * How a read picks among the usable replicas.
+     */
+    public enum Strategy {
+        ROUND_ROBIN,
+        // Fewest connections in use, which favours the replica answering fastest
+        LEAST_CONNECTIONS;
+
+        public static Strategy parse(String value) {
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported read replica strategy " + value
+                        + ", expected round-robin or least-connections", e);
+            }
+        }
+    }
+}
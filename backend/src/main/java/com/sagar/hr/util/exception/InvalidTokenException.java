@@ -0,0 +1,7 @@
+package com.sagar.hr.util.exception;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,12 @@
 package com.sagar.hr.util.handler;
 
 import com.sagar.hr.util.exception.AlreadyInUseException;
+import com.sagar.hr.util.exception.InvalidTokenException;
 import com.sagar.hr.util.exception.NotAbleTOAssignException;
 import com.sagar.hr.util.exception.NotFoundException;
+import com.sagar.hr.util.exception.ServiceBusyException;
 import com.sagar.hr.util.pojo.response.GlobalApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -58,4 +61,29 @@ public class GlobalExceptionHandler {
                 .build());
     }
 
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<GlobalApiResponse> handleInvalidTokenException(InvalidTokenException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(GlobalApiResponse
+                        .builder()
+                        .httpStatus(HttpStatus.UNAUTHORIZED.value())
+                        .message(ex.getMessage())
+                        .data(null)
+                        .status(false)
+                        .build());
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<GlobalApiResponse> handleServiceBusyException(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(GlobalApiResponse
+                        .builder()
+                        .httpStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(ex.getMessage())
+                        .data(null)
+                        .status(false)
+                        .build());
+    }
+
 }
@@ -0,0 +1,16 @@
+-- Append-only history of changes to users, roles, permissions and endpoint rules, written in batches
+-- after the changing transaction commits.
+CREATE TABLE IF NOT EXISTS audit_log (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(16) NOT NULL,
+    actor VARCHAR(255) NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    changes JSONB
+);
+
+-- History of one entity, newest first
+CREATE INDEX IF NOT EXISTS idx_audit_log_entity ON audit_log (entity_type, entity_id, id DESC);
+-- History of one entity type, newest first
+CREATE INDEX IF NOT EXISTS idx_audit_log_type ON audit_log (entity_type, id DESC);
@@ -0,0 +1,34 @@
+-- One monotonic version per resource collection. Catalog GETs derive their ETags from it, so every
+-- change to a collection must bump it. The application bumps permissions and users from its write paths;
+-- roles and endpoint rules are only changed with SQL, so triggers bump those.
+CREATE TABLE IF NOT EXISTS collection_versions (
+    name VARCHAR(32) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO collection_versions (name) VALUES ('permissions'), ('roles'), ('users'), ('endpoint_rules')
+ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_collection_versions() RETURNS trigger AS $$
+BEGIN
+    UPDATE collection_versions SET version = version + 1 WHERE name = ANY (TG_ARGV);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- User listings embed role names, so renaming or deleting a role changes them too
+DROP TRIGGER IF EXISTS roles_bump_versions ON roles;
+CREATE TRIGGER roles_bump_versions AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON roles
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_collection_versions('roles', 'users');
+
+DROP TRIGGER IF EXISTS role_hierarchy_bump_versions ON role_hierarchy;
+CREATE TRIGGER role_hierarchy_bump_versions AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON role_hierarchy
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_collection_versions('roles');
+
+DROP TRIGGER IF EXISTS role_permissions_bump_versions ON role_permissions;
+CREATE TRIGGER role_permissions_bump_versions AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON role_permissions
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_collection_versions('roles');
+
+DROP TRIGGER IF EXISTS endpoint_roles_bump_versions ON endpoint_roles;
+CREATE TRIGGER endpoint_roles_bump_versions AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON endpoint_roles
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_collection_versions('endpoint_rules');
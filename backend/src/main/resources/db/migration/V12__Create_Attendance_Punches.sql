@@ -0,0 +1,35 @@
+-- Raw clock-in/clock-out events from badge readers, partitioned by month (UTC) of the punch time.
+-- A unique constraint on a partitioned table must include the partition key, so duplicates are detected
+-- on (device_id, event_id, punched_at): a device resending an event resends its original time.
+CREATE TABLE IF NOT EXISTS attendance_punches (
+    device_id VARCHAR(64) NOT NULL,
+    event_id VARCHAR(64) NOT NULL,
+    employee_id BIGINT NOT NULL,
+    direction VARCHAR(3) NOT NULL CHECK (direction IN ('IN', 'OUT')),
+    punched_at TIMESTAMPTZ NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (device_id, event_id, punched_at)
+) PARTITION BY RANGE (punched_at);
+
+CREATE INDEX IF NOT EXISTS idx_attendance_punches_employee ON attendance_punches (employee_id, punched_at);
+
+-- Punches outside every monthly partition land here rather than failing the batch they arrive in
+CREATE TABLE IF NOT EXISTS attendance_punches_default PARTITION OF attendance_punches DEFAULT;
+
+-- Creates the partition holding the given month. The application calls it ahead of time as well, see
+-- AttendancePartitionMaintainer.
+CREATE OR REPLACE FUNCTION create_attendance_punch_partition(month DATE) RETURNS VOID AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month)::date;
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF attendance_punches FOR VALUES FROM (%L) TO (%L)',
+                   'attendance_punches_' || to_char(start_date, 'YYYY_MM'),
+                   start_date::timestamp AT TIME ZONE 'UTC',
+                   (start_date + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_attendance_punch_partition(month::date)
+FROM generate_series(date_trunc('month', now() AT TIME ZONE 'UTC') - INTERVAL '12 months',
+                     date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months',
+                     INTERVAL '1 month') AS month;
@@ -0,0 +1,53 @@
+-- Team of each employee for attendance reporting. Days are attributed to the team the employee was in
+-- when the day was last rolled up.
+CREATE TABLE IF NOT EXISTS attendance_employee_teams (
+    employee_id BIGINT PRIMARY KEY,
+    team VARCHAR(64) NOT NULL
+);
+
+-- One row per employee and working day (in app.attendanceZone) with at least one punch
+CREATE TABLE IF NOT EXISTS attendance_daily (
+    employee_id BIGINT NOT NULL,
+    work_date DATE NOT NULL,
+    team VARCHAR(64) NOT NULL,
+    first_in TIMESTAMPTZ,
+    last_out TIMESTAMPTZ,
+    worked_minutes INT NOT NULL,
+    late BOOLEAN NOT NULL,
+    punches INT NOT NULL,
+    PRIMARY KEY (employee_id, work_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_attendance_daily_team_date ON attendance_daily (team, work_date);
+CREATE INDEX IF NOT EXISTS idx_attendance_daily_date ON attendance_daily (work_date);
+
+-- Per-team sums of attendance_daily, maintained by applying each day's change as a delta
+CREATE TABLE IF NOT EXISTS attendance_team_weekly (
+    team VARCHAR(64) NOT NULL,
+    week_start DATE NOT NULL,
+    present_days INT NOT NULL,
+    late_days INT NOT NULL,
+    worked_minutes BIGINT NOT NULL,
+    PRIMARY KEY (team, week_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_attendance_team_weekly_start ON attendance_team_weekly (week_start);
+
+CREATE TABLE IF NOT EXISTS attendance_team_monthly (
+    team VARCHAR(64) NOT NULL,
+    month_start DATE NOT NULL,
+    present_days INT NOT NULL,
+    late_days INT NOT NULL,
+    worked_minutes BIGINT NOT NULL,
+    PRIMARY KEY (team, month_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_attendance_team_monthly_start ON attendance_team_monthly (month_start);
+
+-- Employee days whose punches changed since they were last rolled up. Written in the same transaction
+-- as the punches, so no change is lost if the application stops before rolling it up.
+CREATE TABLE IF NOT EXISTS attendance_rollup_queue (
+    employee_id BIGINT NOT NULL,
+    work_date DATE NOT NULL,
+    PRIMARY KEY (employee_id, work_date)
+);
@@ -0,0 +1,37 @@
+-- Punch log files exported by badge terminals and imported in bulk. The file itself stays on disk under
+-- app.attendanceImportDir until the import completes.
+CREATE TABLE IF NOT EXISTS attendance_imports (
+    id BIGSERIAL PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    stored_path VARCHAR(1024) NOT NULL,
+    format VARCHAR(16) NOT NULL CHECK (format IN ('CSV', 'FIXED_WIDTH')),
+    has_header BOOLEAN NOT NULL,
+    zone VARCHAR(64) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED')),
+    -- Instance working on a RUNNING import; another instance takes it over once heartbeat_at is stale
+    owner VARCHAR(64),
+    heartbeat_at TIMESTAMPTZ,
+    error TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    completed_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_attendance_imports_open ON attendance_imports (created_at)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+-- Byte ranges of an import's file, each starting at a record boundary, parsed in parallel. committed_offset
+-- moves forward in the same transaction as the punches it covers, so a restarted import continues from
+-- there without storing anything twice.
+CREATE TABLE IF NOT EXISTS attendance_import_chunks (
+    import_id BIGINT NOT NULL REFERENCES attendance_imports (id) ON DELETE CASCADE,
+    chunk_no INT NOT NULL,
+    start_offset BIGINT NOT NULL,
+    end_offset BIGINT NOT NULL,
+    committed_offset BIGINT NOT NULL,
+    imported BIGINT NOT NULL DEFAULT 0,
+    duplicates BIGINT NOT NULL DEFAULT 0,
+    rejected BIGINT NOT NULL DEFAULT 0,
+    first_error VARCHAR(512),
+    PRIMARY KEY (import_id, chunk_no)
+);
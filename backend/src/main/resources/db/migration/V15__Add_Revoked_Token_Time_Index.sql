@@ -0,0 +1,2 @@
+-- The revocation list refreshes by revoked_at rather than by id, since ids do not commit in order
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
@@ -0,0 +1,3 @@
+-- Bumped whenever a user's effective roles or permissions change, so tokens that embed
+-- authorities can be recognised as stale.
+ALTER TABLE users ADD COLUMN authz_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- A parent role implicitly holds every role reachable below it.
+CREATE TABLE IF NOT EXISTS role_hierarchy (
+    parent_role_id BIGINT NOT NULL,
+    child_role_id BIGINT NOT NULL,
+    PRIMARY KEY (parent_role_id, child_role_id),
+    CONSTRAINT fk_role_hierarchy_parent FOREIGN KEY (parent_role_id) REFERENCES roles (id),
+    CONSTRAINT fk_role_hierarchy_child FOREIGN KEY (child_role_id) REFERENCES roles (id)
+);
+
+-- Seed the hierarchy previously hardcoded in SecurityConfig
+INSERT INTO role_hierarchy (parent_role_id, child_role_id)
+SELECT p.id, c.id
+FROM roles p, roles c
+WHERE (p.name, c.name) IN (('ROLE_SUPER_ADMIN', 'ROLE_ADMIN'),
+                           ('ROLE_ADMIN', 'ROLE_MODERATOR'),
+                           ('ROLE_MODERATOR', 'ROLE_USER'))
+ON CONFLICT DO NOTHING;
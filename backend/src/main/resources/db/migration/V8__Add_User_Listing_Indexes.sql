@@ -0,0 +1,3 @@
+-- Keyset pagination orders by (sort column, id); these let each page be read straight off an index.
+CREATE INDEX IF NOT EXISTS idx_users_username_id ON users (username, id);
+CREATE INDEX IF NOT EXISTS idx_users_email_id ON users (email, id);
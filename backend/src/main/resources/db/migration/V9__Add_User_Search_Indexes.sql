@@ -0,0 +1,14 @@
+-- Backs GET /api/v1/users/search, which matches lower(username) and lower(email) with LIKE.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Prefix matches ('abc%') use the btree; text_pattern_ops makes LIKE usable regardless of collation.
+CREATE INDEX IF NOT EXISTS idx_users_username_lower_pattern ON users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_pattern ON users (lower(email) text_pattern_ops);
+
+-- Substring matches ('%abc%') use trigrams.
+CREATE INDEX IF NOT EXISTS idx_users_username_lower_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_trgm ON users USING gin (lower(email) gin_trgm_ops);
+
+-- The primary key (user_id, role_id) cannot serve lookups by role: role filters, findIdsByRoleName and
+-- bulk role changes all need this one.
+CREATE INDEX IF NOT EXISTS idx_user_roles_role_id ON user_roles (role_id, user_id);
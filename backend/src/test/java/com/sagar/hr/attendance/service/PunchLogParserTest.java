@@ -0,0 +1,153 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The COPY rows {@link PunchLogParser} emits for valid records and the reasons it gives for invalid ones.
+ * Rows are shown with {@code |} for the tab between columns.
+ */
+class PunchLogParserTest {
+
+    private static final String LAYOUT =
+            "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=45-59";
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            // ISO times, with a T or a space, local or with an offset
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30;              dev-1|evt-1|42|IN|2024-03-05 08:15:30|\\N",
+            "dev-1,evt-1,42,OUT,2024-03-05 08:15:30Z;            dev-1|evt-1|42|OUT|2024-03-05 08:15:30|0",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30z;             dev-1|evt-1|42|IN|2024-03-05 08:15:30|0",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30+05:45;        dev-1|evt-1|42|IN|2024-03-05 08:15:30|345",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30-0330;         dev-1|evt-1|42|IN|2024-03-05 08:15:30|-210",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30-03;           dev-1|evt-1|42|IN|2024-03-05 08:15:30|-180",
+            // Compact times
+            "dev-1,evt-1,42,IN,20240305081530;                   dev-1|evt-1|42|IN|2024-03-05 08:15:30|\\N",
+            "dev-1,evt-1,42,IN,20240305081530+01;                dev-1|evt-1|42|IN|2024-03-05 08:15:30|60",
+            // Fractions are kept to microseconds
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30.5;            dev-1|evt-1|42|IN|2024-03-05 08:15:30.5|\\N",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30.1234567+05:45; dev-1|evt-1|42|IN|2024-03-05 08:15:30.123456|345",
+            // Leap day
+            "dev-1,evt-1,42,IN,2024-02-29T23:59:59;              dev-1|evt-1|42|IN|2024-02-29 23:59:59|\\N",
+            // Directions in any case and short form
+            "dev-1,evt-1,42,i,2024-03-05T08:15:30;               dev-1|evt-1|42|IN|2024-03-05 08:15:30|\\N",
+            "dev-1,evt-1,42,o,2024-03-05T08:15:30;               dev-1|evt-1|42|OUT|2024-03-05 08:15:30|\\N",
+            "dev-1,evt-1,42,Out,2024-03-05T08:15:30;             dev-1|evt-1|42|OUT|2024-03-05 08:15:30|\\N",
+            // Padding and quotes are dropped
+            "' \"dev 1\" , \"evt-1\" , 42 , in ,\"2024-03-05T08:15:30\" '; dev 1|evt-1|42|IN|2024-03-05 08:15:30|\\N",
+    })
+    void emitsCopyRowsForValidCsvRecords(String record, String row) {
+        assertThat(parse(new PunchLogParser(PunchLogFormat.CSV, layout()), record)).isEqualTo(row);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "dev-1,evt-1,42,IN;                                       Error: A record needs 5 comma-separated fields!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30,extra;             Error: A record needs 5 comma-separated fields!",
+            "'';                                                      Error: A record needs 5 comma-separated fields!",
+            ",evt-1,42,IN,2024-03-05T08:15:30;                        Error: deviceId must be 1 to 64 printable ASCII characters without a backslash!",
+            "dev\\1,evt-1,42,IN,2024-03-05T08:15:30;                  Error: deviceId must be 1 to 64 printable ASCII characters without a backslash!",
+            "dev-1,\"\",42,IN,2024-03-05T08:15:30;                    Error: eventId must be 1 to 64 printable ASCII characters without a backslash!",
+            "dev-1,evt-1,4x2,IN,2024-03-05T08:15:30;                  Error: employeeId must be 1 to 18 digits!",
+            "dev-1,evt-1,-42,IN,2024-03-05T08:15:30;                  Error: employeeId must be 1 to 18 digits!",
+            "dev-1,evt-1,1234567890123456789,IN,2024-03-05T08:15:30;  Error: employeeId must be 1 to 18 digits!",
+            "dev-1,evt-1,42,INN,2024-03-05T08:15:30;                  Error: direction must be IN or OUT!",
+            "dev-1,evt-1,42,X,2024-03-05T08:15:30;                    Error: direction must be IN or OUT!",
+            "dev-1,evt-1,42,,2024-03-05T08:15:30;                     Error: direction must be IN or OUT!",
+            "dev-1,evt-1,42,IN,2023-02-29T08:15:30;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-13-05T08:15:30;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T24:00:00;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:60:00;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,1969-12-31T23:59:59;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15;                      Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024/03/05T08:15:30;                   Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30.;                  Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30Zx;                 Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30+19:00;             Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30+05:60;             Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30+5;                 Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024-03-05T08:15:30 UTC;               Error: punchedAt is not a valid time!",
+            "dev-1,evt-1,42,IN,2024030508153;                         Error: punchedAt is not a valid time!",
+    })
+    void rejectsInvalidCsvRecords(String record, String error) {
+        assertThat(parse(new PunchLogParser(PunchLogFormat.CSV, layout()), record)).isEqualTo(error);
+    }
+
+    @Test
+    void rejectsIdsLongerThan64Bytes() {
+        PunchLogParser parser = new PunchLogParser(PunchLogFormat.CSV, layout());
+
+        assertThat(parse(parser, "d".repeat(64) + ",evt-1,42,IN,2024-03-05T08:15:30"))
+                .startsWith("d".repeat(64) + "|");
+        assertThat(parse(parser, "d".repeat(65) + ",evt-1,42,IN,2024-03-05T08:15:30"))
+                .isEqualTo("Error: deviceId must be 1 to 64 printable ASCII characters without a backslash!");
+    }
+
+    @Test
+    void reusesItsRowBufferAcrossRecords() {
+        PunchLogParser parser = new PunchLogParser(PunchLogFormat.CSV, layout());
+
+        assertThat(parse(parser, "device-long,event-long,123456,OUT,2024-03-05T08:15:30.123456+05:45"))
+                .isEqualTo("device-long|event-long|123456|OUT|2024-03-05 08:15:30.123456|345");
+        assertThat(parse(parser, "d,e,1,I,20240305081530"))
+                .isEqualTo("d|e|1|IN|2024-03-05 08:15:30|\\N");
+    }
+
+    @Test
+    void parsesFixedWidthRecords() {
+        PunchLogParser parser = new PunchLogParser(PunchLogFormat.FIXED_WIDTH, layout());
+        String record = "DEV0000001" + "EVT-000000000000001 " + "000000000042" + "IN " + "20240305081530";
+
+        assertThat(parse(parser, record)).isEqualTo("DEV0000001|EVT-000000000000001|000000000042|IN|2024-03-05 08:15:30|\\N");
+        assertThat(parse(parser, record + "trailing")).isEqualTo(parse(parser, record));
+        assertThat(parse(parser, record.substring(0, record.length() - 1)))
+                .isEqualTo("Error: Record is shorter than the fixed-width layout!");
+    }
+
+    @Test
+    void parsesLayouts() {
+        int[][] layout = PunchLogParser.parseLayout(
+                " punchedAt=45-59, deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45");
+
+        assertThat(layout).isDeepEqualTo(new int[][] {{0, 10}, {10, 30}, {30, 42}, {42, 45}, {45, 59}});
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45",
+            "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=59-45",
+            "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=45",
+            "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,clockedAt=45-59",
+    })
+    void rejectsInvalidLayouts(String layout) {
+        assertThatThrownBy(() -> PunchLogParser.parseLayout(layout)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Parses {@code record} placed at an offset inside a larger buffer, as in a mapped chunk, and returns
+     * its row without the line feed, or the rejection reason.
+     */
+    private static String parse(PunchLogParser parser, String record) {
+        byte[] bytes = ("xx\n" + record + "\nyy").getBytes(StandardCharsets.US_ASCII);
+        String error = parser.parse(ByteBuffer.wrap(bytes), 3, 3 + record.length());
+        if (error != null) {
+            return error;
+        }
+        String row = new String(parser.row(), 0, parser.rowLength(), StandardCharsets.US_ASCII);
+        assertThat(row).endsWith("\n");
+        return row.substring(0, row.length() - 1).replace('\t', '|');
+    }
+
+    private static int[][] layout() {
+        return PunchLogParser.parseLayout(LAYOUT);
+    }
+}
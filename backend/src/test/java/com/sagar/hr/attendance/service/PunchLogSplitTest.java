@@ -0,0 +1,139 @@
+package com.sagar.hr.attendance.service;
+
+import com.sagar.hr.attendance.model.PunchLogFormat;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Splits punch logs into chunks at every chunk size from one byte to the whole file, walks each chunk with
+ * {@link PunchLogImportService.ChunkCursor} in small batches, and checks that every record is read from
+ * exactly one chunk, in file order.
+ */
+class PunchLogSplitTest {
+
+    private static final String HEADER = "deviceId,eventId,employeeId,direction,punchedAt";
+    private static final List<String> RECORDS = List.of(
+            "dev-1,evt-1,1,IN,2024-03-05T08:00:00",
+            "dev-1,evt-2,2,IN,2024-03-05T08:01:00",
+            "dev-2,evt-3,12345,OUT,2024-03-05T17:30:00.250+05:45",
+            "not a record",
+            "dev-2,evt-4,3,O,20240305173100",
+            "dev-3,evt-5,4,I,2024-03-05 23:59:59Z");
+    private static final int INVALID_RECORDS = 1;
+
+    @TempDir
+    Path dir;
+
+    static Stream<Arguments> logs() {
+        return Stream.of(
+                Arguments.of("LF", false, "\n", true),
+                Arguments.of("LF, header", true, "\n", true),
+                Arguments.of("LF, no final line break", false, "\n", false),
+                Arguments.of("LF, header, no final line break", true, "\n", false),
+                Arguments.of("CRLF", false, "\r\n", true),
+                Arguments.of("CRLF, header", true, "\r\n", true),
+                Arguments.of("CRLF, header, no final line break", true, "\r\n", false));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("logs")
+    void readsEveryRecordFromExactlyOneChunk(String name, boolean hasHeader, String lineBreak, boolean finalBreak)
+            throws IOException {
+        StringBuilder content = new StringBuilder();
+        if (hasHeader) {
+            content.append(HEADER).append(lineBreak);
+        }
+        content.append(String.join(lineBreak, RECORDS));
+        if (finalBreak) {
+            content.append(lineBreak);
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.US_ASCII);
+        Path file = Files.write(dir.resolve("punches.csv"), bytes);
+        long dataStart = hasHeader ? HEADER.length() + lineBreak.length() : 0;
+
+        List<String> expected = new ArrayList<>();
+        for (String record : RECORDS) {
+            if (!record.equals("not a record")) {
+                expected.add(row(record));
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long chunkBytes = 1; chunkBytes <= bytes.length; chunkBytes++) {
+                List<long[]> ranges = PunchLogImportService.split(channel, hasHeader, chunkBytes);
+
+                assertThat(ranges).isNotEmpty();
+                assertThat(ranges.get(0)[0]).isEqualTo(dataStart);
+                assertThat(ranges.get(ranges.size() - 1)[1]).isEqualTo(bytes.length);
+                for (int i = 0; i < ranges.size(); i++) {
+                    long[] range = ranges.get(i);
+                    assertThat(range[1]).as("chunk %d of %d-byte chunks", i, chunkBytes).isGreaterThan(range[0]);
+                    if (i > 0) {
+                        assertThat(range[0]).isEqualTo(ranges.get(i - 1)[1]);
+                    }
+                    if (range[1] < bytes.length) {
+                        assertThat(bytes[(int) range[1] - 1]).isEqualTo((byte) '\n');
+                    }
+                }
+
+                List<String> rows = new ArrayList<>();
+                long rejected = 0;
+                for (long[] range : ranges) {
+                    ByteBuffer chunk = ByteBuffer.wrap(Arrays.copyOfRange(bytes, (int) range[0], (int) range[1]));
+                    rejected += readChunk(chunk, range[0], rows);
+                }
+                assertThat(rows).as("%d-byte chunks", chunkBytes).isEqualTo(expected);
+                assertThat(rejected).as("%d-byte chunks", chunkBytes).isEqualTo(INVALID_RECORDS);
+            }
+        }
+    }
+
+    /**
+     * Copies a chunk two records per batch, as the import does with {@code app.attendanceImportBatchRows},
+     * and returns the number of rejected records.
+     */
+    private static long readChunk(ByteBuffer chunk, long base, List<String> rows) throws IOException {
+        PunchLogImportService.ChunkCursor cursor = new PunchLogImportService.ChunkCursor(chunk, base,
+                new PunchLogParser(PunchLogFormat.CSV, PunchLogParser.parseLayout(
+                        "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=45-59")),
+                2, false);
+        long rejected = 0;
+        while (cursor.hasMore()) {
+            cursor.startBatch();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            cursor.copyBatch(copy);
+            cursor.commit();
+            rejected += cursor.rejected;
+            String batch = copy.toString(StandardCharsets.US_ASCII);
+            if (!batch.isEmpty()) {
+                rows.addAll(List.of(batch.split("\n")));
+            }
+        }
+        return rejected;
+    }
+
+    private static String row(String record) {
+        PunchLogParser parser = new PunchLogParser(PunchLogFormat.CSV, PunchLogParser.parseLayout(
+                "deviceId=0-10,eventId=10-30,employeeId=30-42,direction=42-45,punchedAt=45-59"));
+        byte[] bytes = record.getBytes(StandardCharsets.US_ASCII);
+        assertThat(parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length)).isNull();
+        return new String(parser.row(), 0, parser.rowLength() - 1, StandardCharsets.US_ASCII);
+    }
+}
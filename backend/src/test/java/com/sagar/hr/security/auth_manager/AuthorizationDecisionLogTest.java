@@ -0,0 +1,180 @@
+package com.sagar.hr.security.auth_manager;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fills {@link AuthorizationDecisionLog}'s ring buffer from several threads, with and without the drainer
+ * running, and checks that every recorded event is written exactly once, in each producer's order, and
+ * that every event that did not fit is counted as dropped.
+ */
+class AuthorizationDecisionLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Logger decisionLogger;
+
+    @BeforeEach
+    void captureDecisions() {
+        decisionLogger = (Logger) LoggerFactory.getLogger(AuthorizationDecisionLog.LOGGER_NAME);
+        decisionLogger.setLevel(Level.INFO);
+        decisionLogger.setAdditive(false);
+        appender.start();
+        decisionLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void releaseDecisions() {
+        decisionLogger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 2", "1, 2", "2, 2", "3, 4", "4, 4", "5, 8", "1000, 1024", "1024, 1024", "1025, 2048"})
+    void roundsCapacityUpToAPowerOfTwo(int requested, int capacity) throws Exception {
+        AuthorizationDecisionLog log = decisionLog(requested, capacity);
+        // The second pass reuses the slots the first drain freed
+        for (long pass = 1; pass <= 2; pass++) {
+            for (int i = 0; i < capacity + 10; i++) {
+                record(log, pass, i);
+            }
+            assertThat(dropped()).isEqualTo(10 * pass);
+            log.start();
+            log.stop();
+        }
+
+        List<Long> expected = new ArrayList<>(capacity);
+        for (long i = 0; i < capacity; i++) {
+            expected.add(i);
+        }
+        assertThat(writtenByPrincipal()).containsOnlyKeys(1L, 2L)
+                .containsEntry(1L, expected)
+                .containsEntry(2L, expected);
+    }
+
+    @Test
+    void countsEveryEventThatDoesNotFitWhileNothingDrains() throws Exception {
+        int producers = 8;
+        int perProducer = 1_000;
+        int capacity = 1024;
+        AuthorizationDecisionLog log = decisionLog(capacity, capacity);
+
+        runProducers(log, producers, perProducer);
+
+        assertThat(dropped()).isEqualTo(producers * perProducer - capacity);
+        log.start();
+        log.stop();
+        assertThat(appender.list).hasSize(capacity);
+        assertWrittenOnceInProducerOrder(producers, perProducer);
+    }
+
+    @Test
+    void writesEveryAcceptedEventExactlyOnceWhileDraining() throws Exception {
+        int producers = 8;
+        int perProducer = 50_000;
+        // Small enough that producers wrap around the drainer and some events are dropped
+        AuthorizationDecisionLog log = decisionLog(64, 64);
+        log.start();
+
+        runProducers(log, producers, perProducer);
+        log.stop();
+
+        assertThat(appender.list.size() + dropped()).isEqualTo(producers * perProducer);
+        assertWrittenOnceInProducerOrder(producers, perProducer);
+    }
+
+    private AuthorizationDecisionLog decisionLog(int capacity, int batchSize) {
+        return new AuthorizationDecisionLog(meterRegistry, capacity, 1.0, 1.0, batchSize, 1);
+    }
+
+    /**
+     * Records {@code perProducer} events from each of {@code producers} threads, released together. Each event
+     * carries its producer as the principal and its position as the rule.
+     */
+    private static void runProducers(AuthorizationDecisionLog log, int producers, int perProducer)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(producers);
+        for (int p = 0; p < producers; p++) {
+            long principalId = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    record(log, principalId, i);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void record(AuthorizationDecisionLog log, long principalId, long ruleId) {
+        log.record(principalId, "GET", "/api/v1/permissions", ruleId, true,
+                AuthorizationDecisionLog.Reason.RULE, 1_000);
+    }
+
+    /**
+     * Checks that each producer's written events are strictly increasing, so none is duplicated or reordered,
+     * and that they all come from a producer and a position that was recorded.
+     */
+    private void assertWrittenOnceInProducerOrder(int producers, int perProducer) throws Exception {
+        Map<Long, List<Long>> writtenByPrincipal = writtenByPrincipal();
+        long written = 0;
+        for (long p = 0; p < producers; p++) {
+            List<Long> ruleIds = writtenByPrincipal.getOrDefault(p, List.of());
+            for (int i = 1; i < ruleIds.size(); i++) {
+                assertThat(ruleIds.get(i)).as("producer %d", p).isGreaterThan(ruleIds.get(i - 1));
+            }
+            if (!ruleIds.isEmpty()) {
+                assertThat(ruleIds.get(0)).isNotNegative();
+                assertThat(ruleIds.get(ruleIds.size() - 1)).isLessThan(perProducer);
+            }
+            written += ruleIds.size();
+        }
+        assertThat(written).as("events from known producers").isEqualTo(appender.list.size());
+    }
+
+    /**
+     * The rule of every written event, grouped by principal in the order they were written.
+     */
+    private Map<Long, List<Long>> writtenByPrincipal() throws Exception {
+        Map<Long, List<Long>> ruleIds = new HashMap<>();
+        for (ILoggingEvent event : appender.list) {
+            JsonNode decision = objectMapper.readTree(event.getFormattedMessage());
+            ruleIds.computeIfAbsent(decision.get("principalId").asLong(), principalId -> new ArrayList<>())
+                    .add(decision.get("ruleId").asLong());
+        }
+        return ruleIds;
+    }
+
+    private long dropped() {
+        return (long) meterRegistry.counter("authz.decision.log.dropped").count();
+    }
+}
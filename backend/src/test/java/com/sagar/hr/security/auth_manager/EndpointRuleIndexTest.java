@@ -0,0 +1,158 @@
+package com.sagar.hr.security.auth_manager;
+
+import com.sagar.hr.permission.repository.PermissionRepository;
+import com.sagar.hr.security.model.EndpointRole;
+import com.sagar.hr.security.model.Role;
+import com.sagar.hr.security.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks {@link EndpointRuleIndex#match} against {@link AntPathMatcher#match}, which it replaces, for the
+ * rules the migrations and load-test seed create plus patterns and paths at the edges of Ant matching.
+ */
+class EndpointRuleIndexTest {
+
+    private static final List<String> PATTERNS = List.of(
+            // Seeded
+            "/api/v1/permissions",
+            "/api/v1/load/module3/**",
+            "/api/v1/load/module1/{id}",
+            "/api/v1/load/module2/items/*/details",
+            // Edge cases
+            "/**",
+            "/api/**",
+            "/api/**/edit",
+            "/api/**/items/**/details",
+            "/api/**/**",
+            "/api/**/*",
+            "/**/x/*",
+            "/api/*",
+            "/api/*/",
+            "/api/v1/users/",
+            "/api/v1/users/{id:\\d+}",
+            "/api/v1/users/{id}/roles/{roleId}",
+            "/api/v1/files/*.json",
+            "/api/v1/reports/?ear",
+            "/api/v1/a*/b",
+            "api/v1/relative");
+
+    private static final AntPathMatcher ANT_MATCHER = new AntPathMatcher();
+
+    private static final EndpointRuleIndex INDEX = EndpointRuleIndex.compile(rules("GET"), catalog());
+
+    static Stream<String> paths() {
+        return Stream.of(
+                "/",
+                "/api",
+                "/api/",
+                "/api/x",
+                "/api/x/",
+                "/api/x/y",
+                "/api/x/y/",
+                "/x/",
+                "/a/x/",
+                "/a/x/y",
+                "/api/edit",
+                "/api/edit/",
+                "/api/x/edit",
+                "/api/x/y/edit",
+                "/api/x/edit/",
+                "/api/x/edit/more",
+                "/api/items/details",
+                "/api/a/items/b/c/details",
+                "/api/a/items/b/c/details/",
+                "/api/v1/permissions",
+                "/api/v1/permissions/",
+                "//api//v1/permissions",
+                "/api/v1/load/module3",
+                "/api/v1/load/module3/",
+                "/api/v1/load/module3/x/y",
+                "/api/v1/load/module1",
+                "/api/v1/load/module1/42",
+                "/api/v1/load/module1/42/",
+                "/api/v1/load/module1/42/x",
+                "/api/v1/load/module2/items/7/details",
+                "/api/v1/load/module2/items/details",
+                "/api/v1/load/module2/items/7/details/",
+                "/api/v1/users",
+                "/api/v1/users/",
+                "/api/v1/users/12",
+                "/api/v1/users/abc",
+                "/api/v1/users/5/roles/6",
+                "/api/v1/users/5/roles/",
+                "/api/v1/files/a.json",
+                "/api/v1/files/a.xml",
+                "/api/v1/reports/year",
+                "/api/v1/reports/yyear",
+                "/api/v1/abc/b",
+                "/api/v1/b",
+                "/api/v1/relative",
+                "api/v1/relative");
+    }
+
+    @ParameterizedTest
+    @MethodSource("paths")
+    void matchesLikeAntPathMatcher(String path) {
+        Set<String> expected = new TreeSet<>();
+        for (String pattern : PATTERNS) {
+            if (ANT_MATCHER.match(pattern, path)) {
+                expected.add(pattern);
+            }
+        }
+
+        assertThat(matchedPatterns(INDEX.match("GET", path))).isEqualTo(expected);
+    }
+
+    @Test
+    void matchesOnlyRulesOfTheRequestMethod() {
+        List<EndpointRole> endpointRoles = new ArrayList<>(rules("GET"));
+        endpointRoles.add(endpointRole(PATTERNS.size(), "/api/v1/permissions", "post"));
+        EndpointRuleIndex index = EndpointRuleIndex.compile(endpointRoles, catalog());
+
+        assertThat(matchedPatterns(index.match("POST", "/api/v1/permissions")))
+                .containsExactly("/api/v1/permissions");
+        assertThat(matchedPatterns(index.match("post", "/api/v1/permissions")))
+                .containsExactly("/api/v1/permissions");
+        assertThat(index.match("DELETE", "/api/v1/permissions")).isEmpty();
+    }
+
+    private static Set<String> matchedPatterns(List<EndpointRuleIndex.Rule> rules) {
+        Set<String> patterns = new TreeSet<>();
+        for (EndpointRuleIndex.Rule rule : rules) {
+            patterns.add(rule.urlPattern());
+        }
+        return patterns;
+    }
+
+    private static List<EndpointRole> rules(String httpMethod) {
+        List<EndpointRole> endpointRoles = new ArrayList<>(PATTERNS.size());
+        for (int i = 0; i < PATTERNS.size(); i++) {
+            endpointRoles.add(endpointRole(i, PATTERNS.get(i), httpMethod));
+        }
+        return endpointRoles;
+    }
+
+    private static EndpointRole endpointRole(long id, String urlPattern, String httpMethod) {
+        EndpointRole endpointRole = new EndpointRole(urlPattern, httpMethod, new Role("ROLE_USER"));
+        endpointRole.setId(id + 1);
+        return endpointRole;
+    }
+
+    private static RbacCatalog catalog() {
+        return new RbacCatalog(mock(RoleRepository.class), mock(PermissionRepository.class),
+                mock(PlatformTransactionManager.class), 100);
+    }
+}
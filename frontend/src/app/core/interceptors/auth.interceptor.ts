@@ -1,18 +1,29 @@
-import { HttpInterceptorFn } from '@angular/common/http';
+import { HttpErrorResponse, HttpInterceptorFn, HttpRequest } from '@angular/common/http';
 import { inject } from '@angular/core';
+import { throwError } from 'rxjs';
+import { catchError, switchMap } from 'rxjs/operators';
 import { AuthService } from '../services/auth.service';
 
+const withToken = (req: HttpRequest<unknown>, token: string | null) =>
+  token ? req.clone({ setHeaders: { Authorization: `Bearer ${token}` } }) : req;
+
 export const authInterceptor: HttpInterceptorFn = (req, next) => {
   const authService = inject(AuthService);
-  const token = authService.token();
 
-  if (token) {
-    req = req.clone({
-      setHeaders: {
-        Authorization: `Bearer ${token}`
-      }
-    });
+  // Auth endpoints carry their own credentials and must not trigger a refresh loop
+  if (req.url.includes('/api/v1/auth/')) {
+    return next(req);
   }
 
-  return next(req);
+  return next(withToken(req, authService.token())).pipe(
+    catchError(error => {
+      if (!(error instanceof HttpErrorResponse) || error.status !== 401 || !authService.token()) {
+        return throwError(() => error);
+      }
+      // Access tokens are short-lived: renew once and replay the request
+      return authService.refresh().pipe(
+        switchMap(response => next(withToken(req, response.token)))
+      );
+    })
+  );
 };
@@ -5,10 +5,22 @@ export interface User {
   roles: string[];
 }
 
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  limit: number;
+}
+
 export interface AuthResponse {
   token: string;
+  refreshToken: string;
   username: string;
   roles: string[];
   type: string;
   id: number;
 }
+
+export interface AvailabilityResponse {
+  usernameAvailable: boolean | null;
+  emailAvailable: boolean | null;
+}
@@ -1,7 +1,8 @@
 import { Injectable, inject, signal } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { User, AuthResponse } from '../models/user.model';
-import { tap } from 'rxjs/operators';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
+import { User, AuthResponse, AvailabilityResponse } from '../models/user.model';
+import { Observable, throwError } from 'rxjs';
+import { catchError, finalize, shareReplay, tap } from 'rxjs/operators';
 
 @Injectable({
   providedIn: 'root'
@@ -12,6 +13,8 @@ export class AuthService {
 
   currentUser = signal<User | null>(null);
   token = signal<string | null>(localStorage.getItem('token'));
+  private refreshToken = localStorage.getItem('refreshToken');
+  private refreshInFlight: Observable<AuthResponse> | null = null;
 
   constructor() {
     const savedUser = localStorage.getItem('user');
@@ -22,18 +25,7 @@ export class AuthService {
 
   login(credentials: { username: string; password: string }) {
     return this.http.post<AuthResponse>(`${this.API_URL}/signin`, credentials).pipe(
-      tap(response => {
-        const user: User = {
-          id: response.id,
-          username: response.username,
-          email: '', // Backend response might not have email in signin, or add placeholder
-          roles: response.roles
-        };
-        this.currentUser.set(user);
-        this.token.set(response.token);
-        localStorage.setItem('token', response.token);
-        localStorage.setItem('user', JSON.stringify(user));
-      })
+      tap(response => this.storeSession(response))
     );
   }
 
@@ -41,14 +33,67 @@ export class AuthService {
     return this.http.post(`${this.API_URL}/signup`, userData);
   }
 
+  checkAvailability(query: { username?: string; email?: string }) {
+    let params = new HttpParams();
+    if (query.username) params = params.set('username', query.username);
+    if (query.email) params = params.set('email', query.email);
+    return this.http.get<AvailabilityResponse>(`${this.API_URL}/availability`, { params });
+  }
+
+  // Concurrent 401s share one refresh call; the server rejects a refresh token presented twice
+  refresh(): Observable<AuthResponse> {
+    if (!this.refreshToken) {
+      return throwError(() => new Error('No refresh token'));
+    }
+    if (!this.refreshInFlight) {
+      this.refreshInFlight = this.http.post<AuthResponse>(`${this.API_URL}/refresh`, { refreshToken: this.refreshToken }).pipe(
+        tap(response => this.storeSession(response)),
+        catchError(error => {
+          this.clearSession();
+          return throwError(() => error);
+        }),
+        finalize(() => this.refreshInFlight = null),
+        shareReplay(1)
+      );
+    }
+    return this.refreshInFlight;
+  }
+
   logout() {
-    this.currentUser.set(null);
-    this.token.set(null);
-    localStorage.removeItem('token');
-    localStorage.removeItem('user');
+    const token = this.token();
+    if (token || this.refreshToken) {
+      const headers = token ? new HttpHeaders({ Authorization: `Bearer ${token}` }) : undefined;
+      this.http.post(`${this.API_URL}/signout`, { refreshToken: this.refreshToken }, { headers })
+        .subscribe({ error: () => {} });
+    }
+    this.clearSession();
   }
 
   isAuthenticated(): boolean {
     return !!this.token();
   }
+
+  private storeSession(response: AuthResponse) {
+    const user: User = {
+      id: response.id,
+      username: response.username,
+      email: '', // Backend response might not have email in signin, or add placeholder
+      roles: response.roles
+    };
+    this.currentUser.set(user);
+    this.token.set(response.token);
+    this.refreshToken = response.refreshToken;
+    localStorage.setItem('token', response.token);
+    localStorage.setItem('refreshToken', response.refreshToken);
+    localStorage.setItem('user', JSON.stringify(user));
+  }
+
+  private clearSession() {
+    this.currentUser.set(null);
+    this.token.set(null);
+    this.refreshToken = null;
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+    localStorage.removeItem('user');
+  }
 }
@@ -1,6 +1,6 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { User } from '../models/user.model';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { CursorPage, User } from '../models/user.model';
 
 @Injectable({
   providedIn: 'root'
@@ -9,8 +9,23 @@ export class UserService {
   private http = inject(HttpClient);
   private readonly API_URL = 'http://localhost:8080/api/v1/users';
 
-  getUsers() {
-    return this.http.get<User[]>(this.API_URL);
+  getUsers(options: { after?: string | null; limit?: number; sort?: 'id' | 'username' | 'email'; direction?: 'asc' | 'desc' } = {}) {
+    let params = new HttpParams();
+    if (options.after) params = params.set('after', options.after);
+    if (options.limit) params = params.set('limit', options.limit);
+    if (options.sort) params = params.set('sort', options.sort);
+    if (options.direction) params = params.set('direction', options.direction);
+    return this.http.get<CursorPage<User>>(this.API_URL, { params });
+  }
+
+  searchUsers(options: { q?: string; match?: 'prefix' | 'contains'; roles?: string[]; after?: string | null; limit?: number }) {
+    let params = new HttpParams();
+    if (options.q) params = params.set('q', options.q);
+    if (options.match) params = params.set('match', options.match);
+    for (const role of options.roles ?? []) params = params.append('roles', role);
+    if (options.after) params = params.set('after', options.after);
+    if (options.limit) params = params.set('limit', options.limit);
+    return this.http.get<CursorPage<User>>(`${this.API_URL}/search`, { params });
   }
 
   getUser(id: number) {
@@ -0,0 +1,22 @@
+import { AbstractControl, AsyncValidatorFn, ValidationErrors } from '@angular/forms';
+import { Observable, of, timer } from 'rxjs';
+import { catchError, map, switchMap } from 'rxjs/operators';
+import { AuthService } from '../services/auth.service';
+
+// Reports { taken: true } once typing pauses; lookup failures never block the form, the server re-checks on submit
+export function availabilityValidator(authService: AuthService, field: 'username' | 'email'): AsyncValidatorFn {
+  return (control: AbstractControl): Observable<ValidationErrors | null> => {
+    const value = (control.value ?? '').trim();
+    if (!value) {
+      return of(null);
+    }
+    return timer(300).pipe(
+      switchMap(() => authService.checkAvailability({ [field]: value })),
+      map(result => {
+        const available = field === 'username' ? result.usernameAvailable : result.emailAvailable;
+        return available === false ? { taken: true } : null;
+      }),
+      catchError(() => of(null))
+    );
+  };
+}
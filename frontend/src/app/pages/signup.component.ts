@@ -3,6 +3,7 @@ import { CommonModule } from '@angular/common';
 import { ReactiveFormsModule, FormBuilder, Validators } from '@angular/forms';
 import { Router, RouterModule } from '@angular/router';
 import { AuthService } from '../core/services/auth.service';
+import { availabilityValidator } from '../core/validators/availability.validator';
 import { LucideAngularModule, Eye, EyeOff, Users, ArrowRight, Loader2 } from 'lucide-angular';
 import { ButtonComponent } from '../shared/components/button.component';
 import { InputComponent } from '../shared/components/input.component';
@@ -60,6 +61,9 @@ import { ThemeToggleComponent } from '../shared/components/theme-toggle.componen
                 formControlName="username"
                 class="h-12"
               />
+              @if (signupForm.get('username')?.hasError('taken')) {
+                <p class="text-xs text-destructive">This username is already taken</p>
+              }
             </div>
 
             <div class="space-y-2">
@@ -71,6 +75,9 @@ import { ThemeToggleComponent } from '../shared/components/theme-toggle.componen
                 formControlName="email"
                 class="h-12"
               />
+              @if (signupForm.get('email')?.hasError('taken')) {
+                <p class="text-xs text-destructive">This email is already in use</p>
+              }
             </div>
 
             <div class="space-y-2">
@@ -145,8 +152,8 @@ export class SignupComponent {
   LoaderIcon = Loader2;
 
   signupForm = this.fb.group({
-    username: ['', [Validators.required, Validators.minLength(3)]],
-    email: ['', [Validators.required, Validators.email]],
+    username: ['', [Validators.required, Validators.minLength(3)], [availabilityValidator(this.authService, 'username')]],
+    email: ['', [Validators.required, Validators.email], [availabilityValidator(this.authService, 'email')]],
     password: ['', [Validators.required, Validators.minLength(6)]]
   });
 
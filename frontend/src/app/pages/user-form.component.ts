@@ -3,6 +3,8 @@ import { CommonModule } from '@angular/common';
 import { ReactiveFormsModule, FormBuilder, Validators } from '@angular/forms';
 import { Router, RouterModule } from '@angular/router';
 import { UserService } from '../core/services/user.service';
+import { AuthService } from '../core/services/auth.service';
+import { availabilityValidator } from '../core/validators/availability.validator';
 import { SidebarService } from '../core/services/sidebar.service';
 import { DashboardSidebarComponent } from '../shared/components/dashboard-sidebar.component';
 import { DashboardHeaderComponent } from '../shared/components/dashboard-header.component';
@@ -74,7 +76,9 @@ import { LucideAngularModule, ArrowLeft, UserPlus, Loader2 } from 'lucide-angula
                     formControlName="username"
                     class="h-12"
                   />
-                  @if (userForm.get('username')?.invalid && userForm.get('username')?.touched) {
+                  @if (userForm.get('username')?.hasError('taken')) {
+                    <p class="text-xs text-destructive">This username is already taken</p>
+                  } @else if (userForm.get('username')?.invalid && userForm.get('username')?.touched) {
                     <p class="text-xs text-destructive">Username is required (min 3 characters)</p>
                   }
                 </div>
@@ -88,7 +92,9 @@ import { LucideAngularModule, ArrowLeft, UserPlus, Loader2 } from 'lucide-angula
                     formControlName="email"
                     class="h-12"
                   />
-                  @if (userForm.get('email')?.invalid && userForm.get('email')?.touched) {
+                  @if (userForm.get('email')?.hasError('taken')) {
+                    <p class="text-xs text-destructive">This email is already in use</p>
+                  } @else if (userForm.get('email')?.invalid && userForm.get('email')?.touched) {
                     <p class="text-xs text-destructive">Valid email is required</p>
                   }
                 </div>
@@ -149,6 +155,7 @@ import { LucideAngularModule, ArrowLeft, UserPlus, Loader2 } from 'lucide-angula
 export class UserFormComponent {
   private fb = inject(FormBuilder);
   private userService = inject(UserService);
+  private authService = inject(AuthService);
   private router = inject(Router);
   sidebarService = inject(SidebarService);
 
@@ -157,8 +164,8 @@ export class UserFormComponent {
   LoaderIcon = Loader2;
 
   userForm = this.fb.group({
-    username: ['', [Validators.required, Validators.minLength(3)]],
-    email: ['', [Validators.required, Validators.email]],
+    username: ['', [Validators.required, Validators.minLength(3)], [availabilityValidator(this.authService, 'username')]],
+    email: ['', [Validators.required, Validators.email], [availabilityValidator(this.authService, 'email')]],
     password: ['', [Validators.required, Validators.minLength(6)]],
     role: ['ROLE_USER', Validators.required],
   });
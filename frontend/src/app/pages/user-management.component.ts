@@ -1,4 +1,7 @@
-import {Component, computed, inject, OnInit, signal} from '@angular/core';
+import {Component, computed, DestroyRef, inject, OnInit, signal} from '@angular/core';
+import {takeUntilDestroyed} from '@angular/core/rxjs-interop';
+import {Subject} from 'rxjs';
+import {debounceTime} from 'rxjs/operators';
 import {CommonModule} from '@angular/common';
 import {SidebarService} from '../core/services/sidebar.service';
 import {UserService} from '../core/services/user.service';
@@ -82,7 +85,7 @@ import {FormsModule} from '@angular/forms';
                 type="text"
                 placeholder="Search by name, email or role..."
                 [ngModel]="searchTerm()"
-                (ngModelChange)="searchTerm.set($event)"
+                (ngModelChange)="onSearchChange($event)"
                 class="w-full h-12 pl-12 pr-4 bg-card border border-border/50 rounded-xl text-sm focus:outline-none focus:ring-4 focus:ring-sidebar-accent/10 focus:border-sidebar-accent/50 transition-all duration-300 shadow-soft placeholder:text-muted-foreground"
               />
             </div>
@@ -91,7 +94,7 @@ import {FormsModule} from '@angular/forms';
               <lucide-icon [img]="FilterIcon" class="h-4 w-4 text-muted-foreground flex-shrink-0" />
               <select
                 class="h-12 rounded-xl border border-border/50 bg-card px-3 text-sm focus:outline-none focus:ring-4 focus:ring-sidebar-accent/10 transition-all duration-300 shadow-soft"
-                (change)="searchTerm.set($any($event.target).value)"
+                (change)="onRoleChange($any($event.target).value)"
               >
                 <option value="">All Roles</option>
                 <option value="ADMIN">Admins</option>
@@ -182,6 +185,13 @@ import {FormsModule} from '@angular/forms';
                   </tbody>
                 </table>
               </div>
+              @if (nextCursor() && !loading()) {
+                <div class="flex justify-center border-t border-border/30 p-4">
+                  <app-button variant="ghost" class="rounded-xl font-bold" [disabled]="loadingMore()" (click)="loadMore()">
+                    {{ loadingMore() ? 'Loading...' : 'Load more' }}
+                  </app-button>
+                </div>
+              }
             </div>
 
             @if (selectedUser(); as user) {
@@ -242,6 +252,7 @@ export class UserManagementComponent implements OnInit {
   userService = inject(UserService);
   authService = inject(AuthService);
   router = inject(Router);
+  private destroyRef = inject(DestroyRef);
 
   SearchIcon = Search;
   MailIcon = Mail;
@@ -259,25 +270,52 @@ export class UserManagementComponent implements OnInit {
   users = signal<User[]>([]);
   searchTerm = signal('');
   loading = signal(true);
+  loadingMore = signal(false);
+  nextCursor = signal<string | null>(null);
   selectedUser = signal<User | null>(null);
 
-  filteredUsers = computed(() => {
-    const term = this.searchTerm().toLowerCase();
-    return this.users().filter((u: User) =>
-      u.username.toLowerCase().includes(term) ||
-      u.email.toLowerCase().includes(term)
-    );
-  });
+  roleFilter = signal('');
+  private searchChanges = new Subject<void>();
+
+  // Filtering happens on the server; the list only ever holds the pages loaded so far
+  filteredUsers = computed(() => this.users());
 
   ngOnInit() {
+    this.searchChanges.pipe(debounceTime(250), takeUntilDestroyed(this.destroyRef)).subscribe(() => this.fetchUsers());
     this.fetchUsers();
   }
 
+  onSearchChange(term: string) {
+    this.searchTerm.set(term);
+    this.searchChanges.next();
+  }
+
+  onRoleChange(role: string) {
+    this.roleFilter.set(role);
+    this.fetchUsers();
+  }
+
+  private page(after: string | null = null) {
+    const q = this.searchTerm().trim();
+    const role = this.roleFilter();
+    if (!q && !role) {
+      return this.userService.getUsers({ sort: 'username', after });
+    }
+    return this.userService.searchUsers({
+      q,
+      // Substring search needs three characters on the server; shorter terms match as prefixes
+      match: q.length >= 3 ? 'contains' : 'prefix',
+      roles: role ? [`ROLE_${role}`] : [],
+      after
+    });
+  }
+
   fetchUsers() {
     this.loading.set(true);
-    this.userService.getUsers().subscribe({
-      next: (data: User[]) => {
-        this.users.set(data);
+    this.page().subscribe({
+      next: (page) => {
+        this.users.set(page.items);
+        this.nextCursor.set(page.nextCursor);
         this.loading.set(false);
       },
       error: (err: any) => {
@@ -287,6 +325,21 @@ export class UserManagementComponent implements OnInit {
     });
   }
 
+  loadMore() {
+    this.loadingMore.set(true);
+    this.page(this.nextCursor()).subscribe({
+      next: (page) => {
+        this.users.update(users => [...users, ...page.items]);
+        this.nextCursor.set(page.nextCursor);
+        this.loadingMore.set(false);
+      },
+      error: (err: any) => {
+        console.error('Failed to fetch users', err);
+        this.loadingMore.set(false);
+      }
+    });
+  }
+
   canCreateUser(): boolean {
     const roles = this.authService.currentUser()?.roles || [];
     return roles.includes('ROLE_ADMIN') || roles.includes('ROLE_SUPER_ADMIN') || roles.includes('ROLE_MODERATOR');